@@ -0,0 +1,57 @@
+package Unit_Testing;
+
+import util.BillNumberGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ids per second from one shared BillNumberGenerator, on one thread and on
+ * several threads competing for it. Run it as a plain Java program: [threads].
+ */
+public class BillNumberGeneratorBenchmark {
+    private static final int IDS_PER_THREAD = 5_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        BillNumberGenerator generator = new BillNumberGenerator(1);
+
+        for (int count : new int[] { 1, threads }) {
+            double best = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                best = Math.max(best, run(generator, count));
+            }
+            System.out.printf("%2d thread(s): %,.0f ids/sec%n", count, best);
+        }
+
+        long start = System.nanoTime();
+        long length = 0;
+        for (int i = 0; i < IDS_PER_THREAD; i++) {
+            length += generator.nextBillNumber().length();
+        }
+        System.out.printf("Formatted bill numbers, 1 thread: %,.0f numbers/sec (%d chars)%n",
+                IDS_PER_THREAD / ((System.nanoTime() - start) / 1e9), length / IDS_PER_THREAD);
+    }
+
+    private static double run(BillNumberGenerator generator, int threadCount) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        long[] sink = new long[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            int slot = t;
+            threads.add(new Thread(() -> {
+                long last = 0;
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    last = generator.nextId();
+                }
+                sink[slot] = last;
+            }));
+        }
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return (double) IDS_PER_THREAD * threadCount / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,72 @@
+package Unit_Testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import util.BillNumberGenerator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for the Snowflake-style bill number generator.
+ */
+public class BillNumberGeneratorTest {
+
+    @Test
+    void testUniqueAndIncreasingAcrossThreads() throws InterruptedException {
+        BillNumberGenerator generator = new BillNumberGenerator(7);
+        long[][] issued = new long[4][50_000]; // per thread, in issue order
+        Throwable[] failures = new Throwable[issued.length];
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < issued.length; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < issued[thread].length; i++) {
+                        issued[thread][i] = generator.nextId();
+                    }
+                } catch (Throwable e) {
+                    failures[thread] = e;
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Asserted here, a failed assertion in a worker thread would not fail the test
+        Set<Long> ids = new HashSet<>();
+        for (int t = 0; t < issued.length; t++) {
+            assertNull(failures[t], "thread " + t + " failed");
+            for (int i = 0; i < issued[t].length; i++) {
+                if (i > 0) {
+                    assertTrue(issued[t][i] > issued[t][i - 1], "thread " + t + " id " + i + " did not increase");
+                }
+                ids.add(issued[t][i]);
+            }
+        }
+        assertEquals(200_000, ids.size());
+    }
+
+    @Test
+    void testNumbersSortByIssueOrder() {
+        BillNumberGenerator generator = new BillNumberGenerator(1023);
+        String legacy = "BILL-" + System.currentTimeMillis();
+        Set<String> numbers = new HashSet<>();
+        String previous = legacy;
+        for (int i = 0; i < 10_000; i++) {
+            String number = generator.nextBillNumber();
+            assertTrue(number.compareTo(previous) > 0, number + " should sort after " + previous);
+            previous = number;
+            numbers.add(number);
+        }
+        assertEquals(10_000, numbers.size());
+        assertTrue(previous.matches("BILL-\\d{13}-1023-\\d{4}"));
+        assertEquals(Long.parseLong(legacy.substring(5)), BillNumberGenerator.timestampOf(legacy));
+        assertTrue(BillNumberGenerator.timestampOf(previous) >= BillNumberGenerator.timestampOf(legacy));
+        assertEquals(-1, BillNumberGenerator.timestampOf("INVOICE-1"));
+    }
+}
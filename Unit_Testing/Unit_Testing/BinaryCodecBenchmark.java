@@ -0,0 +1,58 @@
+package Unit_Testing;
+
+import model.Item;
+import util.BinaryCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+
+/**
+ * Compares file size and load time of a 100k-item catalog in the old Java
+ * serialization format and the binary codec. Run it as a plain Java program.
+ */
+public class BinaryCodecBenchmark {
+    private static final int ITEM_COUNT = 100_000;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        ArrayList<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(new Item("Item " + i, "Sector " + (i % 10), 10 + i % 500, i % 100,
+                    "Category " + (i % 50), "Description of item " + i, "Supplier " + (i % 20), "images/item" + i + ".png"));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(items);
+        }
+        byte[] legacy = bytes.toByteArray();
+        byte[] codec = BinaryCodec.encodeItems(items, 0);
+
+        System.out.printf("Java serialization: %,d bytes%n", legacy.length);
+        System.out.printf("Binary codec:       %,d bytes%n", codec.length);
+
+        long legacyBest = Long.MAX_VALUE;
+        long codecBest = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            readLegacy(legacy);
+            legacyBest = Math.min(legacyBest, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            BinaryCodec.decodeItems(codec);
+            codecBest = Math.min(codecBest, System.nanoTime() - start);
+        }
+        System.out.printf("Java serialization load: %.1f ms%n", legacyBest / 1e6);
+        System.out.printf("Binary codec load:       %.1f ms%n", codecBest / 1e6);
+    }
+
+    private static Object readLegacy(byte[] data) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return ois.readObject();
+        }
+    }
+}
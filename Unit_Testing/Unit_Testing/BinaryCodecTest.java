@@ -0,0 +1,152 @@
+package Unit_Testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import model.Cashier;
+import model.Item;
+import model.Manager;
+import model.Sector;
+import model.User;
+import util.BinaryCodec;
+import util.BinaryDataFiles;
+import util.Role;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Round-trip tests for the hand-written binary codec.
+ */
+public class BinaryCodecTest {
+
+    @Test
+    void testItemsRoundTrip() throws IOException {
+        ArrayList<Item> items = new ArrayList<>();
+        Item phone = new Item("Phone", "Mobile", 500.0, 20, "Smartphones", "Flagship", "TechCorp", "file:phone.png");
+        phone.sellItem(3);
+        items.add(phone);
+        items.add(new Item("Cable", "Mobile", 9.99, 100, "Smartphones", null, null, null));
+
+        byte[] data = BinaryCodec.encodeItems(items, 42);
+        ArrayList<Item> decoded = BinaryCodec.decodeItems(data);
+
+        assertItemsEqual(items, decoded);
+        assertEquals(3, decoded.get(0).getItemsSold());
+        assertNull(decoded.get(1).getDescription());
+        assertEquals(42, BinaryCodec.readSequence(data));
+    }
+
+    // Item equality only compares SKUs, so compare every stored field
+    private static void assertItemsEqual(List<Item> expected, List<Item> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Item want = expected.get(i);
+            Item got = actual.get(i);
+            assertEquals(want.getSku(), got.getSku());
+            assertEquals(want.getItemName(), got.getItemName());
+            assertEquals(want.getItemSector(), got.getItemSector());
+            assertEquals(want.getPrice(), got.getPrice());
+            assertEquals(want.getStockQuantity(), got.getStockQuantity());
+            assertEquals(want.getItemsSold(), got.getItemsSold());
+            assertEquals(want.getCategory(), got.getCategory());
+            assertEquals(want.getDescription(), got.getDescription());
+            assertEquals(want.getSupplierName(), got.getSupplierName());
+            assertEquals(want.getImagePath(), got.getImagePath());
+        }
+    }
+
+    @Test
+    void testLegacyItemsFileIsMigrated(@TempDir File dir) throws Exception {
+        ArrayList<Item> items = new ArrayList<>();
+        Item phone = new Item("Phone", "Mobile", 500.0, 20, "Smartphones", "Flagship", "TechCorp", "file:phone.png");
+        phone.sellItem(3);
+        items.add(phone);
+        items.add(new Item("Cable", "Mobile", 9.99, 100, "Smartphones", null, null, null));
+        File itemsFile = new File(dir, "items.dat");
+        writeLegacy(itemsFile, items);
+        assertFalse(BinaryCodec.isCodecFormat(BinaryDataFiles.readFile(itemsFile.getPath())));
+
+        ArrayList<Item> loaded = BinaryDataFiles.loadItems(itemsFile.getPath());
+
+        assertItemsEqual(items, loaded);
+        byte[] migrated = BinaryDataFiles.readFile(itemsFile.getPath());
+        assertTrue(BinaryCodec.isCodecFormat(migrated));
+        assertEquals(BinaryCodec.VERSION, BinaryCodec.readVersion(migrated));
+        assertItemsEqual(items, BinaryDataFiles.loadItems(itemsFile.getPath()));
+    }
+
+    @Test
+    void testUsersRoundTrip() throws IOException {
+        Sector sector = new Sector("Home Electronics");
+        sector.addCategory("TVs");
+        ArrayList<Sector> sectors = new ArrayList<>();
+        sectors.add(sector);
+
+        ArrayList<User> users = new ArrayList<>();
+        users.add(new Cashier("Ema", 800, Role.Cashier, "Ema100", "pass", new Date(0), "069", "ema@mail.com", sector));
+        users.add(new Manager("Evina", 1200, Role.Manager, "Evina", "pass", null, "068", "evina@mail.com", sectors));
+
+        ArrayList<User> decoded = BinaryCodec.decodeUsers(BinaryCodec.encodeUsers(users));
+
+        assertEquals(2, decoded.size());
+        Cashier cashier = (Cashier) decoded.get(0);
+        assertEquals("Ema100", cashier.getUsername());
+        assertEquals(Role.Cashier, cashier.getRole());
+        assertEquals(0, cashier.getDateOfBirth().getTime());
+        assertEquals(users.get(0).getId(), cashier.getId());
+        assertEquals("TVs", cashier.getSector().getCategories().get(0));
+        Manager manager = (Manager) decoded.get(1);
+        assertNull(manager.getDateOfBirth());
+        assertEquals(sector, manager.getSectors().get(0));
+    }
+
+    @Test
+    void testLegacyFormatIsNotCodecFormat() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(new ArrayList<Item>());
+        }
+        assertFalse(BinaryCodec.isCodecFormat(bytes.toByteArray()));
+        assertTrue(BinaryCodec.isCodecFormat(BinaryCodec.encodeItems(new ArrayList<>(), 0)));
+    }
+
+    @Test
+    void testWrongKindIsRejected() throws IOException {
+        byte[] data = BinaryCodec.encodeSectors(new ArrayList<>());
+        assertThrows(IOException.class, () -> BinaryCodec.decodeItems(data));
+    }
+
+    @Test
+    void testMigrationGivesNestedItemsTheInventorySku(@TempDir File dir) throws Exception {
+        ArrayList<Item> items = new ArrayList<>();
+        items.add(new Item("Phone", "Mobile", 500.0, 20, "Smartphones", "", "TechCorp", ""));
+        items.add(new Item("Phone", "Home", 300.0, 5, "Landlines", "", "HomeTel", ""));
+        Sector sector = new Sector("Mobile");
+        sector.addItem(new Item("Phone", "Mobile", 500.0, 20, "Smartphones", "", "TechCorp", ""));
+        ArrayList<Sector> sectors = new ArrayList<>();
+        sectors.add(sector);
+        File itemsFile = new File(dir, "items.dat");
+        File sectorsFile = new File(dir, "sectors.dat");
+        writeLegacy(itemsFile, items);
+        writeLegacy(sectorsFile, sectors);
+
+        ArrayList<Sector> migrated = BinaryDataFiles.loadSectors(sectorsFile.getPath());
+        ArrayList<Item> stored = BinaryDataFiles.loadItems(itemsFile.getPath());
+
+        assertEquals(stored.get(0).getSku(), migrated.get(0).viewItems().get(0).getSku());
+        assertEquals(migrated.get(0).viewItems(), BinaryDataFiles.loadSectors(sectorsFile.getPath()).get(0).viewItems());
+    }
+
+    private static void writeLegacy(File file, Object list) throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
+            oos.writeObject(list);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package Unit_Testing;
+
+import model.Item;
+import util.Concurrency;
+import util.InventoryRepository;
+import util.InventoryService;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stress harness for concurrent checkouts. N cashier threads sell random
+ * baskets from one inventory through InventoryService, once spread over the
+ * whole catalog and once over a few hot items. Afterwards the stock of every
+ * item, in memory and reloaded from disk, must equal the start stock minus
+ * what the cashiers sold: any difference is a lost update.
+ *
+ * Run it as a plain Java program: [cashiers] [checkouts per cashier] [processes].
+ * With processes > 1 the cashiers are split over separate JVMs sharing the
+ * same data directory, which exercises the FileChannel locks.
+ */
+public class CheckoutStressBenchmark {
+    private static final int ITEM_COUNT = 200;
+    private static final int HOT_ITEMS = 4;
+    private static final int START_STOCK = 10_000_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("child")) {
+            runChild(new File(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]),
+                    Long.parseLong(args[5]));
+            return;
+        }
+        int cashiers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int checkouts = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int processes = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        boolean clean = true;
+        clean &= run("spread", ITEM_COUNT, cashiers, checkouts, processes);
+        clean &= run("hot", HOT_ITEMS, cashiers, checkouts, processes);
+        System.out.println(clean ? "No lost updates." : "LOST UPDATES DETECTED");
+        if (!clean) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean run(String name, int itemRange, int cashiers, int checkouts, int processes) throws Exception {
+        File dir = Files.createTempDirectory("checkout-stress").toFile();
+        InventoryRepository repository = repository(dir);
+        ArrayList<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(new Item("Item " + i, "Sector " + (i % 5), 10 + i % 50, START_STOCK,
+                    "Category " + (i % 20), "Stress item " + i, "Supplier", ""));
+        }
+        repository.saveAll(items);
+
+        AtomicLongArray sold = new AtomicLongArray(ITEM_COUNT);
+        long start = System.nanoTime();
+        long completed;
+        if (processes <= 1) {
+            completed = sell(repository, dir, itemRange, cashiers, checkouts, 1, sold);
+        } else {
+            completed = sellInChildren(dir, itemRange, cashiers, checkouts, processes, sold);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // In this process, and from a fresh load of the files
+        long lost = processes <= 1 ? countLost(repository, sold) : 0;
+        lost += countLost(repository(dir), sold);
+        System.out.printf("%-6s %d cashiers x %d process(es): %,d checkouts in %.2f s = %,.0f checkouts/sec, lost updates: %d%n",
+                name, cashiers, processes, completed, seconds, completed / seconds, lost);
+        return lost == 0;
+    }
+
+    // Sells random baskets on several threads, returns the number of committed checkouts
+    private static long sell(InventoryRepository repository, File dir, int itemRange, int cashiers, int checkouts,
+            long seed, AtomicLongArray sold) throws InterruptedException {
+        InventoryService service = new InventoryService(repository, Concurrency.STRIPED);
+        AtomicLong completed = new AtomicLong();
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < cashiers; c++) {
+            Random random = new Random(seed * 1000 + c);
+            Thread thread = new Thread(() -> {
+                try {
+                    ready.await();
+                    for (int n = 0; n < checkouts; n++) {
+                        ArrayList<Item> basket = new ArrayList<>();
+                        int[] indexes = new int[1 + random.nextInt(4)];
+                        for (int line = 0; line < indexes.length; line++) {
+                            indexes[line] = random.nextInt(itemRange);
+                            basket.add(new Item("Item " + indexes[line], "", 0, 1 + random.nextInt(3), 0));
+                        }
+                        service.checkout(basket);
+                        for (int line = 0; line < indexes.length; line++) {
+                            sold.addAndGet(indexes[line], basket.get(line).getStockQuantity());
+                        }
+                        completed.incrementAndGet();
+                    }
+                } catch (InterruptedException | IOException e) {
+                    System.err.println("Cashier stopped: " + e.getMessage());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        ready.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return completed.get();
+    }
+
+    private static long sellInChildren(File dir, int itemRange, int cashiers, int checkouts, int processes,
+            AtomicLongArray sold) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> children = new ArrayList<>();
+        for (int p = 0; p < processes; p++) {
+            children.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    CheckoutStressBenchmark.class.getName(), "child", dir.getPath(), String.valueOf(itemRange),
+                    String.valueOf(cashiers / processes), String.valueOf(checkouts), String.valueOf(p + 1))
+                    .inheritIO().start());
+        }
+        long completed = 0;
+        for (int p = 0; p < processes; p++) {
+            children.get(p).waitFor();
+            List<String> lines = Files.readAllLines(new File(dir, "sold-" + (p + 1) + ".txt").toPath());
+            completed += Long.parseLong(lines.get(0));
+            for (int i = 0; i < ITEM_COUNT; i++) {
+                sold.addAndGet(i, Long.parseLong(lines.get(i + 1)));
+            }
+        }
+        return completed;
+    }
+
+    // One JVM of a multi-process run, writes what it sold for the parent to check
+    private static void runChild(File dir, int itemRange, int cashiers, int checkouts, long seed) throws Exception {
+        AtomicLongArray sold = new AtomicLongArray(ITEM_COUNT);
+        long completed = sell(repository(dir), dir, itemRange, cashiers, checkouts, seed, sold);
+        try (PrintWriter out = new PrintWriter(new File(dir, "sold-" + seed + ".txt"))) {
+            out.println(completed);
+            for (int i = 0; i < ITEM_COUNT; i++) {
+                out.println(sold.get(i));
+            }
+        }
+    }
+
+    private static long countLost(InventoryRepository repository, AtomicLongArray sold) {
+        long lost = 0;
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            Item item = repository.findByName("Item " + i);
+            lost += Math.abs(START_STOCK - sold.get(i) - item.getStockQuantity());
+            lost += Math.abs(sold.get(i) - item.getItemsSold());
+        }
+        return lost;
+    }
+
+    private static InventoryRepository repository(File dir) {
+        return new InventoryRepository(new File(dir, "items.dat").getPath(), new File(dir, "items.journal").getPath(),
+                new File(dir, "stock.bin").getPath());
+    }
+}
@@ -0,0 +1,106 @@
+package Unit_Testing;
+
+import model.Item;
+import util.Concurrency;
+import util.InventoryRepository;
+import util.InventoryService;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sell and restock workloads hitting the same few items, once with striped
+ * locks and once with optimistic compare-and-set commits. Prints the
+ * throughput of both workloads, the optimistic conflict and retry counts, and
+ * checks that every item ends at start stock + restocked - sold.
+ * Run it as a plain Java program: [sellers] [restockers] [seconds per mode].
+ */
+public class InventoryContentionBenchmark {
+    private static final int HOT_ITEMS = 4;
+    private static final int START_STOCK = 10_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int sellers = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int restockers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+
+        boolean clean = true;
+        for (Concurrency mode : Concurrency.values()) {
+            clean &= run(mode, sellers, restockers, seconds);
+        }
+        System.out.println(clean ? "No lost updates." : "LOST UPDATES DETECTED");
+    }
+
+    private static boolean run(Concurrency mode, int sellers, int restockers, int seconds) throws Exception {
+        File dir = Files.createTempDirectory("inventory-contention").toFile();
+        InventoryRepository repository = new InventoryRepository(new File(dir, "items.dat").getPath(),
+                new File(dir, "items.journal").getPath(), new File(dir, "stock.bin").getPath());
+        ArrayList<Item> items = new ArrayList<>();
+        for (int i = 0; i < HOT_ITEMS; i++) {
+            items.add(new Item("Item " + i, "Sector", 10, START_STOCK, "Category", "Hot item " + i, "Supplier", ""));
+        }
+        repository.saveAll(items);
+        InventoryService service = new InventoryService(repository, mode);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong checkouts = new AtomicLong();
+        AtomicLong restocks = new AtomicLong();
+        AtomicLongArray sold = new AtomicLongArray(HOT_ITEMS);
+        AtomicLongArray restocked = new AtomicLongArray(HOT_ITEMS);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < sellers + restockers; t++) {
+            boolean seller = t < sellers;
+            Random random = new Random(t);
+            threads.add(new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        int index = random.nextInt(HOT_ITEMS);
+                        if (seller) {
+                            ArrayList<Item> basket = new ArrayList<>();
+                            basket.add(new Item("Item " + index, "", 0, 1, 0));
+                            service.checkout(basket);
+                            sold.incrementAndGet(index);
+                            checkouts.incrementAndGet();
+                        } else {
+                            service.restock("Item " + index, 5);
+                            restocked.addAndGet(index, 5);
+                            restocks.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    System.err.println("Worker stopped: " + e.getMessage());
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // In memory, and from a fresh load of the files
+        InventoryRepository reloaded = new InventoryRepository(new File(dir, "items.dat").getPath(),
+                new File(dir, "items.journal").getPath(), new File(dir, "stock.bin").getPath());
+        long lost = 0;
+        for (InventoryRepository check : List.of(repository, reloaded)) {
+            for (int i = 0; i < HOT_ITEMS; i++) {
+                Item item = check.findByName("Item " + i);
+                lost += Math.abs(START_STOCK + restocked.get(i) - sold.get(i) - item.getStockQuantity());
+                lost += Math.abs(sold.get(i) - item.getItemsSold());
+            }
+        }
+        System.out.printf("%-10s %d sellers, %d restockers: %,.0f checkouts/sec, %,.0f restocks/sec, lost updates: %d%n",
+                mode, sellers, restockers, checkouts.get() / (double) seconds, restocks.get() / (double) seconds, lost);
+        if (mode == Concurrency.OPTIMISTIC) {
+            System.out.println("  " + service.getStatistics());
+        }
+        return lost == 0;
+    }
+}
@@ -0,0 +1,133 @@
+package Unit_Testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+import model.Item;
+import model.Sku;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.InventoryRepository;
+import util.LowStockIndex;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the SKU, name, category, sector and low-stock indexes of the inventory repository.
+ */
+public class InventoryRepositoryTest {
+
+    @TempDir
+    File dir;
+
+    private final List<InventoryRepository> opened = new ArrayList<>();
+
+    private InventoryRepository open() {
+        InventoryRepository repository = new InventoryRepository(new File(dir, "items.dat").getPath(),
+                new File(dir, "items.journal").getPath(), new File(dir, "stock.bin").getPath());
+        opened.add(repository);
+        return repository;
+    }
+
+    // Before the temp dir is deleted, so no compaction still writes into it
+    @AfterEach
+    void closeRepositories() {
+        for (InventoryRepository repository : opened) {
+            repository.close();
+        }
+    }
+
+    private static Item item(String name, String sector, String category) {
+        return new Item(name, sector, 100, 5, category, "", "Supplier", "");
+    }
+
+    private static List<String> names(List<Item> items) {
+        ArrayList<String> names = new ArrayList<>();
+        for (Item item : items) {
+            names.add(item.getItemName());
+        }
+        return names;
+    }
+
+    @Test
+    void testIndexesFollowChanges() {
+        InventoryRepository repository = open();
+        ArrayList<Item> items = new ArrayList<>();
+        items.add(item("TV 1", "Electronics", "TVs"));
+        items.add(item("Phone 1", "Electronics", "Smartphones"));
+        items.add(item("TV 2", "Electronics", "tvs"));
+        repository.saveAll(items);
+
+        assertEquals(List.of("TVs", "Smartphones"), repository.findCategories());
+        assertEquals(List.of("TV 1", "TV 2"), names(repository.findByCategory("TVS")));
+        assertSame(items.get(1), repository.findByName("phone 1"));
+
+        repository.add(item("Blender", "Home", "Kitchen"));
+        repository.delete("Phone 1");
+        repository.recategorize("TV 2", "Home", "Kitchen");
+
+        assertEquals(List.of("TVs", "Kitchen"), repository.findCategories());
+        assertEquals(List.of("TVs"), repository.findCategories("Electronics"));
+        assertEquals(List.of("Blender", "TV 2"), names(repository.findBySector("home")));
+        assertTrue(repository.findByCategory("Smartphones").isEmpty());
+        assertNull(repository.findByName("Phone 1"));
+    }
+
+    @Test
+    void testItemsKeepTheirSkuAcrossSalesAndReloads() {
+        InventoryRepository repository = open();
+        ArrayList<Item> items = new ArrayList<>();
+        items.add(item("Phone", "Electronics", "Smartphones"));
+        items.add(item("Phone", "Home", "Intercoms"));
+        repository.saveAll(items);
+        Item intercom = items.get(1);
+        Sku sku = intercom.getSku();
+        int hash = intercom.hashCode();
+
+        repository.sell(intercom, 2);
+        assertEquals(hash, intercom.hashCode(), "stock is not part of an item's identity");
+        assertSame(intercom, repository.findBySku(sku));
+
+        // Another process reads the snapshot and stock table back under the same SKU
+        InventoryRepository reopened = open();
+        Item stored = reopened.findBySku(sku);
+        assertEquals(intercom, stored);
+        assertEquals("Home", stored.getItemSector());
+        assertEquals(3, stored.getStockQuantity());
+
+        // The delete is journaled by SKU, so the other item of the same name stays
+        assertTrue(reopened.delete(sku));
+        List<Item> remaining = open().findAll();
+        assertEquals(List.of(items.get(0)), remaining);
+        assertEquals("Electronics", remaining.get(0).getItemSector());
+    }
+
+    @Test
+    void testLowStockFollowsSalesAndRestocks() {
+        InventoryRepository repository = open();
+        ArrayList<Item> items = new ArrayList<>();
+        items.add(new Item("TV 1", "Electronics", 100, 8, "TVs", "", "Supplier", ""));
+        items.add(new Item("TV 2", "Electronics", 100, 2, "TVs", "", "Supplier", ""));
+        items.add(new Item("Phone 1", "Electronics", 100, 1, "Smartphones", "", "Supplier", ""));
+        items.add(new Item("Blender", "Home", 100, 0, "Kitchen", "", "Supplier", ""));
+        repository.saveAll(items);
+        ArrayList<String> alerts = new ArrayList<>();
+        repository.addLowStockListener((item, previousStock, low) -> alerts.add(item.getItemName() + (low ? " low" : " ok")));
+
+        List<String> managed = List.of("TVs", "Smartphones");
+        assertEquals(List.of("Phone 1", "TV 2"), names(repository.findLowStock(managed, LowStockIndex.ALERT_THRESHOLD)));
+        assertEquals(2, repository.countLowStock(managed, LowStockIndex.ALERT_THRESHOLD));
+
+        repository.sell(items.get(0), 2); // 8 -> 6, still above
+        repository.sell(items.get(0), 3); // 6 -> 3, crosses
+        repository.restock("Phone 1", 10);
+        assertEquals(List.of("TV 2", "TV 1"), names(repository.findLowStock(managed, LowStockIndex.ALERT_THRESHOLD)));
+        assertEquals(List.of("TV 2"), names(repository.findLowStock(managed, 2)));
+        assertEquals(List.of("TV 1 low", "Phone 1 ok"), alerts);
+
+        repository.delete("TV 2");
+        repository.recategorize("Blender", "Electronics", "TVs");
+        assertEquals(List.of("Blender", "TV 1"), names(repository.findLowStock(managed, LowStockIndex.ALERT_THRESHOLD)));
+    }
+}
@@ -0,0 +1,133 @@
+package Unit_Testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+import model.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.AtomicFileStore;
+import util.Concurrency;
+import util.Durability;
+import util.InventoryRepository;
+import util.InventoryService;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tests for InventoryService commits racing the repository's full rewrites.
+ */
+public class InventoryServiceTest {
+    private static final int ITEMS = 4;
+    private static final int START_STOCK = 1_000_000;
+
+    @TempDir
+    File dir;
+
+    private final List<InventoryRepository> opened = new ArrayList<>();
+    private Durability durability;
+
+    private InventoryRepository open() {
+        InventoryRepository repository = new InventoryRepository(new File(dir, "items.dat").getPath(),
+                new File(dir, "items.journal").getPath(), new File(dir, "stock.bin").getPath());
+        opened.add(repository);
+        return repository;
+    }
+
+    // The race is between memory and the stock table, waiting for group commits only slows it down
+    @BeforeEach
+    void bufferWrites() {
+        durability = AtomicFileStore.getInstance().getDurability();
+        AtomicFileStore.getInstance().setDurability(Durability.BUFFERED);
+    }
+
+    @AfterEach
+    void closeRepositories() {
+        for (InventoryRepository repository : opened) {
+            repository.close();
+        }
+        AtomicFileStore.getInstance().setDurability(durability);
+    }
+
+    @Test
+    void testOptimisticCommitsSurviveConcurrentCatalogChanges() throws Exception {
+        InventoryRepository repository = open();
+        ArrayList<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Item("Item " + i, "Sector", 10, START_STOCK, "Category", "", "Supplier", ""));
+        }
+        repository.saveAll(items);
+        InventoryService service = new InventoryService(repository, Concurrency.OPTIMISTIC);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLongArray sold = new AtomicLongArray(ITEMS);
+        AtomicLongArray restocked = new AtomicLongArray(ITEMS);
+        List<Throwable> failures = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int n = 0; n < 20_000; n++) {
+                        int i = (n + seed) % ITEMS;
+                        Item stored = items.get(i);
+                        if ((n & 1) == 0) {
+                            service.checkout(List.of(new Item(stored.getItemName(), "Category", 10, 1, 0)));
+                            sold.incrementAndGet(i);
+                        } else {
+                            service.restock(stored.getItemName(), 2);
+                            restocked.addAndGet(i, 2);
+                        }
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            }));
+        }
+        // Every add and delete rewrites the catalog and restores stock from the table
+        Thread catalog = new Thread(() -> {
+            for (int n = 0; running.get(); n++) {
+                Item filler = new Item("Filler " + n, "Sector", 1, 1, "Other", "", "Supplier", "");
+                repository.add(filler);
+                repository.delete(filler.getSku());
+            }
+        });
+        catalog.start();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        running.set(false);
+        catalog.join();
+
+        assertEquals(List.of(), failures);
+        for (int i = 0; i < ITEMS; i++) {
+            long expected = START_STOCK + restocked.get(i) - sold.get(i);
+            assertEquals(expected, items.get(i).getStockQuantity(), "lost update in memory on Item " + i);
+            assertEquals(expected, open().findByName("Item " + i).getStockQuantity(), "lost update on disk on Item " + i);
+        }
+    }
+
+    @Test
+    void testUndoCheckoutPutsTheStockBack() throws Exception {
+        InventoryRepository repository = open();
+        Item stored = new Item("Kettle", "Home", 25, 10, "Kitchen", "", "Supplier", "");
+        repository.saveAll(new ArrayList<>(List.of(stored)));
+        InventoryService service = new InventoryService(repository, Concurrency.STRIPED);
+        List<Item> bill = List.of(new Item("Kettle", "Kitchen", 25, 3, 0));
+
+        service.checkout(bill);
+        assertEquals(7, stored.getStockQuantity());
+        service.undoCheckout(bill);
+
+        assertEquals(10, stored.getStockQuantity());
+        assertEquals(0, stored.getItemsSold());
+        assertEquals(10, open().findByName("Kettle").getStockQuantity());
+    }
+}
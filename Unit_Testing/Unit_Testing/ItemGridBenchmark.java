@@ -0,0 +1,156 @@
+package Unit_Testing;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.FlowPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import model.Item;
+import view.ItemGrid;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Frame time and heap of the item view at 10k items: the old FlowPane of
+ * hand-built cards against ItemGrid. Each mode runs in its own JVM, fills a
+ * 1000x800 window, then scrolls from top to bottom over a fixed number of
+ * frames. Reported are the time to the first frame, the mean and worst frame
+ * interval and layout pass while scrolling, the node count and the heap in
+ * use after a GC. Needs a display; run it as a plain Java program, optionally
+ * with flow or grid and an item count.
+ */
+public class ItemGridBenchmark extends Application {
+    private static final int FRAMES = 240;
+
+    private static String mode;
+    private static int itemCount;
+
+    public static void main(String[] args) throws Exception {
+        itemCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        if (args.length > 0) {
+            mode = args[0];
+            launch(args);
+            return;
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        for (String each : new String[] { "flow", "grid" }) {
+            new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), ItemGridBenchmark.class.getName(),
+                    each, String.valueOf(itemCount)).inheritIO().start().waitFor();
+        }
+    }
+
+    @Override
+    public void start(Stage stage) {
+        ArrayList<Item> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new Item("Item " + i, "Sector " + (i % 10), 10 + i % 500, 100,
+                    "Category " + (i % 50), "Description " + i, "Supplier", ""));
+        }
+
+        long start = System.nanoTime();
+        Parent root;
+        Runnable[] scroll = new Runnable[1];
+        if (mode.equals("flow")) {
+            FlowPane flowPane = new FlowPane(30, 30);
+            flowPane.setAlignment(Pos.CENTER);
+            flowPane.setPadding(new Insets(20));
+            for (Item item : items) {
+                flowPane.getChildren().add(card(item));
+            }
+            ScrollPane scrollPane = new ScrollPane(flowPane);
+            scrollPane.setFitToWidth(true);
+            root = scrollPane;
+            int[] frame = { 0 };
+            scroll[0] = () -> scrollPane.setVvalue((double) ++frame[0] / FRAMES);
+        } else {
+            ItemGrid grid = new ItemGrid(item -> { });
+            grid.setItems(items);
+            root = grid.getViewContent();
+            int[] frame = { 0 };
+            scroll[0] = () -> grid.getViewContent().scrollTo(
+                    (int) ((long) ++frame[0] * grid.getViewContent().getItems().size() / FRAMES));
+        }
+        Scene scene = new Scene(root, 1000, 800);
+
+        long[] layoutStart = new long[1];
+        ArrayList<Long> layouts = new ArrayList<>();
+        scene.addPreLayoutPulseListener(() -> layoutStart[0] = System.nanoTime());
+        scene.addPostLayoutPulseListener(() -> layouts.add(System.nanoTime() - layoutStart[0]));
+        stage.setScene(scene);
+        stage.show();
+
+        ArrayList<Long> frames = new ArrayList<>();
+        new AnimationTimer() {
+            private long last = -1;
+            private double firstFrame;
+
+            @Override
+            public void handle(long now) {
+                if (last < 0) {
+                    firstFrame = (now - start) / 1e6;
+                    layouts.clear();
+                } else {
+                    frames.add(now - last);
+                }
+                last = now;
+                if (frames.size() < FRAMES) {
+                    scroll[0].run();
+                    return;
+                }
+                stop();
+                System.gc();
+                Runtime runtime = Runtime.getRuntime();
+                double heap = (runtime.totalMemory() - runtime.freeMemory()) / 1048576.0;
+                System.out.printf("%-4s %,d items: first frame %,.0f ms, frame mean %.1f ms / worst %.1f ms, "
+                                + "layout mean %.2f ms / worst %.2f ms, %,d nodes, heap %.1f MB%n",
+                        mode, itemCount, firstFrame, mean(frames), max(frames), mean(layouts), max(layouts),
+                        countNodes(scene.getRoot()), heap);
+                Platform.exit();
+            }
+        }.start();
+    }
+
+    // The card the old ViewItemsView built for every item
+    private static VBox card(Item item) {
+        VBox itemBox = new VBox(10);
+        itemBox.setAlignment(Pos.CENTER);
+        itemBox.setStyle("-fx-background-color: #ffffff; -fx-border-color: #cccccc; -fx-border-radius: 15px; -fx-padding: 15px; -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.1), 5, 0, 0, 5);");
+        itemBox.setPrefWidth(200);
+        Label itemName = new Label(item.getItemName());
+        itemName.setStyle("-fx-font-size: 14px; -fx-font-weight: bold; -fx-text-fill: #333333;");
+        Label itemPrice = new Label("$" + item.getPrice());
+        itemPrice.setStyle("-fx-font-size: 14px; -fx-text-fill: #666666;");
+        Label itemStock = new Label("Stock: " + item.getStockQuantity());
+        itemStock.setStyle("-fx-font-size: 14px; -fx-text-fill: #999999;");
+        itemBox.getChildren().addAll(itemName, itemPrice, itemStock);
+        return itemBox;
+    }
+
+    private static int countNodes(Node node) {
+        int count = 1;
+        if (node instanceof Parent) {
+            for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    private static double mean(List<Long> nanos) {
+        return nanos.stream().mapToLong(Long::longValue).average().orElse(0) / 1e6;
+    }
+
+    private static double max(List<Long> nanos) {
+        return nanos.stream().mapToLong(Long::longValue).max().orElse(0) / 1e6;
+    }
+}
@@ -0,0 +1,79 @@
+package Unit_Testing;
+
+import model.Item;
+import util.InventoryRepository;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Item lookup latency of add-to-bill at 1k, 10k and 100k items: the old
+ * linear scan with its per-item println (printed to a discarding stream, real
+ * console output is slower still), the same scan without printing, and the
+ * repository's name index. Run it as a plain Java program.
+ */
+public class ItemLookupBenchmark {
+    private static final int[] SIZES = { 1_000, 10_000, 100_000 };
+    private static final int SCAN_LOOKUPS = 200;
+    private static final int INDEX_LOOKUPS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        PrintStream console = System.out;
+        for (int size : SIZES) {
+            ArrayList<Item> items = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                items.add(new Item("Item " + i, "Sector " + (i % 10), 10 + i % 500, 100,
+                        "Category " + (i % 50), "Description " + i, "Supplier", ""));
+            }
+            File dir = Files.createTempDirectory("item-lookup").toFile();
+            InventoryRepository repository = new InventoryRepository(new File(dir, "items.dat").getPath(),
+                    new File(dir, "items.journal").getPath(), new File(dir, "stock.bin").getPath());
+            System.setOut(discard);
+            repository.saveAll(items);
+            System.setOut(console);
+
+            Random random = new Random(size);
+            long start = System.nanoTime();
+            int found = 0;
+            System.setOut(discard);
+            for (int i = 0; i < SCAN_LOOKUPS; i++) {
+                found += scan(items, "ITEM " + random.nextInt(size), true) != null ? 1 : 0;
+            }
+            System.setOut(console);
+            double printing = (System.nanoTime() - start) / 1e3 / SCAN_LOOKUPS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < SCAN_LOOKUPS; i++) {
+                found += scan(items, "ITEM " + random.nextInt(size), false) != null ? 1 : 0;
+            }
+            double scanning = (System.nanoTime() - start) / 1e3 / SCAN_LOOKUPS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < INDEX_LOOKUPS; i++) {
+                found += repository.findByName("ITEM " + random.nextInt(size)) != null ? 1 : 0;
+            }
+            double indexed = (System.nanoTime() - start) / 1e3 / INDEX_LOOKUPS;
+
+            System.out.printf("%,7d items: scan + println %,10.1f us, scan %,8.1f us, name index %.3f us (%d found)%n",
+                    size, printing, scanning, indexed, found);
+        }
+    }
+
+    // The lookup addItemToBill used to do
+    private static Item scan(ArrayList<Item> inventory, String itemName, boolean print) {
+        for (Item item : inventory) {
+            if (print) {
+                System.out.println(item.getItemName() + " - " + item.getItemSector() + " - " + item.getCategory());
+            }
+            if (item.getItemName().equalsIgnoreCase(itemName)) {
+                return item;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,103 @@
+package Unit_Testing;
+
+import model.Item;
+import util.InventoryRepository;
+import util.ItemSearchIndex;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Per-keystroke search latency in a 100k-item catalog: the old filter, which
+ * lower-cases every name and tests contains, against ItemSearchIndex search
+ * and suggest. Every prefix of a few typed queries is timed, as the search
+ * field sees them. One frame at 60 Hz is 16.7 ms. Run it as a plain Java program.
+ */
+public class ItemSearchBenchmark {
+    private static final int ITEM_COUNT = 100_000;
+    private static final String[] WORDS = { "fresh", "organic", "whole", "milk", "bread", "apple", "green", "tea",
+            "coffee", "rice", "pasta", "sauce", "cheese", "butter", "juice", "orange", "chicken", "soap", "paper",
+            "towel", "lemon", "honey", "salt", "sugar", "flour", "olive", "oil", "yogurt", "cereal", "water" };
+    private static final String[] QUERIES = { "organic green tea", "olive oil", "cheese 4711", "zzz" };
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(42);
+        ArrayList<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            items.add(new Item(Character.toUpperCase(name.charAt(0)) + name.substring(1), "Sector " + (i % 10),
+                    10 + i % 500, 100, "Category " + (i % 50), "Description " + i, "Supplier", ""));
+        }
+        File dir = Files.createTempDirectory("item-search").toFile();
+        InventoryRepository repository = new InventoryRepository(new File(dir, "items.dat").getPath(),
+                new File(dir, "items.journal").getPath(), new File(dir, "stock.bin").getPath());
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        repository.saveAll(items);
+        System.setOut(console);
+
+        ItemSearchIndex index = new ItemSearchIndex(repository);
+        long start = System.nanoTime();
+        index.warmUp();
+        System.out.printf("Index build for %,d items: %.1f ms%n", ITEM_COUNT, (System.nanoTime() - start) / 1e6);
+
+        ArrayList<Item> catalog = repository.findAll();
+        long checksum = 0;
+        for (int round = 0; round < 3; round++) { // warm up the JIT
+            for (String query : QUERIES) {
+                for (int length = 1; length <= query.length(); length++) {
+                    checksum += scan(catalog, query.substring(0, length)).size();
+                    checksum += index.search(query.substring(0, length)).size();
+                    checksum += index.suggest(query.substring(0, length), 8).size();
+                }
+            }
+        }
+
+        for (String query : QUERIES) {
+            double worstScan = 0;
+            double worstSearch = 0;
+            double worstSuggest = 0;
+            int matches = 0;
+            for (int length = 1; length <= query.length(); length++) {
+                String typed = query.substring(0, length);
+                start = System.nanoTime();
+                for (int r = 0; r < ROUNDS; r++) {
+                    matches = scan(catalog, typed).size();
+                }
+                worstScan = Math.max(worstScan, (System.nanoTime() - start) / 1e6 / ROUNDS);
+                start = System.nanoTime();
+                for (int r = 0; r < ROUNDS; r++) {
+                    checksum += index.search(typed).size();
+                }
+                worstSearch = Math.max(worstSearch, (System.nanoTime() - start) / 1e6 / ROUNDS);
+                start = System.nanoTime();
+                for (int r = 0; r < ROUNDS; r++) {
+                    checksum += index.suggest(typed, 8).size();
+                }
+                worstSuggest = Math.max(worstSuggest, (System.nanoTime() - start) / 1e6 / ROUNDS);
+            }
+            System.out.printf("%-20s worst keystroke: scan %6.2f ms, index search %6.2f ms, suggest %.3f ms (%,d matches)%n",
+                    "\"" + query + "\"", worstScan, worstSearch, worstSuggest, matches);
+        }
+        System.out.println("(checksum " + checksum + ")");
+    }
+
+    // The filter displayItems used to run on every keystroke
+    private static ArrayList<Item> scan(ArrayList<Item> inventory, String query) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        ArrayList<Item> matches = new ArrayList<>();
+        for (Item item : inventory) {
+            if (item.getItemName().toLowerCase().contains(needle)) {
+                matches.add(item);
+            }
+        }
+        return matches;
+    }
+}
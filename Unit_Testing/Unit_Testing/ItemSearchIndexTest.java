@@ -0,0 +1,76 @@
+package Unit_Testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+import model.Item;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.InventoryRepository;
+import util.ItemSearchIndex;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for substring search and autocomplete over the item names.
+ */
+public class ItemSearchIndexTest {
+
+    @TempDir
+    File dir;
+
+    private static List<String> names(List<Item> items) {
+        ArrayList<String> names = new ArrayList<>();
+        for (Item item : items) {
+            names.add(item.getItemName());
+        }
+        return names;
+    }
+
+    @Test
+    void testSearchAndSuggestFollowCatalog() {
+        InventoryRepository repository = new InventoryRepository(new File(dir, "items.dat").getPath(),
+                new File(dir, "items.journal").getPath(), new File(dir, "stock.bin").getPath());
+        ArrayList<Item> items = new ArrayList<>();
+        items.add(new Item("Green Tea", "Food", 5, 10, "Drinks", "", "Supplier", ""));
+        items.add(new Item("Organic Green Tea", "Food", 7, 10, "Drinks", "", "Supplier", ""));
+        items.add(new Item("Teapot", "Home", 20, 3, "Kitchen", "", "Supplier", ""));
+        repository.saveAll(items);
+        ItemSearchIndex index = new ItemSearchIndex(repository);
+
+        assertEquals(List.of("Green Tea", "Organic Green Tea", "Teapot"), names(index.search("TEA")));
+        assertEquals(List.of("Green Tea", "Organic Green Tea"), names(index.search("n te")));
+        assertEquals(List.of("Teapot"), names(index.search("p")));
+        assertTrue(index.search("coffee").isEmpty());
+        assertEquals(List.of("Green Tea", "Organic Green Tea"), index.suggest("gre", 8));
+        assertEquals(List.of("Teapot"), index.suggest("teap", 8));
+
+        repository.add(new Item("Green Coffee", "Food", 9, 4, "Drinks", "", "Supplier", ""));
+        assertEquals(List.of("Green Coffee"), names(index.search("coffee")));
+        repository.close();
+    }
+
+    @Test
+    void testRemovedItemsLeaveSearchAndSuggest() {
+        InventoryRepository repository = new InventoryRepository(new File(dir, "items.dat").getPath(),
+                new File(dir, "items.journal").getPath(), new File(dir, "stock.bin").getPath());
+        ArrayList<Item> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(new Item("Tea " + i, "Food", 5, 10, "Drinks", "", "Supplier", ""));
+        }
+        repository.saveAll(items);
+        ItemSearchIndex index = new ItemSearchIndex(repository);
+        index.warmUp();
+
+        repository.delete(items.get(0).getSku());
+        assertEquals(19, index.search("tea").size());
+        assertFalse(names(index.search("tea")).contains("Tea 0"));
+        List<String> suggestions = index.suggest("te", 16);
+        assertEquals(16, suggestions.size()); // the next item below the prefix takes the free place
+        assertFalse(suggestions.contains("Tea 0"));
+
+        repository.add(new Item("Teacup", "Home", 4, 2, "Kitchen", "", "Supplier", ""));
+        assertEquals(List.of("Teacup"), index.suggest("teac", 8));
+        repository.close();
+    }
+}
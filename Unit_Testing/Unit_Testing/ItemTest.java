@@ -1,6 +1,7 @@
 package Unit_Testing;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
+import model.BillLine;
 import model.Item;
 
 /**
@@ -48,4 +49,24 @@ public class ItemTest {
         assertTrue(item.hasSufficientStock(10));
         assertFalse(item.hasSufficientStock(11));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSkuIsFixedAtConstruction() {
+        Item item = new Item("Phone", "Electronics", 500.0, 10, 0);
+        assertNotNull(item.getSku());
+        int hash = item.hashCode();
+        item.sellItem(2);
+        assertEquals(hash, item.hashCode());
+        assertNotEquals(item, new Item("Phone", "Electronics", 500.0, 10, 0));
+    }
+
+    @Test
+    void testBillLineIsNotTheStoredItem() {
+        Item stored = new Item("Phone", "Electronics", 500.0, 10, 0);
+        BillLine line = new BillLine(stored.getSku(), "Phone", "Electronics", 500.0, 2);
+        assertEquals(stored.getSku(), line.getSku());
+        assertNotEquals(stored, line);
+        assertNotEquals(line, stored);
+        assertNotEquals(line, new BillLine(stored.getSku(), "Phone", "Electronics", 500.0, 2));
+    }
+}
@@ -0,0 +1,112 @@
+package Unit_Testing;
+
+import model.Item;
+import model.Sector;
+import util.InventoryRepository;
+import util.LowStockIndex;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Low-stock dashboard query at 10k and 100k items: the old double filter over
+ * items x sectors that every home page render ran, against the repository's
+ * low-stock index, for the item list and the badge count. Also times the
+ * sells that keep the index up to date. Run it as a plain Java program.
+ */
+public class LowStockBenchmark {
+    private static final int[] SIZES = { 10_000, 100_000 };
+    private static final int CATEGORIES = 50;
+    private static final int QUERIES = 200;
+    private static final int SELLS = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        PrintStream console = System.out;
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            ArrayList<Item> items = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                // about 1% of the items at or under the threshold
+                int stock = random.nextInt(100) == 0 ? random.nextInt(6) : 6 + random.nextInt(500);
+                items.add(new Item("Item " + i, "Sector " + (i % 10), 10, stock, "Category " + (i % CATEGORIES),
+                        "", "Supplier", ""));
+            }
+            File dir = Files.createTempDirectory("low-stock").toFile();
+            InventoryRepository repository = new InventoryRepository(new File(dir, "items.dat").getPath(),
+                    new File(dir, "items.journal").getPath(), new File(dir, "stock.bin").getPath());
+            System.setOut(discard);
+            repository.saveAll(items);
+            System.setOut(console);
+
+            // The manager runs 3 sectors of 5 categories each
+            ArrayList<Sector> sectors = new ArrayList<>();
+            ArrayList<String> categories = new ArrayList<>();
+            for (int s = 0; s < 3; s++) {
+                Sector sector = new Sector("Sector " + s);
+                for (int c = 0; c < 5; c++) {
+                    sector.addCategory("Category " + (s * 5 + c));
+                    categories.add("Category " + (s * 5 + c));
+                }
+                sectors.add(sector);
+            }
+
+            long found = 0;
+            for (int warm = 0; warm < 50; warm++) {
+                found += scan(repository.findAll(), sectors).size();
+            }
+            for (int warm = 0; warm < 20_000; warm++) {
+                found += repository.findLowStock(categories, LowStockIndex.ALERT_THRESHOLD).size();
+                found += repository.countLowStock(categories, LowStockIndex.ALERT_THRESHOLD);
+            }
+            long start = System.nanoTime();
+            for (int q = 0; q < QUERIES; q++) {
+                found += scan(repository.findAll(), sectors).size();
+            }
+            double scanning = (System.nanoTime() - start) / 1e3 / QUERIES;
+            start = System.nanoTime();
+            for (int q = 0; q < QUERIES; q++) {
+                found += repository.findLowStock(categories, LowStockIndex.ALERT_THRESHOLD).size();
+            }
+            double indexed = (System.nanoTime() - start) / 1e3 / QUERIES;
+            start = System.nanoTime();
+            for (int q = 0; q < QUERIES; q++) {
+                found += repository.countLowStock(categories, LowStockIndex.ALERT_THRESHOLD);
+            }
+            double counted = (System.nanoTime() - start) / 1e3 / QUERIES;
+
+            start = System.nanoTime();
+            for (int n = 0; n < SELLS; n++) {
+                Item item = items.get(random.nextInt(size));
+                if (item.getStockQuantity() > 0) {
+                    repository.sell(item, 1);
+                } else {
+                    repository.restock(item.getItemName(), 20);
+                }
+            }
+            double selling = (System.nanoTime() - start) / 1e3 / SELLS;
+
+            System.out.printf("%,7d items: double filter %,9.1f us, index list %6.1f us, index count %5.1f us, "
+                    + "sell/restock with index upkeep %.2f us (%d)%n", size, scanning, indexed, counted, selling, found);
+        }
+    }
+
+    // What notifyLowStockforManager did: filter items x sectors, then filter the result again
+    private static ArrayList<Item> scan(ArrayList<Item> inventory, ArrayList<Sector> sectors) {
+        ArrayList<Item> lowStockItems = new ArrayList<>();
+        for (Item item : SectorMembershipBenchmark.listScan(inventory, LowStockIndex.ALERT_THRESHOLD, sectors)) {
+            for (Sector sector : sectors) {
+                if (sector.getCategories().contains(item.getCategory())
+                        && item.getStockQuantity() <= LowStockIndex.ALERT_THRESHOLD) {
+                    lowStockItems.add(item);
+                    break;
+                }
+            }
+        }
+        return lowStockItems;
+    }
+}
@@ -0,0 +1,125 @@
+package Unit_Testing;
+
+import model.Bill;
+import model.Item;
+import util.ReceiptParser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+
+/**
+ * Compares bills parsed per second by the old line/regex parser and the
+ * byte-level ReceiptParser over 5,000 generated receipts. Run it as a plain
+ * Java program.
+ */
+public class ReceiptParserBenchmark {
+    private static final int RECEIPT_COUNT = 5_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("receipts");
+        ArrayList<File> receipts = new ArrayList<>();
+        for (int i = 0; i < RECEIPT_COUNT; i++) {
+            receipts.add(Files.writeString(directory.resolve("BILL-" + i + "_21-01-2025.txt"), receipt(i)).toFile());
+        }
+
+        double legacyBest = 0;
+        double parserBest = 0;
+        ReceiptParser parser = new ReceiptParser();
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            double legacyTotal = 0;
+            for (File receipt : receipts) {
+                legacyTotal += legacyLoadBill(receipt).getTotalAmount();
+            }
+            legacyBest = Math.max(legacyBest, RECEIPT_COUNT / ((System.nanoTime() - start) / 1e9));
+
+            start = System.nanoTime();
+            long parserTotal = 0;
+            for (File receipt : receipts) {
+                parser.parse(receipt);
+                parserTotal += parser.getTotalCents();
+            }
+            parserBest = Math.max(parserBest, RECEIPT_COUNT / ((System.nanoTime() - start) / 1e9));
+
+            if (Math.round(legacyTotal * 100) != parserTotal) {
+                throw new IllegalStateException("Parsers disagree: " + legacyTotal + " vs " + parserTotal / 100.0);
+            }
+        }
+        System.out.printf("Line parser:    %,.0f bills/s%n", legacyBest);
+        System.out.printf("ReceiptParser:  %,.0f bills/s%n", parserBest);
+
+        for (File receipt : receipts) {
+            receipt.delete();
+        }
+        directory.toFile().delete();
+    }
+
+    private static String receipt(int number) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=========================================\n");
+        sb.append("                ELECTRONIC STORE          \n");
+        sb.append("=========================================\n");
+        sb.append("Bill Number: BILL-").append(number).append('\n');
+        sb.append("Cashier: Cashier ").append(number % 7).append('\n');
+        sb.append("Sector: Sector ").append(number % 3).append('\n');
+        sb.append("Date: 21-01-2025\n");
+        sb.append("-----------------------------------------\n");
+        sb.append("Items:\n");
+        sb.append(String.format("%-20s %-10s %-10s %-10s\n", "Item Name", "Category", "Quantity", "Price"));
+        sb.append("-----------------------------------------\n");
+        double total = 0;
+        for (int line = 0; line < 8; line++) {
+            double price = 10 + (number + line) % 90 + 0.99;
+            sb.append(String.format("%-20s %-10s %-10d %-10.2f\n", "Item " + line, "Cat" + line % 4, 1 + line % 3, price));
+            total += price;
+        }
+        sb.append("-----------------------------------------\n");
+        sb.append(String.format("Total Amount: %.2f\n", total));
+        sb.append("=========================================\n");
+        sb.append("          THANK YOU FOR SHOPPING         \n");
+        sb.append("=========================================\n");
+        return sb.toString();
+    }
+
+    // The loadBillFromFile implementation the parser replaced
+    private static Bill legacyLoadBill(File billFile) throws Exception {
+        try (BufferedReader br = new BufferedReader(new FileReader(billFile))) {
+            String line;
+            String billNumber = null;
+            ArrayList<Item> items = new ArrayList<>();
+            double totalAmount = 0.0;
+            Date saleDate = null;
+            boolean isItemSection = false;
+
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+
+                if (line.startsWith("Bill Number:")) {
+                    billNumber = line.split(":")[1].trim();
+                } else if (line.startsWith("Date:")) {
+                    saleDate = new SimpleDateFormat("dd-MM-yyyy").parse(line.split(":")[1].trim());
+                } else if (line.startsWith("Total Amount:")) {
+                    totalAmount = Double.parseDouble(line.split(":")[1].trim());
+                } else if (line.startsWith("Items:")) {
+                    isItemSection = true;
+                } else if (isItemSection && !line.startsWith("-") && !line.isEmpty()) {
+                    if (line.startsWith("Item Name")) continue;
+
+                    String[] itemDetails = line.split("\\s{2,}");
+                    if (itemDetails.length >= 4) {
+                        items.add(new Item(itemDetails[0].trim(), itemDetails[1].trim(),
+                                Double.parseDouble(itemDetails[3].trim()), 0, 0));
+                    }
+                }
+            }
+            return new Bill(billNumber, items, totalAmount, saleDate);
+        }
+    }
+}
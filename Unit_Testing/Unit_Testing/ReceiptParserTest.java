@@ -0,0 +1,82 @@
+package Unit_Testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import model.Bill;
+import util.ReceiptParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Tests for the byte-level receipt scanner.
+ */
+public class ReceiptParserTest {
+
+    private static final String RECEIPT =
+            "=========================================\n" +
+            "                ELECTRONIC STORE          \n" +
+            "=========================================\n" +
+            "Bill Number: BILL-1737497730102\n" +
+            "Cashier: Ema\n" +
+            "Sector: Home Electronics\n" +
+            "Date: 21-01-2025\n" +
+            "-----------------------------------------\n" +
+            "Items:\n" +
+            "Item Name            Category   Quantity   Price     \n" +
+            "-----------------------------------------\n" +
+            "Samsung 55\" 4K UHD Smart LED TV TVs        2          499.99    \n" +
+            "Kettle               Kitchen    1          19.50     \n" +
+            "-----------------------------------------\n" +
+            "Total Amount: 1019.48\n" +
+            "=========================================\n" +
+            "          THANK YOU FOR SHOPPING         \n" +
+            "=========================================\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testParseHeaderAndLines() throws IOException {
+        File receipt = write("BILL-1.txt", RECEIPT);
+        ReceiptParser parser = new ReceiptParser();
+
+        assertTrue(parser.parse(receipt));
+        assertEquals("BILL-1737497730102", parser.getBillNumber());
+        assertEquals("Ema", parser.getCashierName());
+        assertEquals("Home Electronics", parser.getSector());
+        assertEquals(LocalDate.of(2025, 1, 21).toEpochDay(), parser.getEpochDay());
+        assertEquals(101948, parser.getTotalCents());
+
+        assertEquals(2, parser.getLineCount());
+        assertEquals("Samsung 55\" 4K UHD Smart LED TV", parser.getLineName(0));
+        assertEquals("TVs", parser.getLineCategory(0));
+        assertEquals(2, parser.getLineQuantity(0));
+        assertEquals(49999, parser.getLinePriceCents(0));
+        assertEquals("Kettle", parser.getLineName(1));
+        assertEquals("Kitchen", parser.getLineCategory(1));
+        assertEquals(1950, parser.getLinePriceCents(1));
+
+        Bill bill = parser.toBill();
+        assertEquals(1019.48, bill.getTotalAmount(), 0.001);
+        assertEquals(2, bill.getItems().size());
+    }
+
+    @Test
+    void testParserIsReusedAcrossReceipts() throws IOException {
+        ReceiptParser parser = new ReceiptParser();
+        assertTrue(parser.parse(write("BILL-1.txt", RECEIPT)));
+        assertFalse(parser.parse(write("BILL-2.txt", "Bill Number: BILL-2\n")));
+        assertEquals("BILL-2", parser.getBillNumber());
+        assertEquals(0, parser.getLineCount());
+        assertNull(parser.getCashierName());
+    }
+
+    private File write(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content).toFile();
+    }
+}
@@ -0,0 +1,43 @@
+package Unit_Testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import util.RevenueIndex;
+
+import java.time.LocalDate;
+
+/**
+ * Tests for the Fenwick-tree revenue index behind the date-range reports.
+ */
+public class RevenueIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 21);
+
+    @Test
+    void testRangeSums() {
+        RevenueIndex index = new RevenueIndex();
+        index.add(DAY.toEpochDay(), 1, 99998);
+        index.add(DAY.toEpochDay(), 1, 49999);
+        index.add(DAY.plusDays(1).toEpochDay(), 1, 20000);
+        index.add(DAY.plusDays(10).toEpochDay(), 1, 500);
+
+        assertEquals(149997, index.getTotalCents(DAY, DAY));
+        assertEquals(169997, index.getTotalCents(DAY, DAY.plusDays(1)));
+        assertEquals(20500, index.getTotalCents(DAY.plusDays(1), DAY.plusDays(30)));
+        assertEquals(4, index.getBillCount(LocalDate.MIN, LocalDate.MAX));
+        assertEquals(0, index.getTotalCents(DAY.plusDays(2), DAY.plusDays(9)));
+    }
+
+    @Test
+    void testGrowsForEarlierAndLaterDays() {
+        RevenueIndex index = new RevenueIndex();
+        index.add(DAY.toEpochDay(), 1, 100);
+        index.add(DAY.plusDays(500).toEpochDay(), 1, 200); // beyond the initial capacity
+        index.add(DAY.minusDays(300).toEpochDay(), 1, 300); // late correction before the first day
+
+        assertEquals(600, index.getTotalCents(DAY.minusYears(2), DAY.plusYears(2)));
+        assertEquals(300, index.getTotalCents(DAY.minusDays(300), DAY.minusDays(300)));
+        assertEquals(100, index.getTotalCents(DAY, DAY));
+        assertEquals(200, index.getTotalCents(DAY.plusDays(1), DAY.plusDays(500)));
+    }
+}
@@ -0,0 +1,93 @@
+package Unit_Testing;
+
+import model.Item;
+import model.Sector;
+import util.FileHandlerMANAGER;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Low-stock scan over 100k items for a manager of 100 sectors with 20
+ * categories each: the ArrayList contains per item per sector the scan used
+ * to do, Sector.hasCategory per item per sector, and the category -> sector
+ * map that FileHandlerMANAGER.filterLowStockItems now builds once per scan.
+ * Run it as a plain Java program.
+ */
+public class SectorMembershipBenchmark {
+    private static final int ITEM_COUNT = 100_000;
+    private static final int SECTORS = 100;
+    private static final int CATEGORIES_PER_SECTOR = 20;
+    private static final int THRESHOLD = 5;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        Random random = new Random(7);
+        ArrayList<Sector> sectors = new ArrayList<>();
+        for (int s = 0; s < SECTORS; s++) {
+            Sector sector = new Sector("Sector " + s);
+            for (int c = 0; c < CATEGORIES_PER_SECTOR; c++) {
+                sector.addCategory("Category " + (s * CATEGORIES_PER_SECTOR + c));
+            }
+            sectors.add(sector);
+        }
+        // Items spread over twice as many categories as the manager runs, so half of them match no sector
+        ArrayList<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(new Item("Item " + i, "", 10, random.nextInt(50),
+                    "Category " + random.nextInt(2 * SECTORS * CATEGORIES_PER_SECTOR), "", "Supplier", ""));
+        }
+
+        long found = 0;
+        for (int warm = 0; warm < 3; warm++) {
+            found += listScan(items, THRESHOLD, sectors).size();
+            found += setScan(items, THRESHOLD, sectors).size();
+            found += FileHandlerMANAGER.filterLowStockItems(items, THRESHOLD, sectors).size();
+        }
+        long start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            found += listScan(items, THRESHOLD, sectors).size();
+        }
+        double list = (System.nanoTime() - start) / 1e6 / ROUNDS;
+        start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            found += setScan(items, THRESHOLD, sectors).size();
+        }
+        double set = (System.nanoTime() - start) / 1e6 / ROUNDS;
+        start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            found += FileHandlerMANAGER.filterLowStockItems(items, THRESHOLD, sectors).size();
+        }
+        double reverse = (System.nanoTime() - start) / 1e6 / ROUNDS;
+
+        System.out.printf("%d sectors x %,d items: ArrayList contains %,.1f ms, Sector.hasCategory %,.1f ms, "
+                + "category -> sector map %.1f ms (%d)%n", SECTORS, ITEM_COUNT, list, set, reverse, found);
+    }
+
+    // The scan before categories were hashed
+    static ArrayList<Item> listScan(ArrayList<Item> inventory, int threshold, ArrayList<Sector> sectors) {
+        ArrayList<Item> lowStockItems = new ArrayList<>();
+        for (Item item : inventory) {
+            for (Sector sector : sectors) {
+                if (sector.getCategories().contains(item.getCategory()) && item.getStockQuantity() <= threshold) {
+                    lowStockItems.add(item);
+                    break;
+                }
+            }
+        }
+        return lowStockItems;
+    }
+
+    private static ArrayList<Item> setScan(ArrayList<Item> inventory, int threshold, ArrayList<Sector> sectors) {
+        ArrayList<Item> lowStockItems = new ArrayList<>();
+        for (Item item : inventory) {
+            for (Sector sector : sectors) {
+                if (sector.hasCategory(item.getCategory()) && item.getStockQuantity() <= threshold) {
+                    lowStockItems.add(item);
+                    break;
+                }
+            }
+        }
+        return lowStockItems;
+    }
+}
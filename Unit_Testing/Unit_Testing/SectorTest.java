@@ -4,6 +4,13 @@ import org.junit.jupiter.api.Test;
 
 import model.Item;
 import model.Sector;
+import util.SectorCategoryIndex;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,4 +37,32 @@ class SectorTest {
         assertTrue(removed, "removeItem should return true when item exists and is removed");
         assertFalse(sector.viewItems().contains(item), "Item should no longer exist in sector after removal");
     }
-}
\ No newline at end of file
+
+    @Test
+    void hasCategory_shouldMatchIgnoringCaseAndSurviveSerialization() throws Exception {
+        Sector sector = new Sector("Electronics");
+        sector.addCategory("Smartphones");
+        assertTrue(sector.hasCategory("smartphones "), "Membership should ignore case and surrounding spaces");
+        sector.addCategory("TVs");
+        assertTrue(sector.hasCategory("TVS"), "Categories added after a lookup should be found");
+        assertFalse(sector.hasCategory("Laptops"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(sector);
+        }
+        Sector copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (Sector) in.readObject();
+        }
+        assertEquals(List.of("Smartphones", "TVs"), copy.getCategories(), "Serialized form should still carry the list");
+        assertTrue(copy.hasCategory("tvs"));
+
+        Sector home = new Sector("Home");
+        home.addCategory("tvs");
+        SectorCategoryIndex index = new SectorCategoryIndex(List.of(sector, home));
+        assertEquals(List.of(sector, home), index.sectorsOf("TVs"));
+        assertTrue(index.covers("SMARTPHONES"));
+        assertFalse(index.covers("Laptops"));
+    }
+}
@@ -0,0 +1,68 @@
+package Unit_Testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+import model.Item;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.ThumbnailStore;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Tests for thumbnail generation, lookup and backfill.
+ */
+public class ThumbnailStoreTest {
+
+    @TempDir
+    File dir;
+
+    private File image(String name, int width, int height, Color color) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        File file = new File(dir, name);
+        ImageIO.write(image, "png", file);
+        return file;
+    }
+
+    @Test
+    void testGenerateFindAndBackfill() throws IOException {
+        ThumbnailStore store = new ThumbnailStore(new File(dir, "thumbnails").getPath());
+        File photo = image("photo.png", 1200, 800, Color.RED);
+
+        assertTrue(store.generate(photo.toURI().toString()));
+        assertFalse(store.generate(photo.getPath()), "up to date thumbnails are not made again");
+        BufferedImage small = ImageIO.read(store.find(photo, 150));
+        assertEquals(150, small.getWidth());
+        assertEquals(100, small.getHeight());
+        assertEquals(250, ImageIO.read(store.find(photo, 200)).getWidth());
+        assertNull(store.find(photo, 400));
+
+        // A changed original has no thumbnail until it is generated again
+        image("photo.png", 600, 600, Color.BLUE);
+        photo.setLastModified(photo.lastModified() + 2000);
+        assertNull(store.find(photo, 150));
+
+        File other = image("other.png", 300, 900, Color.GREEN);
+        int generated = store.backfill(List.of(
+                new Item("A", "Sector", 1, 1, "Category", "", "Supplier", photo.getPath()),
+                new Item("B", "Sector", 1, 1, "Category", "", "Supplier", other.getPath()),
+                new Item("C", "Sector", 1, 1, "Category", "", "Supplier", other.getPath()),
+                new Item("D", "Sector", 1, 1, "Category", "", "Supplier", "")), 2);
+        assertEquals(2, generated);
+        assertEquals(150, ImageIO.read(store.find(photo, 150)).getWidth());
+        assertEquals(150, ImageIO.read(store.find(other, 150)).getHeight());
+
+        // The index survives a restart
+        ThumbnailStore reopened = new ThumbnailStore(new File(dir, "thumbnails").getPath());
+        assertEquals(store.find(other, 250), reopened.find(other, 250));
+    }
+}
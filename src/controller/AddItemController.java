@@ -6,7 +6,9 @@ import javafx.scene.image.ImageView;
 import javafx.stage.FileChooser;
 import model.Item;
 import model.Manager;
+import util.BackgroundTasks;
 import util.FileHandlerMANAGER;
+import util.ThumbnailStore;
 
 import java.util.ArrayList;
 
@@ -41,10 +43,12 @@ public class AddItemController {
     }
 
 	public void addNewItem(Item newItem) {
-		ArrayList<Item> inventory = fileHandler.loadInventory(); 
-		inventory.add(newItem); 
-		fileHandler.saveInventory(inventory); 
+		fileHandler.addItem(newItem); 
 		System.out.println("New item added to inventory: " + newItem.getItemName());
+		// Thumbnails are made off the FX thread, views fall back to the original until they exist
+		BackgroundTasks.getInstance().submit(progress -> ThumbnailStore.getInstance().generate(newItem.getImagePath()),
+				generated -> { },
+				error -> System.err.println("Error generating thumbnails for " + newItem.getItemName() + ": " + error.getMessage()));
 	}
 
     public void showError(String message) {
@@ -11,10 +11,12 @@ import model.Bill;
 import model.Cashier;
 import model.Item;
 import model.Sector;
+import util.BackgroundTasks;
 import util.FileHandler;
 import view.CashierView;
 import view.CreateBillView;
 import view.DailyBillsView;
+import view.LoadingView;
 
 public class CashierController {
 
@@ -34,11 +36,25 @@ public class CashierController {
 		this.mainLayout = new BorderPane(); 
 		this.centerContent = new StackPane(); 
 		loadDataFromFiles();
-		setupUI(); 
 	}
 
-	// Load data from binary 
+	// Load data from binary off the FX thread, then build the dashboard
 	private void loadDataFromFiles() {
+		LoadingView loadingView = new LoadingView("Loading sector data...");
+		primaryStage.setScene(new Scene(loadingView.getViewContent(), 1200, 600));
+		primaryStage.setTitle("Cashier Dashboard");
+		primaryStage.show();
+
+		loadingView.bind(BackgroundTasks.getInstance().submit(progress -> {
+			loadCashierData(progress);
+			return cashier;
+		}, loaded -> setupUI(), error -> {
+			System.out.println("Error loading cashier data: " + error.getMessage());
+			loadingView.showError("Error loading cashier data: " + error.getMessage());
+		}), false);
+	}
+
+	private void loadCashierData(BackgroundTasks.Progress progress) {
 	    ArrayList<Sector> sectors = fileHandler.loadSectors();
 	    if (sectors.isEmpty()) {
 	        throw new RuntimeException("Failed to load sectors.");
@@ -59,16 +75,21 @@ public class CashierController {
 	        throw new RuntimeException("Failed to find the sector: " + cashier.getSector().getName());
 	    }
 
+	    progress.update(1, 3);
+	    progress.message("Loading items...");
 	    ArrayList<Item> items = fileHandler.loadInventoryBySector(cashier.getSector().getName());
 	    cashier.setItems(items);
 
 	    // Load bills
+	    progress.update(2, 3);
+	    progress.message("Loading bills...");
 	    try {
 	        ArrayList<Bill> bills = fileHandler.loadBills();
 	        cashier.setBills(bills);
 	    } catch (Exception e) {
 	        System.out.println("Error loading bills: " + e.getMessage());
 	    }
+	    progress.update(3, 3);
 	}
 
 	private void setupUI() {
@@ -1,15 +1,23 @@
 package controller;
 
+import javafx.concurrent.Task;
 import javafx.scene.control.Alert;
 
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.VBox;
+import model.BillLine;
+import model.Cashier;
 import model.Item;
 import model.Sector;
+import model.Sku;
+import util.BackgroundTasks;
+import util.BillNumberGenerator;
 import util.FileHandler;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 public class CreateBillController {
 	private FileHandler fileHandler; // Handles file operations
@@ -17,8 +25,8 @@ public class CreateBillController {
 	private TextField totalField; // Field to display the current total amount
 	private ComboBox<String> categoryDropdown; // Drop down for selecting categories
 	private ComboBox<String> itemDropdown; // Drop down for selecting items
-	private ArrayList<Item> inventory; // Full inventory for the cashier's assigned sector
 	private ArrayList<Item> billItems; // Items added to the current bill
+	private HashMap<Sku, Integer> quantitiesOnBill; // Units of each item the current bill holds
 	private Sector assignedSector; // Sector assigned to the cashier
 
 	// Constructor to initialize the controller with UI elements and assigned sector
@@ -30,20 +38,13 @@ public class CreateBillController {
 		this.categoryDropdown = categoryDropdown;
 		this.itemDropdown = itemDropdown;
 		this.assignedSector = assignedSector;
-		this.inventory = new ArrayList<>();
 		this.billItems = new ArrayList<>();
+		this.quantitiesOnBill = new HashMap<>();
 
-		loadInventory(); // Load inventory for the assigned sector
 		populateCategories(); // Populate category drop down
 		setupCategorySelection(); // Initialize category selection functionality
 	}
 
-	// Load inventory for the assigned sector
-	private void loadInventory() {
-		ArrayList<Item> allItems = fileHandler.loadInventory(); // Load all items from the inventory file
-		this.inventory.addAll(allItems);
-	}
-
 	private void populateCategories() {
 		ArrayList<String> categories = this.assignedSector.getCategories();
 		categoryDropdown.getItems().addAll(categories);
@@ -77,39 +78,30 @@ public class CreateBillController {
 			return;
 		}
 
-		Item selectedItem = null;
-
-		// Find the selected item in the inventory
-		for (int i = 0; i < this.inventory.size(); i++) {
-			Item item = this.inventory.get(i);
-
-			System.out.println(item.getItemName() + " - " + item.getItemSector() + " - " + item.getCategory());
-
-			if (item.getItemName().equalsIgnoreCase(itemName)) {
-				selectedItem = item;
-				break;
-			}
-		}
+		// Find the selected item through the inventory's name index
+		Item selectedItem = fileHandler.findItemByName(itemName);
 
 		if (selectedItem == null) {
 			showError("Item not found in inventory.");
 			return;
 		}
 
-		if (!selectedItem.hasSufficientStock(quantity)) {
+		// Inventory items are shared through the repository, so stock is only
+		// deducted on finalize. Count what this bill already holds instead.
+		if (!selectedItem.hasSufficientStock(quantitiesOnBill.getOrDefault(selectedItem.getSku(), 0) + quantity)) {
 			showError("Insufficient stock for item: " + selectedItem.getItemName());
 			return;
 		}
 
-		// Deduct stock and calculate price
-		selectedItem.sellItem(quantity);
+		// Calculate price
 		double totalPrice = selectedItem.getSellingPrice() * quantity;
 
-		// Add the item to the current bill
-		Item billItem = new Item(selectedItem.getItemName(), selectedItem.getCategory(), selectedItem.getSellingPrice(),
-				quantity, 0);
+		// Add the item to the current bill, the line keeps the stored item's SKU
+		Item billItem = new BillLine(selectedItem.getSku(), selectedItem.getItemName(), selectedItem.getCategory(),
+				selectedItem.getSellingPrice(), quantity);
 
 		this.billItems.add(billItem); // Maintain a reference to the added item
+		this.quantitiesOnBill.merge(billItem.getSku(), quantity, Integer::sum);
 
 		// Update UI
 		String itemInfo = String.format("Item Name: %s | Category: %s | Quantity: %d | Price: %.2f",
@@ -123,32 +115,46 @@ public class CreateBillController {
 
 	}
 
-	// Finalize the bill and save it
-	public void finalizeBill(String cashierName, String sector) {
+	/**
+	 * Finalize the bill and save it. The receipt, stock and ledger writes run on
+	 * a background thread; the fields are reset and the alert shown once they
+	 * are done. Returns the running task, or null if there was nothing to save.
+	 */
+	public Task<String> finalizeBill(Cashier cashier, String sector) {
+		if (this.billItems.isEmpty()) {
+			showError("No items added to the bill.");
+			return null;
+		}
+
+		double totalAmount;
 		try {
-			if (this.billItems.isEmpty()) {
-				showError("No items added to the bill.");
-				return;
-			}
+			totalAmount = Double.parseDouble(totalField.getText());
+		} catch (NumberFormatException e) {
+			showError("Failed to finalize bill: " + e.getMessage());
+			return null;
+		}
 
-			double totalAmount = Double.parseDouble(totalField.getText());
+		// Snapshot the bill, the UI keeps its own list until the save succeeds
+		ArrayList<Item> items = new ArrayList<>(this.billItems);
 
-			// Generate a unique bill number and create a new bill
+		return BackgroundTasks.getInstance().submit(progress -> {
+			// Deduct the stock first, a refused checkout leaves no receipt behind
+			fileHandler.updateInventoryForSale(items);
 			String billNumber = generateBillNumber();
-//			Bill newBill = new Bill(billNumber, this.billItems, totalAmount, new Date());
-
-			// Save the bill
-			fileHandler.saveBill(billNumber, this.billItems, totalAmount, cashierName, sector);
-			fileHandler.updateInventoryForSale(billItems);
-
+			try {
+				fileHandler.saveBill(billNumber, items, totalAmount, cashier.getName(), sector);
+			} catch (IOException e) {
+				// Without a receipt the sale did not happen, so its stock goes back
+				fileHandler.undoInventoryForSale(items);
+				throw e;
+			}
+			fileHandler.recordSale(billNumber, cashier, sector, totalAmount, items.size());
+			return billNumber;
+		}, billNumber -> {
 			// Reset UI and bill items
 			resetFields();
-
 			showSuccess("Bill created successfully!\nBill Number: " + billNumber);
-
-		} catch (Exception e) {
-			showError("Failed to finalize bill: " + e.getMessage());
-		}
+		}, error -> showError("Failed to finalize bill: " + error.getMessage()));
 	}
 
 	private void resetFields() {
@@ -157,12 +163,13 @@ public class CreateBillController {
 		categoryDropdown.getSelectionModel().clearSelection();
 		itemDropdown.getItems().clear();
 		this.billItems.clear();
+		this.quantitiesOnBill.clear();
 
 	}
 
-	// Generate a unique bill number
+	// Generate a unique bill number, unique across terminals; see BillNumberGenerator
 	private String generateBillNumber() {
-		return "BILL-" + System.currentTimeMillis();
+		return BillNumberGenerator.getInstance().nextBillNumber();
 	}
 
 	// Alerts
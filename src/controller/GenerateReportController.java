@@ -3,12 +3,12 @@ package controller;
 import javafx.scene.Scene;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import model.Cashier;
 import model.Manager;
+import model.Sector;
+import util.FileHandlerMANAGER;
+import util.SalesAggregates;
 import view.GenerateReportView;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -16,6 +16,8 @@ import java.util.ArrayList;
 public class GenerateReportController {
 
     private Manager manager;
+    private final SalesAggregates salesAggregates = SalesAggregates.getInstance();
+
     public GenerateReportController(Manager manager) {
         this.manager = manager;
     }
@@ -27,59 +29,62 @@ public class GenerateReportController {
 
         VBox layout = generateReportView.getViewContent();
 
-        Scene scene = new Scene(layout, 500, 400);
+        Scene scene = new Scene(layout, 600, 480);
         reportStage.setTitle("Generate Sales Report");
         reportStage.setScene(scene);
         reportStage.show();
     }
 
     public String generateSalesReport(String timePeriod) {
-        // Calculate the total sales from the filtered bills (using data from SalesSummary.txt)
-        double totalSales = calculateTotalSalesFromSummary(timePeriod);
+        LocalDate now = LocalDate.now();
+        return generateSalesReport(periodStart(timePeriod, now), now);
+    }
 
-        return String.format("Total Sales: $%.2f", totalSales);
+    // Each report is two prefix-sum lookups in the revenue index, whatever the range
+    public String generateSalesReport(LocalDate from, LocalDate to) {
+        return formatReport("Whole store", salesAggregates.getTotals(from, to), from, to);
     }
 
-    private double calculateTotalSalesFromSummary(String timePeriod) {
-        String summaryFilePath = "C:\\Users\\Evina\\git\\Electronics-Store\\src\\BinaryFiles\\sales_summary.txt";
-        File summaryFile = new File(summaryFilePath);
-        double totalSales = 0.0;
+    public String generateSectorReport(String sector, LocalDate from, LocalDate to) {
+        return formatReport("Sector " + sector, salesAggregates.getSectorTotals(sector, from, to), from, to);
+    }
 
-        if (!summaryFile.exists()) {
-            System.out.println("Sales summary file does not exist.");
-            return totalSales;
-        }
+    public String generateCashierReport(String cashierName, LocalDate from, LocalDate to) {
+        return formatReport("Cashier " + cashierName, salesAggregates.getCashierTotals(cashierName, from, to), from, to);
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(summaryFile))) {
-            String line;
-            // Read each line
-            while ((line = reader.readLine()) != null) {
-                if (line.contains("Sales Report")) {
-                    continue;
-                }
+    public ArrayList<String> loadSectorNames() {
+        ArrayList<String> names = new ArrayList<>();
+        if (manager != null && manager.getSectors() != null) {
+            for (Sector sector : manager.getSectors()) {
+                names.add(sector.getName());
+            }
+        }
+        return names;
+    }
 
-                if (line.contains("Total Amount:") && line.contains("Cashier:")) {
-                    // Split the line into parts by the "Total Amount:" label
-                    String[] parts = line.split("Total Amount:");
-                    if (parts.length > 1) {
-                        // extract the total amount
-                        String totalAmountStr = parts[1].split(",")[0].trim();  
-                        try {
-                            double totalAmount = Double.parseDouble(totalAmountStr);
-                            if (totalAmount > 0.0) {
-                                totalSales += totalAmount;
-                            }
-                        } catch (NumberFormatException e) {
-                            System.out.println("Error parsing total amount: " + parts[1]);
-                        }
-                    }
-                }
+    public ArrayList<String> loadCashierNames() {
+        ArrayList<String> names = new ArrayList<>();
+        if (manager != null && manager.getSectors() != null) {
+            for (Cashier cashier : new FileHandlerMANAGER().loadCashiersByRole(manager.getSectors())) {
+                names.add(cashier.getName());
             }
-        } catch (IOException e) {
-            System.err.println("Error reading sales summary: " + e.getMessage());
         }
+        return names;
+    }
+
+    // First day of a preset period ending today
+    public LocalDate periodStart(String timePeriod, LocalDate today) {
+        if (timePeriod.equals("Last Month")) {
+            return today.minusMonths(1).plusDays(1);
+        }
+        return today.minusDays(6); // Last 7 Days
+    }
 
-        return totalSales;
+    private String formatReport(String scope, SalesAggregates.Totals totals, LocalDate from, LocalDate to) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+        return String.format("%s, %s to %s%nTotal Bills: %d%nTotal Sales: $%.2f", scope,
+                from.format(formatter), to.format(formatter), totals.getBillCount(), totals.getTotalAmount());
     }
 
     public ArrayList<String> filterBills(ArrayList<String> billsData, String timePeriod) {
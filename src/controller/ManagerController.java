@@ -1,4 +1,5 @@
 package controller;
+import javafx.application.Platform;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.layout.BorderPane;
@@ -9,11 +10,16 @@ import model.Manager;
 import model.Sector;
 import model.Supplier;
 import model.Item;
+import util.BackgroundTasks;
 import util.FileHandler;
 import util.FileHandlerMANAGER;
+import util.InventoryRepository;
+import util.ItemSearchIndex;
+import util.LowStockIndex;
 import view.*;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ManagerController {
     private Stage primaryStage;
@@ -23,6 +29,9 @@ public class ManagerController {
     private StackPane centerContent;
     private Scene managerScene;
     private FileHandler fileHandler1;
+    private ManagerView homeView; // the dashboard last shown, refreshed on low-stock alerts
+    private final AtomicBoolean lowStockRefreshPending = new AtomicBoolean();
+    private final LowStockIndex.Listener lowStockListener = (item, previousStock, low) -> refreshLowStock();
 
     public ManagerController(Stage primaryStage, Manager manager) {
         this.primaryStage = primaryStage;
@@ -32,22 +41,45 @@ public class ManagerController {
         this.mainLayout = new BorderPane();
         this.centerContent = new StackPane();
         loadDataFromFiles();
-        setupUI();
     }
 
-    private void loadDataFromFiles() { //Loads data the moment the stage is opened
-        ArrayList<Item> items = fileHandler.loadInventory();
-        manager.setItems(items);
-        ArrayList<Supplier> suppliers = fileHandler.loadSuppliers();
-        manager.setSuppliers(suppliers);
-        ArrayList<Sector> loadedSectors = fileHandler.loadManagerSectors();
-        manager.setSectors(loadedSectors);
+    // Loads data the moment the stage is opened, off the FX thread; the dashboard is built once it is in
+    private void loadDataFromFiles() {
+        LoadingView loadingView = new LoadingView("Loading inventory...");
+        primaryStage.setScene(new Scene(loadingView.getViewContent(), 1000, 800));
+        primaryStage.setTitle("Manager Dashboard");
+        primaryStage.show();
+
+        // the manager is only read by the views built in setupUI, after the task completes
+        loadingView.bind(BackgroundTasks.getInstance().submit(progress -> {
+            manager.setItems(fileHandler.loadInventory());
+            progress.update(1, 3);
+            progress.message("Loading suppliers...");
+            manager.setSuppliers(fileHandler.loadSuppliers());
+            progress.update(2, 3);
+            progress.message("Loading sectors...");
+            manager.setSectors(fileHandler.loadManagerSectors());
+            progress.update(3, 3);
+            ItemSearchIndex.getInstance().warmUp(); // built now, so the first search does not wait for it
+            return manager;
+        }, loaded -> setupUI(), error -> {
+            System.err.println("Error loading manager data: " + error.getMessage());
+            loadingView.showError("Error loading manager data: " + error.getMessage());
+        }), false);
     }
 
     private void setupUI() {
         ManagerView managerView = new ManagerView(this, primaryStage, manager, fileHandler);
         managerView.setupUI(mainLayout, centerContent);
+        homeView = managerView;
+        InventoryRepository.getInstance().addLowStockListener(lowStockListener);
         managerScene = new Scene(mainLayout, 1000, 800);
+        // The repository outlives this dashboard; stop listening once another scene replaces it
+        managerScene.windowProperty().addListener((observable, oldWindow, newWindow) -> {
+            if (newWindow == null) {
+                InventoryRepository.getInstance().removeLowStockListener(lowStockListener);
+            }
+        });
         primaryStage.setTitle("Manager Dashboard");
         primaryStage.setScene(managerScene);
         primaryStage.centerOnScreen();
@@ -57,6 +89,7 @@ public class ManagerController {
     public void openHomePage() {
         ManagerView managerView = new ManagerView(this, primaryStage, manager, fileHandler);
         managerView.showHomePage();
+        homeView = managerView;
     }
 
     public void openAddItemView() {
@@ -113,13 +146,24 @@ public class ManagerController {
         centerContent.getChildren().add(content);
     }
 
+    // Alerts arrive on whichever thread changed the stock; a burst of them is one refresh on the FX thread
+    private void refreshLowStock() {
+        if (lowStockRefreshPending.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                lowStockRefreshPending.set(false);
+                if (homeView != null) {
+                    homeView.refreshLowStock();
+                }
+            });
+        }
+    }
+
     public int getLowStockItemsCount() {
         // gets sectors of manager
         ArrayList<Sector> managerSectors = manager.getSectors();
 
-        // low stock items
-        ArrayList<Item> lowStockItems = fileHandler.notifyLowStockforManager(5, managerSectors);     
-        return lowStockItems.size();
+        // low stock items, counted in the repository's low-stock index
+        return fileHandler.countLowStockForManager(LowStockIndex.ALERT_THRESHOLD, managerSectors);
     }
 
 
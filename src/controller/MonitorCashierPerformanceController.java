@@ -8,12 +8,9 @@ import model.Cashier;
 import model.Manager;
 import model.Sector;
 import util.FileHandlerMANAGER;
+import util.SalesAggregates;
 import view.MonitorCashierPerformanceView;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.ArrayList;
 
 public class MonitorCashierPerformanceController {
@@ -40,47 +37,10 @@ public class MonitorCashierPerformanceController {
     }
 
     public void monitorCashierPerformance(Cashier selectedCashier, Label totalBillsLabel, Label totalRevenueLabel) {
-        int totalBills = 0;
-        double totalRevenue = 0.0;
+        SalesAggregates.Totals totals = SalesAggregates.getInstance().getCashierTotalsAllTime(selectedCashier.getName());
 
-        String summaryFilePath = "src/BinaryFiles/sales_summary.txt";
-        File summaryFile = new File(summaryFilePath);
-
-        if (!summaryFile.exists()) {
-            showError("Sales summary file does not exist.");
-            return;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(summaryFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(", ");
-                if (parts.length >= 4) {
-                    String billNumber = parts[0].split(": ")[1].trim();
-                    String totalAmountStr = parts[2].split(": ")[1].trim();
-                    String cashierName = parts[3].split(": ")[1].trim();
-
-                    double totalAmount = 0.0;
-                    try {
-                        totalAmount = Double.parseDouble(totalAmountStr);
-                    } catch (NumberFormatException e) {
-                        System.err.println("Invalid total amount format for bill " + billNumber + ": " + totalAmountStr);
-                        continue;
-                    }
-
-                    if (cashierName.equals(selectedCashier.getName())) {
-                        totalBills++;
-                        totalRevenue += totalAmount;
-                    }
-                }
-            }
-        } catch (IOException e) {
-            showError("Error reading the sales summary file: " + e.getMessage());
-            return;
-        }
-
-        totalBillsLabel.setText("Total Bills: " + totalBills);
-        totalRevenueLabel.setText("Total Revenue: $" + String.format("%.2f", totalRevenue));
+        totalBillsLabel.setText("Total Bills: " + totals.getBillCount());
+        totalRevenueLabel.setText("Total Revenue: $" + String.format("%.2f", totals.getTotalAmount()));
     }
 
     private void showError(String message) {
@@ -3,12 +3,9 @@ package controller;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import model.Manager;
-import model.Item;
 import view.RestockItemView;
 import util.FileHandlerMANAGER;
 
-import java.util.ArrayList;
-
 public class RestockItemController {
 
     private Manager manager;
@@ -29,24 +26,9 @@ public class RestockItemController {
     }
 
     // Move file handling logic here
-    public void restockItem(String selectedItem, int quantity, ArrayList<Item> itemsToRestock) {
-        Item item = findItemByName(selectedItem, itemsToRestock);
-        if (item != null) {
-            // Restock the item
-            item.restockItem(quantity);
-
-            // Save updated inventory list back to the file
-            fileHandler.saveInventory(manager.getItems());
-        }
-    }
-
-    private Item findItemByName(String itemName, ArrayList<Item> itemsToRestock) {
-        for (Item item : itemsToRestock) {
-            if (item.getItemName().equalsIgnoreCase(itemName)) {
-                return item;
-            }
-        }
-        return null;
+    public void restockItem(String selectedItem, int quantity) {
+        // Restock the shared item, found through the repository's name index, and journal the change
+        fileHandler.restockItem(selectedItem, quantity);
     }
 }
 
@@ -1,9 +1,7 @@
 package main;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
@@ -13,6 +11,7 @@ import javafx.application.Application;
 import javafx.stage.Stage;
 import model.Admin;
 import model.User;
+import util.BinaryDataFiles;
 import util.Role;
 import view.LoginView;
 
@@ -46,10 +45,7 @@ public class Main extends Application {
 			ArrayList<User> data = new ArrayList<>();
 			data.add(admin);
 			try {
-			ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filepath));
-				
-				oos.writeObject(data);
-				oos.close();
+				BinaryDataFiles.saveUsers(filepath, data);
 				System.out.println("Admin file created with default admin.");
 			} catch (IOException e) {
 				System.err.println("Error creating admin file: " + e.getMessage());
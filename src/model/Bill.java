@@ -1,8 +1,11 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.function.Supplier;
 
 public class Bill implements Serializable{
 	private static final long serialVersionUID = -4660349044455634797L;
@@ -11,6 +14,7 @@ public class Bill implements Serializable{
 	private ArrayList<Item> items;
 	private double totalAmount;
 	private Date saleDate;
+	private transient Supplier<ArrayList<Item>> itemLoader; // reads the receipt on first use
 	
 	
 	public Bill(String billNumber, ArrayList<Item> items, double totalAmount, Date saleDate) {
@@ -19,6 +23,14 @@ public class Bill implements Serializable{
 		this.totalAmount = totalAmount;
 		this.saleDate = saleDate;
 	}
+
+	// Bill from the catalog, the items are only loaded when they are needed
+	public Bill(String billNumber, double totalAmount, Date saleDate, Supplier<ArrayList<Item>> itemLoader) {
+		this.billNumber = billNumber;
+		this.totalAmount = totalAmount;
+		this.saleDate = saleDate;
+		this.itemLoader = itemLoader;
+	}
 	
 	public String getBillNumber() {
 		return billNumber;
@@ -29,11 +41,16 @@ public class Bill implements Serializable{
 	}
 	
 	public ArrayList<Item> getItems() {
+		if (items == null && itemLoader != null) {
+			items = itemLoader.get();
+			itemLoader = null;
+		}
 		return items;
 	}
 	
 	public void setItems(ArrayList<Item> items) {
 		this.items = items;
+		this.itemLoader = null;
 	}
 	
 	public double getTotalAmount() {
@@ -54,6 +71,7 @@ public class Bill implements Serializable{
 	
 	public double calculateTotal() {
 		double total = 0.0;
+		ArrayList<Item> items = getItems();
 		for(int i = 0; i <items.size(); i++) {
 			total += items.get(i).getSellingPrice() * items.get(i).getStockQuantity();
 		}
@@ -79,7 +97,7 @@ public class Bill implements Serializable{
 	    billDisplay.append("-----------------------------------------\n");
 
 	    // Loop through items to include their details
-	    for (Item item : items) {
+	    for (Item item : getItems()) {
 	        billDisplay.append(String.format(
 	            "%-20s %-15s %-10d %-10.2f\n",
 	            item.getItemName(),
@@ -102,6 +120,12 @@ public class Bill implements Serializable{
 	     return billDisplay.toString();
 	}
 	
+	// Catalog bills load their items before being written out
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		getItems();
+		out.defaultWriteObject();
+	}
+
 	@Override
 	public String toString() {
 		return "Bill{ " +
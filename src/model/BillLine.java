@@ -0,0 +1,24 @@
+package model;
+
+/**
+ * One line of a bill: a quantity of a stored item, carrying the stored item's
+ * SKU so the checkout finds it. A line is neither the stored item nor another
+ * line of it, so unlike Item it is only equal to itself.
+ */
+public class BillLine extends Item {
+	private static final long serialVersionUID = 1L;
+
+	public BillLine(Sku sku, String itemName, String itemCategory, double price, int quantity) {
+		super(sku, itemName, itemCategory, price, quantity, 0);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return this == o;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(this);
+	}
+}
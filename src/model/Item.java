@@ -3,6 +3,7 @@ package model;
 import java.io.Serializable;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 
 
@@ -11,23 +12,39 @@ public class Item implements Serializable {
 	 * 
 	 */
 	private static final long serialVersionUID = -3874406897246168956L;
+	private final Sku sku; // identity; equals and hashCode use nothing else
 	private String itemName;
     private String itemSector;
     private double price;
-    private int stockQuantity;
-    private int itemsSold;
+    private volatile int stockQuantity;
+    private volatile int itemsSold;
     private String imagePath;
     private String category;
     private String description;
     private String supplierName;
 
+    // Stock version: even while stable, odd while a commit is writing the two stock fields
+    private transient volatile long version;
+    private static final AtomicLongFieldUpdater<Item> VERSION = AtomicLongFieldUpdater.newUpdater(Item.class, "version");
+
     // Constructor for Manager
     public Item(String itemName, String itemSector, double price, int stockQuantity, String category, String description, String supplierName, String imagePath) {
+        this(itemName, itemSector, price, stockQuantity, 0, category, description, supplierName, imagePath);
+    }
+
+    // Constructor for Manager, for an item that already sold
+    public Item(String itemName, String itemSector, double price, int stockQuantity, int itemsSold, String category, String description, String supplierName, String imagePath) {
+        this(Sku.random(), itemName, itemSector, price, stockQuantity, itemsSold, category, description, supplierName, imagePath);
+    }
+
+    // Constructor used when loading an item back from the binary codec
+    public Item(Sku sku, String itemName, String itemSector, double price, int stockQuantity, int itemsSold, String category, String description, String supplierName, String imagePath) {
+        this.sku = Objects.requireNonNull(sku, "sku");
         this.itemName = itemName;
         this.itemSector = itemSector;
         this.price = price;
         this.stockQuantity = stockQuantity;
-        this.itemsSold = 0;
+        this.itemsSold = itemsSold;
         this.category = category;
         this.description = description;
         this.supplierName = supplierName;
@@ -36,6 +53,12 @@ public class Item implements Serializable {
 
     // Constructor for Cashier
     public Item(String itemName, String itemCategory, double price, int stockQuantity, int itemsSold) {
+        this(Sku.random(), itemName, itemCategory, price, stockQuantity, itemsSold);
+    }
+
+    // Constructor for BillLine, a line of the stored item with this SKU
+    protected Item(Sku sku, String itemName, String itemCategory, double price, int stockQuantity, int itemsSold) {
+        this.sku = Objects.requireNonNull(sku, "sku");
         this.itemName = itemName;
         //TODO: itemSector should not be itemCategory
         this.itemSector = itemCategory;
@@ -49,22 +72,69 @@ public class Item implements Serializable {
   
 
     public void sellItem(int quantity) {
-        if (quantity > stockQuantity) {
-            System.out.println("Not enough stock available for: " + itemName);
-            return;
+        while (true) {
+            long current = getVersion();
+            if (quantity > stockQuantity) {
+                System.out.println("Not enough stock available for: " + itemName);
+                return;
+            }
+            if (compareAndSetStock(current, stockQuantity - quantity, itemsSold + quantity)) {
+                return;
+            }
         }
-        stockQuantity -= quantity;  
-        itemsSold += quantity;      
     }
 
 
     public void restockItem(int quantity) {
 
-     this.stockQuantity += quantity;  // Update the stock quantity
+     adjustStock(quantity, 0);  // Update the stock quantity
 
     }
   
 
+    // Used when stock levels are loaded from the stock table
+    public void restoreStock(int stockQuantity, int itemsSold) {
+        while (!compareAndSetStock(getVersion(), stockQuantity, itemsSold)) {
+            // another writer committed first, overwrite its values anyway
+        }
+    }
+
+    // Adds the deltas to stock and sold, retrying until no other writer interferes
+    public void adjustStock(int stockDelta, int soldDelta) {
+        while (true) {
+            long current = getVersion();
+            if (compareAndSetStock(current, stockQuantity + stockDelta, itemsSold + soldDelta)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stock version to pass to compareAndSetStock. Read it before the stock
+     * values the new values are computed from; it waits out a commit in progress.
+     */
+    public long getVersion() {
+        long current;
+        while (((current = version) & 1) != 0) {
+            Thread.onSpinWait();
+        }
+        return current;
+    }
+
+    /**
+     * Writes both stock fields if nothing was committed since expectedVersion
+     * was read, otherwise changes nothing and returns false.
+     */
+    public boolean compareAndSetStock(long expectedVersion, int stockQuantity, int itemsSold) {
+        if (!VERSION.compareAndSet(this, expectedVersion, expectedVersion + 1)) {
+            return false;
+        }
+        this.stockQuantity = stockQuantity;
+        this.itemsSold = itemsSold;
+        version = expectedVersion + 2;
+        return true;
+    }
+
     public boolean hasSufficientStock(int requestedQuantity) {
         return stockQuantity >= requestedQuantity;
     }
@@ -73,6 +143,20 @@ public class Item implements Serializable {
         return this.price;
     }
 
+    public Sku getSku() {
+        return sku;
+    }
+
+    // Copy of the item under another SKU, for copies of a stored item written before items had SKUs
+    public Item withSku(Sku sku) {
+        return new Item(sku, itemName, itemSector, price, stockQuantity, itemsSold, category, description, supplierName, imagePath);
+    }
+
+    // Items serialized before items had SKUs come back without one
+    private Object readResolve() {
+        return sku != null ? this : withSku(Sku.random());
+    }
+
     public String getItemName() {
         return itemName;
     }
@@ -138,20 +222,11 @@ public class Item implements Serializable {
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        Item item = (Item) o;
-        return Double.compare(item.price, price) == 0 &&
-                itemsSold == item.itemsSold &&
-                stockQuantity == item.stockQuantity &&
-                Objects.equals(itemName, item.itemName) &&
-                Objects.equals(itemSector, item.itemSector) &&
-                Objects.equals(category, item.category) &&
-                Objects.equals(description, item.description) &&
-                Objects.equals(supplierName, item.supplierName) &&
-                Objects.equals(imagePath, item.imagePath);
+        return sku.equals(((Item) o).sku);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(itemName, itemSector, price, itemsSold, stockQuantity, imagePath, category, description, supplierName);
+        return sku.hashCode();
     }
 }
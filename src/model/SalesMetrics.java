@@ -98,10 +98,18 @@ public class SalesMetrics implements Serializable{
         return totalRevenue;
     }
 
+    public void setTotalRevenue(double totalRevenue) {
+        this.totalRevenue = totalRevenue;
+    }
+
     public int getTotalItemsSold() {
         return totalItemsSold;
     }
 
+    public void setTotalItemsSold(int totalItemsSold) {
+        this.totalItemsSold = totalItemsSold;
+    }
+
     public String getTimePeriod() {
         return timePeriod;
     }
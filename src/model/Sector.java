@@ -1,7 +1,11 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Locale;
 import java.util.Objects;
 
 public class Sector implements Serializable {
@@ -10,6 +14,8 @@ public class Sector implements Serializable {
 	private String sectorName;
     private ArrayList<Item> items;
     private ArrayList<String> categories;  // Add a list to store categories
+    // Normalized categories for membership tests; not serialized, so older sectors.dat files still load
+    private transient HashSet<String> categoryKeys = new HashSet<>();
 
     public Sector(String sectorName) {
         this.sectorName = sectorName;
@@ -23,6 +29,38 @@ public class Sector implements Serializable {
 
     public void addCategory(String category) {
         categories.add(category);  // Add category to the list
+        if (category != null) {
+            categoryKeys.add(normalizeCategory(category));
+        }
+    }
+
+    /**
+     * O(1) membership test. Ignores case and surrounding spaces, like the
+     * low-stock index, where getCategories().contains needs an exact match.
+     */
+    public boolean hasCategory(String category) {
+        return category != null && categoryKeys.contains(categoryKey(category));
+    }
+
+    // Interned, so equal categories of many sectors share one string
+    public static String normalizeCategory(String category) {
+        return categoryKey(category).intern();
+    }
+
+    // The same key without interning, for lookups
+    public static String categoryKey(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // The set is transient, so it is rebuilt from the serialized list
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        categoryKeys = new HashSet<>();
+        for (String category : categories) {
+            if (category != null) {
+                categoryKeys.add(normalizeCategory(category));
+            }
+        }
     }
 
     public ArrayList<Item> viewItems() {
@@ -0,0 +1,62 @@
+package model;
+
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.Locale;
+
+/**
+ * Stock keeping unit: the immutable identity of an item, given to it when it
+ * is created. Prints as SKU-<base 36 value>.
+ */
+public final class Sku implements Serializable, Comparable<Sku> {
+	private static final long serialVersionUID = 1L;
+	private static final String PREFIX = "SKU-";
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	private final long value;
+
+	private Sku(long value) {
+		this.value = value;
+	}
+
+	public static Sku of(long value) {
+		return new Sku(value);
+	}
+
+	// A new SKU; 63 random bits, so terminals create items without coordinating like UUIDs
+	public static Sku random() {
+		return new Sku(RANDOM.nextLong() & Long.MAX_VALUE);
+	}
+
+	// Reads a SKU printed by toString
+	public static Sku parse(String text) {
+		if (text == null || !text.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+			throw new IllegalArgumentException("Not a SKU: " + text);
+		}
+		return new Sku(Long.parseLong(text.substring(PREFIX.length()), 36));
+	}
+
+	public long getValue() {
+		return value;
+	}
+
+	@Override
+	public int compareTo(Sku other) {
+		return Long.compare(value, other.value);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof Sku && ((Sku) o).value == value;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(value);
+	}
+
+	@Override
+	public String toString() {
+		return PREFIX + Long.toString(value, 36).toUpperCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,310 @@
+package util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crash-safe persistence for the binary data files.
+ * Every save is written to a temp file next to the target, forced with
+ * FileChannel.force and renamed over the live file, so a crash leaves either
+ * the old or the new content and never a truncated file. In BATCHED and
+ * BUFFERED mode, saves to the same file within the commit window are coalesced
+ * and only the latest content is physically written. Files that are appended
+ * to or written in place, such as the journal, ask for a sync instead; in
+ * BATCHED mode every file asked for within the window is forced once by the
+ * same group commit.
+ */
+public class AtomicFileStore {
+	private static final long DEFAULT_WINDOW_MILLIS = 5;
+
+	private static AtomicFileStore instance;
+
+	private final Object lock = new Object();
+	private final LinkedHashMap<String, PendingWrite> pending = new LinkedHashMap<>();
+	private final LinkedHashMap<String, PendingSync> pendingSyncs = new LinkedHashMap<>();
+	private final ScheduledExecutorService committer;
+	private volatile Durability durability;
+	private volatile long windowMillis = DEFAULT_WINDOW_MILLIS;
+	private boolean commitScheduled;
+
+	// Counters
+	private long saveRequests;
+	private long physicalWrites;
+	private long syncRequests;
+	private long physicalSyncs;
+
+	private static class PendingWrite {
+		private byte[] data;
+		private final CompletableFuture<Void> done = new CompletableFuture<>();
+	}
+
+	private static class PendingSync {
+		private Forcer forcer;
+		private final CompletableFuture<Void> done = new CompletableFuture<>();
+	}
+
+	// Forces what was written to one file to disk
+	public interface Forcer {
+		void force() throws IOException;
+	}
+
+	AtomicFileStore(Durability durability) {
+		this.durability = durability;
+		this.committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "data-file-committer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	// Mode can be chosen with -Dstore.durability=per_write|batched|buffered, in any case
+	public static synchronized AtomicFileStore getInstance() {
+		if (instance == null) {
+			Durability mode = Durability.BATCHED;
+			String configured = System.getProperty("store.durability");
+			if (configured != null) {
+				try {
+					mode = Durability.valueOf(configured.trim().toUpperCase(Locale.ROOT));
+				} catch (IllegalArgumentException e) {
+					System.err.println("Unknown durability mode " + configured + ", using " + mode);
+				}
+			}
+			instance = new AtomicFileStore(mode);
+		}
+		return instance;
+	}
+
+	/**
+	 * Replaces the file content. Returns once the content is on disk
+	 * (PER_WRITE, BATCHED) or handed to the operating system (BUFFERED).
+	 */
+	public void save(String path, byte[] data) throws IOException {
+		synchronized (lock) {
+			saveRequests++;
+		}
+		if (durability == Durability.PER_WRITE) {
+			writeAtomically(path, data, true);
+			return;
+		}
+
+		CompletableFuture<Void> done;
+		synchronized (lock) {
+			PendingWrite write = pending.get(path);
+			if (write == null) {
+				write = new PendingWrite();
+				pending.put(path, write);
+			}
+			write.data = data; // a later save replaces an earlier one in the same window
+			done = write.done;
+			scheduleCommit();
+		}
+		await(done, "saving " + path);
+	}
+
+	/**
+	 * Asks for what was appended to or written in place in the file at path
+	 * to be made durable, and returns what to pass to awaitSync. PER_WRITE
+	 * forces it right away, BATCHED with the next group commit and BUFFERED
+	 * never. Requests for the same file within one window are forced once,
+	 * with the forcer of the latest request, so it must cover the earlier
+	 * writes too. Callers holding a lock other writers need can release it
+	 * before they wait, so those writers join the same commit.
+	 */
+	public CompletableFuture<Void> requestSync(String path, Forcer forcer) {
+		synchronized (lock) {
+			syncRequests++;
+		}
+		Durability mode = durability;
+		if (mode == Durability.BUFFERED) {
+			return CompletableFuture.completedFuture(null);
+		}
+		if (mode == Durability.PER_WRITE) {
+			CompletableFuture<Void> done = new CompletableFuture<>();
+			force(forcer, done);
+			return done;
+		}
+		synchronized (lock) {
+			PendingSync sync = pendingSyncs.get(path);
+			if (sync == null) {
+				sync = new PendingSync();
+				pendingSyncs.put(path, sync);
+			}
+			sync.forcer = forcer;
+			scheduleCommit();
+			return sync.done;
+		}
+	}
+
+	// Requests a sync of an appended file through a channel of its own, which forces the whole file
+	public CompletableFuture<Void> requestSync(File file) {
+		return requestSync(file.getAbsolutePath(), () -> {
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+				channel.force(false);
+			}
+		});
+	}
+
+	// Waits for a requested sync, rethrowing its failure
+	public void awaitSync(CompletableFuture<Void> sync) throws IOException {
+		await(sync, "forcing changes to disk");
+	}
+
+	private static void await(CompletableFuture<Void> done, String what) throws IOException {
+		try {
+			done.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while " + what, e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException("Error " + what, cause);
+		}
+	}
+
+	// Called holding lock
+	private void scheduleCommit() {
+		if (!commitScheduled) {
+			commitScheduled = true;
+			committer.schedule(this::commit, windowMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void commit() {
+		Map<String, PendingWrite> batch;
+		Map<String, PendingSync> syncs;
+		synchronized (lock) {
+			batch = new LinkedHashMap<>(pending);
+			pending.clear();
+			syncs = new LinkedHashMap<>(pendingSyncs);
+			pendingSyncs.clear();
+			commitScheduled = false;
+		}
+		boolean force = durability == Durability.BATCHED;
+		for (Map.Entry<String, PendingWrite> entry : batch.entrySet()) {
+			try {
+				writeAtomically(entry.getKey(), entry.getValue().data, force);
+				entry.getValue().done.complete(null);
+			} catch (IOException | RuntimeException e) {
+				entry.getValue().done.completeExceptionally(e);
+			}
+		}
+		for (PendingSync sync : syncs.values()) {
+			if (force) {
+				force(sync.forcer, sync.done);
+			} else {
+				sync.done.complete(null); // switched to BUFFERED within the window
+			}
+		}
+	}
+
+	private void force(Forcer forcer, CompletableFuture<Void> done) {
+		try {
+			forcer.force();
+			synchronized (lock) {
+				physicalSyncs++;
+			}
+			done.complete(null);
+		} catch (IOException | RuntimeException e) {
+			done.completeExceptionally(e);
+		}
+	}
+
+	private void writeAtomically(String path, byte[] data, boolean force) throws IOException {
+		Path target = Paths.get(path).toAbsolutePath();
+		Path directory = target.getParent();
+		Files.createDirectories(directory);
+		// Not Files.createTempFile, which would give the data file owner-only permissions
+		Path temp = directory.resolve(target.getFileName() + "." + System.nanoTime() + ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW)) {
+				ByteBuffer buffer = ByteBuffer.wrap(data);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				if (force) {
+					channel.force(true);
+				}
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			if (force) {
+				forceDirectory(directory);
+			}
+			synchronized (lock) {
+				physicalWrites++;
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	// Makes the rename itself durable; not supported on every platform (e.g. Windows)
+	private void forceDirectory(Path directory) {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			// Best effort only
+		}
+	}
+
+	public Durability getDurability() {
+		return durability;
+	}
+
+	public void setDurability(Durability durability) {
+		this.durability = durability;
+	}
+
+	public long getWindowMillis() {
+		return windowMillis;
+	}
+
+	public void setWindowMillis(long windowMillis) {
+		this.windowMillis = windowMillis;
+	}
+
+	public long getSaveRequests() {
+		synchronized (lock) {
+			return saveRequests;
+		}
+	}
+
+	public long getPhysicalWrites() {
+		synchronized (lock) {
+			return physicalWrites;
+		}
+	}
+
+	public long getSyncRequests() {
+		synchronized (lock) {
+			return syncRequests;
+		}
+	}
+
+	public long getPhysicalSyncs() {
+		synchronized (lock) {
+			return physicalSyncs;
+		}
+	}
+}
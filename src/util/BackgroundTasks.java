@@ -0,0 +1,104 @@
+package util;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs file I/O and report work off the JavaFX Application Thread.
+ * Work is wrapped in a javafx.concurrent.Task and run on a small bounded pool
+ * of daemon threads. Results and errors are handed back on the FX thread, and
+ * the returned Task exposes progress, message and cancel() to the views.
+ */
+public class BackgroundTasks {
+	private static final int QUEUE_CAPACITY = 64;
+
+	private static BackgroundTasks instance;
+
+	private final ThreadPoolExecutor executor;
+
+	// Work that can report progress and check for cancellation
+	public interface Work<T> {
+		T run(Progress progress) throws Exception;
+	}
+
+	// Handed to the work while it runs
+	public interface Progress {
+		void update(long done, long total);
+
+		void message(String message);
+
+		boolean isCancelled();
+	}
+
+	private static class WorkTask<T> extends Task<T> implements Progress {
+		private final Work<T> work;
+
+		WorkTask(Work<T> work) {
+			this.work = work;
+		}
+
+		@Override
+		protected T call() throws Exception {
+			return work.run(this);
+		}
+
+		@Override
+		public void update(long done, long total) {
+			updateProgress(done, total);
+		}
+
+		@Override
+		public void message(String message) {
+			updateMessage(message);
+		}
+	}
+
+	BackgroundTasks(int threads) {
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+					Thread thread = new Thread(runnable, "background-worker-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	public static synchronized BackgroundTasks getInstance() {
+		if (instance == null) {
+			instance = new BackgroundTasks(Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+		}
+		return instance;
+	}
+
+	/**
+	 * Runs work in the background. onSuccess and onFailure are called on the FX
+	 * thread; neither is called if the task is cancelled first.
+	 */
+	public <T> Task<T> submit(Work<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+		WorkTask<T> task = new WorkTask<>(work);
+		task.setOnSucceeded(event -> onSuccess.accept(task.getValue()));
+		task.setOnFailed(event -> onFailure.accept(task.getException()));
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			// Queue is full, report it like any other failure
+			Platform.runLater(() -> {
+				task.cancel();
+				onFailure.accept(new IllegalStateException("Too many background tasks, please try again."));
+			});
+		}
+		return task;
+	}
+
+	public <T> Task<T> submit(Work<T> work, Consumer<T> onSuccess) {
+		return submit(work, onSuccess, error -> System.err.println("Background task failed: " + error.getMessage()));
+	}
+}
@@ -0,0 +1,356 @@
+package util;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Compact catalog of saved bills, appended by FileHandler.saveBill.
+ * bills.idx holds one record per bill:
+ *   int length | int epoch day | double total | UTF bill number | UTF cashier | UTF sector | UTF receipt file
+ * bills.days holds (int epoch day, long offset) for the first record of every
+ * day, so a date-scoped query seeks straight to its records and never opens a
+ * receipt file. Receipt paths are relative to the Bills directory. A missing
+ * catalog is rebuilt once from the receipts. Terminals running as separate
+ * processes append to the same files: appends and repairs hold a lock on
+ * bills.idx.lock, and a catalog that grew since this process last read it
+ * has its day index read again first.
+ */
+public class BillCatalog {
+	private static final String BILL_DIRECTORY = "src/BinaryFiles/Bills/";
+
+	private static BillCatalog instance;
+
+	private final File billDirectory;
+	private final File catalogFile;
+	private final File dayIndexFile;
+	private final File lockFile;
+	private final TreeMap<Long, Long> dayOffsets = new TreeMap<>(); // epoch day -> offset of its first record
+	private long indexedLength = -1; // catalog length dayOffsets covers
+	private FileChannel lockChannel;
+
+	// One catalog record
+	public static class Entry {
+		private final String billNumber;
+		private final long epochDay;
+		private final String cashierName;
+		private final String sector;
+		private final double totalAmount;
+		private final File receiptFile;
+
+		Entry(String billNumber, long epochDay, String cashierName, String sector, double totalAmount, File receiptFile) {
+			this.billNumber = billNumber;
+			this.epochDay = epochDay;
+			this.cashierName = cashierName;
+			this.sector = sector;
+			this.totalAmount = totalAmount;
+			this.receiptFile = receiptFile;
+		}
+
+		public String getBillNumber() {
+			return billNumber;
+		}
+
+		public long getEpochDay() {
+			return epochDay;
+		}
+
+		public Date getSaleDate() {
+			return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+		}
+
+		public String getCashierName() {
+			return cashierName;
+		}
+
+		public String getSector() {
+			return sector;
+		}
+
+		public double getTotalAmount() {
+			return totalAmount;
+		}
+
+		public File getReceiptFile() {
+			return receiptFile;
+		}
+	}
+
+	public static synchronized BillCatalog getInstance() {
+		if (instance == null) {
+			instance = new BillCatalog(BILL_DIRECTORY);
+		}
+		return instance;
+	}
+
+	BillCatalog(String billDirectory) {
+		this.billDirectory = new File(billDirectory);
+		this.catalogFile = new File(billDirectory, "bills.idx");
+		this.dayIndexFile = new File(billDirectory, "bills.days");
+		this.lockFile = new File(billDirectory, "bills.idx.lock");
+	}
+
+	// Called after the receipt file has been written; waits for the group commit outside the catalog lock
+	public void append(String billNumber, LocalDate saleDay, String cashierName, String sector,
+			double totalAmount, File receiptFile) throws IOException {
+		CompletableFuture<Void> sync;
+		synchronized (this) {
+			FileLock lock = lockCatalog();
+			try {
+				if (!isCurrent()) {
+					load();
+				}
+				long offset = catalogFile.length();
+				sync = writeRecords(catalogFile, encode(new Entry(billNumber, saleDay.toEpochDay(), cashierName, sector, totalAmount, receiptFile)));
+				indexDay(saleDay.toEpochDay(), offset);
+				indexedLength = catalogFile.length();
+			} finally {
+				lock.release();
+			}
+		}
+		AtomicFileStore.getInstance().awaitSync(sync);
+	}
+
+	public synchronized ArrayList<Entry> findByDay(LocalDate day) {
+		return findBetween(day, day);
+	}
+
+	// Entries from both days inclusive, in the order they were saved
+	public synchronized ArrayList<Entry> findBetween(LocalDate from, LocalDate to) {
+		ArrayList<Entry> entries = new ArrayList<>();
+		try {
+			ensureLoaded();
+			Map.Entry<Long, Long> start = dayOffsets.ceilingEntry(from.toEpochDay());
+			if (start == null || start.getKey() > to.toEpochDay()) {
+				return entries;
+			}
+			try (RandomAccessFile in = new RandomAccessFile(catalogFile, "r")) {
+				in.seek(start.getValue());
+				Entry entry;
+				while ((entry = readRecord(in)) != null && entry.getEpochDay() <= to.toEpochDay()) {
+					if (entry.getEpochDay() >= from.toEpochDay()) {
+						entries.add(entry);
+					}
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Error reading bill catalog: " + e.getMessage());
+		}
+		return entries;
+	}
+
+	/**
+	 * Entries whose bill number lies between both numbers inclusive, in number
+	 * order. Bill numbers start with their issue time, so only the catalog days
+	 * between the two numbers are read.
+	 */
+	public synchronized ArrayList<Entry> findByNumber(String fromNumber, String toNumber) {
+		ArrayList<Entry> entries = new ArrayList<>();
+		long fromMillis = BillNumberGenerator.timestampOf(fromNumber);
+		long toMillis = BillNumberGenerator.timestampOf(toNumber);
+		if (fromMillis < 0 || toMillis < fromMillis) {
+			return entries;
+		}
+		LocalDate from = Instant.ofEpochMilli(fromMillis).atZone(ZoneId.systemDefault()).toLocalDate();
+		// a bill numbered just before midnight is dated the next day
+		LocalDate to = Instant.ofEpochMilli(toMillis).atZone(ZoneId.systemDefault()).toLocalDate().plusDays(1);
+		for (Entry entry : findBetween(from, to)) {
+			if (entry.getBillNumber().compareTo(fromNumber) >= 0 && entry.getBillNumber().compareTo(toNumber) <= 0) {
+				entries.add(entry);
+			}
+		}
+		entries.sort(Comparator.comparing(Entry::getBillNumber));
+		return entries;
+	}
+
+	private void ensureLoaded() throws IOException {
+		if (isCurrent()) {
+			return;
+		}
+		FileLock lock = lockCatalog();
+		try {
+			load();
+		} finally {
+			lock.release();
+		}
+	}
+
+	// False before the first load and after another terminal appended
+	private boolean isCurrent() {
+		return indexedLength >= 0 && catalogFile.length() == indexedLength;
+	}
+
+	// Called holding the catalog lock
+	private void load() throws IOException {
+		// Receipts moved out of the flat layout change their catalog paths
+		if (indexedLength < 0 && (BillPartitions.migrateFlatReceipts(billDirectory) > 0 || !catalogFile.exists())) {
+			rebuildFromReceipts();
+		}
+		readDayIndex();
+		catchUpDayIndex();
+	}
+
+	// Waits until no other terminal appends to or repairs the catalog
+	private FileLock lockCatalog() throws IOException {
+		if (lockChannel == null) {
+			if (!billDirectory.isDirectory() && !billDirectory.mkdirs()) {
+				throw new IOException("Could not create " + billDirectory);
+			}
+			lockChannel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		}
+		return lockChannel.lock();
+	}
+
+	private void readDayIndex() throws IOException {
+		dayOffsets.clear();
+		if (!dayIndexFile.exists()) {
+			return;
+		}
+		long catalogLength = catalogFile.length();
+		long validLength = 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(dayIndexFile)))) {
+			long records = dayIndexFile.length() / 12;
+			for (long i = 0; i < records; i++) {
+				long day = in.readInt();
+				long offset = in.readLong();
+				if (offset > catalogLength) {
+					break; // index written ahead of a lost catalog record
+				}
+				dayOffsets.putIfAbsent(day, offset);
+				validLength += 12;
+			}
+		}
+		if (validLength < dayIndexFile.length()) {
+			try (RandomAccessFile file = new RandomAccessFile(dayIndexFile, "rw")) {
+				file.setLength(validLength);
+			}
+		}
+	}
+
+	/**
+	 * Indexes records appended after the last indexed day, which covers a crash
+	 * between the two appends and days other terminals started, and cuts off a
+	 * torn record at the end.
+	 */
+	private void catchUpDayIndex() throws IOException {
+		// Records before the latest day start or this process's last read are indexed already
+		long offset = Math.max(indexedLength, dayOffsets.values().stream().max(Long::compare).orElse(0L));
+		try (RandomAccessFile file = new RandomAccessFile(catalogFile, "rw")) {
+			file.seek(offset);
+			Entry entry;
+			while ((entry = readRecord(file)) != null) {
+				if (!dayOffsets.containsKey(entry.getEpochDay())) {
+					indexDay(entry.getEpochDay(), offset);
+				}
+				offset = file.getFilePointer();
+			}
+			if (offset < file.length()) {
+				System.err.println("Bill catalog ends with a partial record, truncating it.");
+				file.setLength(offset);
+			}
+			indexedLength = offset;
+		}
+	}
+
+	// Only the first record of a day is indexed, whichever terminal wrote it
+	private void indexDay(long epochDay, long offset) throws IOException {
+		if (dayOffsets.containsKey(epochDay)) {
+			return;
+		}
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(12);
+		DataOutputStream out = new DataOutputStream(buffer);
+		out.writeInt((int) epochDay);
+		out.writeLong(offset);
+		writeRecords(dayIndexFile, buffer.toByteArray());
+		dayOffsets.put(epochDay, offset);
+	}
+
+	// Backfill for receipts saved before the catalog existed or moved into partitions
+	private void rebuildFromReceipts() throws IOException {
+		ArrayList<Entry> entries = BillScanner.getInstance().scan(BillPartitions.listAllReceipts(billDirectory),
+				ArrayList::new,
+				(found, receipt) -> found.add(new Entry(receipt.getBillNumber(), receipt.getEpochDay(),
+						receipt.getCashierName(), receipt.getSector(), receipt.getTotalAmount(), receipt.getReceipt())),
+				(left, right) -> {
+					left.addAll(right);
+					return left;
+				});
+		entries.sort(Comparator.comparingLong(Entry::getEpochDay).thenComparing(Entry::getBillNumber));
+
+		ByteArrayOutputStream catalog = new ByteArrayOutputStream();
+		ByteArrayOutputStream days = new ByteArrayOutputStream();
+		DataOutputStream dayOut = new DataOutputStream(days);
+		long previousDay = Long.MIN_VALUE;
+		for (Entry entry : entries) {
+			if (entry.getEpochDay() != previousDay) {
+				dayOut.writeInt((int) entry.getEpochDay());
+				dayOut.writeLong(catalog.size());
+				previousDay = entry.getEpochDay();
+			}
+			catalog.write(encode(entry));
+		}
+		billDirectory.mkdirs();
+		AtomicFileStore.getInstance().save(dayIndexFile.getPath(), days.toByteArray());
+		AtomicFileStore.getInstance().save(catalogFile.getPath(), catalog.toByteArray());
+		if (!entries.isEmpty()) {
+			System.out.println("Built bill catalog from " + entries.size() + " receipts.");
+		}
+	}
+
+	private byte[] encode(Entry entry) throws IOException {
+		ByteArrayOutputStream payload = new ByteArrayOutputStream(96);
+		DataOutputStream out = new DataOutputStream(payload);
+		out.writeInt((int) entry.getEpochDay());
+		out.writeDouble(entry.getTotalAmount());
+		out.writeUTF(entry.getBillNumber());
+		out.writeUTF(entry.getCashierName() != null ? entry.getCashierName() : "");
+		out.writeUTF(entry.getSector() != null ? entry.getSector() : "");
+		out.writeUTF(BillPartitions.relativePath(billDirectory, entry.getReceiptFile()));
+
+		ByteArrayOutputStream record = new ByteArrayOutputStream(payload.size() + 4);
+		new DataOutputStream(record).writeInt(payload.size());
+		payload.writeTo(record);
+		return record.toByteArray();
+	}
+
+	// Returns null at the end of the catalog or at a torn record
+	private Entry readRecord(RandomAccessFile in) throws IOException {
+		long remaining = in.length() - in.getFilePointer();
+		if (remaining < 4) {
+			return null;
+		}
+		int length = in.readInt();
+		if (length <= 0 || length > remaining - 4) {
+			in.seek(in.getFilePointer() - 4);
+			return null;
+		}
+		byte[] payload = new byte[length];
+		in.readFully(payload);
+		DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+		long epochDay = record.readInt();
+		double totalAmount = record.readDouble();
+		String billNumber = record.readUTF();
+		String cashierName = record.readUTF();
+		String sector = record.readUTF();
+		File receiptFile = new File(billDirectory, record.readUTF());
+		return new Entry(billNumber, epochDay, cashierName, sector, totalAmount, receiptFile);
+	}
+
+	// Returns the sync of the appended file; the day index is not waited for, catchUpDayIndex repairs it
+	private static CompletableFuture<Void> writeRecords(File file, byte[] data) throws IOException {
+		try (FileOutputStream out = new FileOutputStream(file, true)) {
+			out.write(data);
+		}
+		return AtomicFileStore.getInstance().requestSync(file);
+	}
+}
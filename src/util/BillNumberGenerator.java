@@ -0,0 +1,154 @@
+package util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style bill numbers: one 64-bit id per bill made of
+ *   41 bits milliseconds since EPOCH_MILLIS | 10 bits terminal id | 12 bits sequence
+ * Ids are handed out with a compare-and-set on the last id, so no lock is
+ * taken, and every id is larger than the one before on the same terminal,
+ * even when the clock steps back or more than 4096 bills share a millisecond.
+ * Bill numbers print as BILL-<epoch millis>-<terminal>-<sequence> with fixed
+ * widths, so they sort by time as plain strings, after the older
+ * BILL-<epoch millis> numbers of the same millisecond.
+ */
+public class BillNumberGenerator {
+	public static final long EPOCH_MILLIS = 1577836800000L; // 2020-01-01T00:00:00Z
+	private static final int TERMINAL_BITS = 10;
+	private static final int SEQUENCE_BITS = 12;
+	public static final int MAX_TERMINAL = (1 << TERMINAL_BITS) - 1;
+	private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+	private static final String PREFIX = "BILL-";
+	private static final String TERMINALS_FILE = "src/BinaryFiles/terminals.lock"; // byte i locked by the terminal holding id i
+
+	private static BillNumberGenerator instance;
+	private static FileLock terminalLease; // held for the life of the process
+
+	private final int terminalId;
+	private final AtomicLong lastId = new AtomicLong();
+
+	// Terminal id can be set with -Dbills.terminal=0..1023, otherwise one is leased from the data directory
+	public static synchronized BillNumberGenerator getInstance() {
+		if (instance == null) {
+			String configured = System.getProperty("bills.terminal");
+			int terminal = -1;
+			if (configured != null) {
+				try {
+					terminal = Integer.parseInt(configured.trim());
+				} catch (NumberFormatException e) {
+					System.err.println("Invalid terminal id " + configured + ", leasing one instead");
+				}
+			}
+			instance = new BillNumberGenerator(terminal >= 0 ? terminal : leaseTerminalId());
+		}
+		return instance;
+	}
+
+	/**
+	 * Locks the first byte of the terminals file no running terminal holds and
+	 * keeps the lock until the process exits, so two terminals sharing the data
+	 * directory never get the same id. An id is free again once its holder exits.
+	 */
+	private static int leaseTerminalId() {
+		try {
+			Path file = Paths.get(TERMINALS_FILE);
+			Files.createDirectories(file.getParent());
+			FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			for (int id = 0; id <= MAX_TERMINAL; id++) {
+				try {
+					terminalLease = channel.tryLock(id, 1, false);
+				} catch (OverlappingFileLockException e) {
+					continue; // held by this process already
+				}
+				if (terminalLease != null) {
+					return id;
+				}
+			}
+			channel.close();
+			throw new IllegalStateException("All " + (MAX_TERMINAL + 1) + " terminal ids are in use");
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot lease a terminal id from " + TERMINALS_FILE
+					+ ", set -Dbills.terminal: " + e.getMessage(), e);
+		}
+	}
+
+	public BillNumberGenerator(int terminalId) {
+		if (terminalId < 0 || terminalId > MAX_TERMINAL) {
+			throw new IllegalArgumentException("Terminal id must be between 0 and " + MAX_TERMINAL + ": " + terminalId);
+		}
+		this.terminalId = terminalId;
+	}
+
+	public long nextId() {
+		while (true) {
+			long last = lastId.get();
+			long lastTime = last >>> (TERMINAL_BITS + SEQUENCE_BITS);
+			long now = System.currentTimeMillis() - EPOCH_MILLIS;
+			long next;
+			if (now > lastTime) {
+				next = compose(now, 0);
+			} else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+				next = last + 1; // same millisecond, or the clock went back
+			} else {
+				next = compose(lastTime + 1, 0); // sequence used up, borrow the next millisecond
+			}
+			if (lastId.compareAndSet(last, next)) {
+				return next;
+			}
+		}
+	}
+
+	public String nextBillNumber() {
+		return format(nextId());
+	}
+
+	public int getTerminalId() {
+		return terminalId;
+	}
+
+	private long compose(long time, long sequence) {
+		return (time << (TERMINAL_BITS + SEQUENCE_BITS)) | ((long) terminalId << SEQUENCE_BITS) | sequence;
+	}
+
+	public static String format(long id) {
+		long millis = (id >>> (TERMINAL_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+		int terminal = (int) ((id >>> SEQUENCE_BITS) & MAX_TERMINAL);
+		int sequence = (int) (id & SEQUENCE_MASK);
+		StringBuilder number = new StringBuilder(PREFIX.length() + 23).append(PREFIX);
+		pad(number, millis, 13).append('-');
+		pad(number, terminal, 4).append('-');
+		return pad(number, sequence, 4).toString();
+	}
+
+	/**
+	 * Epoch millis a bill number was issued at, for both this format and the
+	 * older BILL-<epoch millis> numbers. Returns -1 for anything else.
+	 */
+	public static long timestampOf(String billNumber) {
+		if (billNumber == null || !billNumber.startsWith(PREFIX)) {
+			return -1;
+		}
+		int end = billNumber.indexOf('-', PREFIX.length());
+		try {
+			return Long.parseLong(billNumber.substring(PREFIX.length(), end < 0 ? billNumber.length() : end));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static StringBuilder pad(StringBuilder number, long value, int width) {
+		String digits = Long.toString(value);
+		for (int i = digits.length(); i < width; i++) {
+			number.append('0');
+		}
+		return number.append(digits);
+	}
+}
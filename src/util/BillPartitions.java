@@ -0,0 +1,127 @@
+package util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Date-partitioned layout of the receipt files: Bills/yyyy/MM/dd/BILL-..._dd-MM-yyyy.txt.
+ * Range scans prune whole year, month and day directories by name, so only
+ * the partitions inside the range are ever listed.
+ */
+public class BillPartitions {
+	private static final DateTimeFormatter RECEIPT_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+	private BillPartitions() {
+	}
+
+	// Directory for the receipts of one day, created if missing
+	public static File partitionFor(File billDirectory, LocalDate day) {
+		File partition = new File(billDirectory, String.format("%04d/%02d/%02d", day.getYear(), day.getMonthValue(), day.getDayOfMonth()));
+		partition.mkdirs();
+		return partition;
+	}
+
+	// Receipt files of the days from both dates inclusive
+	public static ArrayList<File> listReceipts(File billDirectory, LocalDate from, LocalDate to) {
+		ArrayList<File> receipts = new ArrayList<>();
+		for (File year : listNumbered(billDirectory)) {
+			int y = Integer.parseInt(year.getName());
+			if (y < from.getYear() || y > to.getYear()) {
+				continue;
+			}
+			for (File month : listNumbered(year)) {
+				int m = Integer.parseInt(month.getName());
+				LocalDate monthStart = LocalDate.of(y, m, 1);
+				if (monthStart.isAfter(to) || monthStart.plusMonths(1).minusDays(1).isBefore(from)) {
+					continue;
+				}
+				for (File day : listNumbered(month)) {
+					int d = Integer.parseInt(day.getName());
+					if (d > monthStart.lengthOfMonth()) {
+						continue;
+					}
+					LocalDate date = LocalDate.of(y, m, d);
+					if (date.isBefore(from) || date.isAfter(to)) {
+						continue;
+					}
+					File[] files = day.listFiles((dir, name) -> name.endsWith(".txt"));
+					if (files != null) {
+						receipts.addAll(Arrays.asList(files));
+					}
+				}
+			}
+		}
+		return receipts;
+	}
+
+	// Every partitioned receipt, used to rebuild the bill catalog
+	public static ArrayList<File> listAllReceipts(File billDirectory) {
+		return listReceipts(billDirectory, LocalDate.MIN, LocalDate.MAX);
+	}
+
+	// Path of a receipt relative to the bill directory, as stored in the bill catalog
+	public static String relativePath(File billDirectory, File receipt) {
+		return billDirectory.toPath().relativize(receipt.toPath()).toString().replace(File.separatorChar, '/');
+	}
+
+	/**
+	 * Moves receipts still lying flat in the bill directory into their day
+	 * partition, using the date in the file name. Returns the number moved.
+	 */
+	public static int migrateFlatReceipts(File billDirectory) {
+		File[] flat = billDirectory.listFiles((dir, name) -> name.startsWith("BILL-") && name.endsWith(".txt"));
+		if (flat == null) {
+			return 0;
+		}
+		int moved = 0;
+		for (File receipt : flat) {
+			LocalDate day = dateFromName(receipt.getName());
+			if (day == null) {
+				System.err.println("Leaving receipt without a date in its name: " + receipt.getName());
+				continue;
+			}
+			File target = new File(partitionFor(billDirectory, day), receipt.getName());
+			try {
+				try {
+					Files.move(receipt.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(receipt.toPath(), target.toPath());
+				}
+				moved++;
+			} catch (IOException e) {
+				System.err.println("Error moving receipt " + receipt.getName() + ": " + e.getMessage());
+			}
+		}
+		if (moved > 0) {
+			System.out.println("Moved " + moved + " receipts into date partitions.");
+		}
+		return moved;
+	}
+
+	// BILL-<number>_dd-MM-yyyy.txt
+	private static LocalDate dateFromName(String name) {
+		int start = name.lastIndexOf('_');
+		int end = name.lastIndexOf('.');
+		if (start < 0 || end <= start) {
+			return null;
+		}
+		try {
+			return LocalDate.parse(name.substring(start + 1, end), RECEIPT_DATE);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	private static File[] listNumbered(File directory) {
+		File[] children = directory.listFiles(file -> file.isDirectory() && file.getName().matches("\\d+"));
+		return children != null ? children : new File[0];
+	}
+}
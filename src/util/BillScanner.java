@@ -0,0 +1,140 @@
+package util;
+
+import model.SalesMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Parallel scan over receipt files for full-history jobs.
+ * The file list is split across a ForkJoinPool; every leaf task has its own
+ * ReceiptParser and its own accumulator, and results are merged pairwise as
+ * the tasks join, so workers never share a lock or a collection. Receipts are
+ * streamed to the caller through the parser, no Bill is built unless the
+ * caller asks for one.
+ */
+public class BillScanner {
+	private static final int LEAF_SIZE = 64; // receipts scanned by one task without splitting further
+	private static final String BILL_DIRECTORY = "src/BinaryFiles/Bills/";
+
+	private static BillScanner instance;
+
+	private final ForkJoinPool pool;
+
+	public BillScanner(int parallelism) {
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	// Parallelism can be chosen with -Dbills.parallelism=<threads>, default is one per core
+	public static synchronized BillScanner getInstance() {
+		if (instance == null) {
+			int parallelism = Runtime.getRuntime().availableProcessors();
+			String configured = System.getProperty("bills.parallelism");
+			if (configured != null) {
+				try {
+					parallelism = Math.max(1, Integer.parseInt(configured));
+				} catch (NumberFormatException e) {
+					System.err.println("Invalid bill scan parallelism " + configured + ", using " + parallelism);
+				}
+			}
+			instance = new BillScanner(parallelism);
+		}
+		return instance;
+	}
+
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Scans the receipts of the days from both dates inclusive, pruning
+	 * partitions outside the range.
+	 */
+	public <A> A scan(LocalDate from, LocalDate to, Supplier<A> newAccumulator,
+			BiConsumer<A, ReceiptParser> visitor, BinaryOperator<A> combiner) {
+		List<File> receipts = BillPartitions.listReceipts(new File(BILL_DIRECTORY), from, to);
+		return scan(receipts, newAccumulator, visitor, combiner);
+	}
+
+	/**
+	 * Calls visitor once for every receipt that parses, with the parser
+	 * positioned on it. The parser is only valid inside the call.
+	 */
+	public <A> A scan(List<File> receipts, Supplier<A> newAccumulator,
+			BiConsumer<A, ReceiptParser> visitor, BinaryOperator<A> combiner) {
+		return pool.invoke(new ScanTask<>(receipts, 0, receipts.size(), newAccumulator, visitor, combiner));
+	}
+
+	// Revenue and items sold from the receipts of a date range, streamed without building Bills
+	public void calculateMetrics(SalesMetrics metrics, LocalDate from, LocalDate to) {
+		long[] totals = scan(from, to, () -> new long[2], (sum, receipt) -> {
+			sum[0] += receipt.getTotalCents();
+			for (int line = 0; line < receipt.getLineCount(); line++) {
+				sum[1] += receipt.getLineQuantity(line);
+			}
+		}, (left, right) -> {
+			left[0] += right[0];
+			left[1] += right[1];
+			return left;
+		});
+		metrics.setTotalRevenue(totals[0] / 100.0);
+		metrics.setTotalItemsSold((int) totals[1]);
+	}
+
+	private static class ScanTask<A> extends RecursiveTask<A> {
+		private static final long serialVersionUID = 1L;
+
+		private final List<File> receipts;
+		private final int from;
+		private final int to;
+		private final Supplier<A> newAccumulator;
+		private final BiConsumer<A, ReceiptParser> visitor;
+		private final BinaryOperator<A> combiner;
+
+		ScanTask(List<File> receipts, int from, int to, Supplier<A> newAccumulator,
+				BiConsumer<A, ReceiptParser> visitor, BinaryOperator<A> combiner) {
+			this.receipts = receipts;
+			this.from = from;
+			this.to = to;
+			this.newAccumulator = newAccumulator;
+			this.visitor = visitor;
+			this.combiner = combiner;
+		}
+
+		@Override
+		protected A compute() {
+			if (to - from <= LEAF_SIZE) {
+				return scanLeaf();
+			}
+			int middle = (from + to) >>> 1;
+			ScanTask<A> left = new ScanTask<>(receipts, from, middle, newAccumulator, visitor, combiner);
+			ScanTask<A> right = new ScanTask<>(receipts, middle, to, newAccumulator, visitor, combiner);
+			left.fork();
+			A rightResult = right.compute();
+			return combiner.apply(left.join(), rightResult);
+		}
+
+		private A scanLeaf() {
+			A accumulator = newAccumulator.get();
+			ReceiptParser parser = new ReceiptParser();
+			for (int i = from; i < to; i++) {
+				File receipt = receipts.get(i);
+				try {
+					if (parser.parse(receipt)) {
+						visitor.accept(accumulator, parser);
+					}
+				} catch (IOException e) {
+					System.err.println("Skipping unreadable receipt " + receipt.getName() + ": " + e.getMessage());
+				}
+			}
+			return accumulator;
+		}
+	}
+}
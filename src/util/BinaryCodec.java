@@ -0,0 +1,666 @@
+package util;
+
+import model.Admin;
+import model.Bill;
+import model.BillLine;
+import model.Cashier;
+import model.Item;
+import model.Manager;
+import model.SalesMetrics;
+import model.Sector;
+import model.Sku;
+import model.Supplier;
+import model.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Hand-written binary format for the .dat files, replacing default Java serialization.
+ *
+ * File layout:
+ *   int magic | short version | byte kind | long sequence
+ *   varint dictionary size | dictionary strings (varint byte length + UTF-8)
+ *   varint record count | records (varint byte length + fields)
+ *
+ * Every string field is stored as a varint index into the dictionary (0 means null),
+ * so repeated sector, category and supplier names cost one or two bytes each.
+ * Records are length-prefixed so a reader can skip fields appended by a newer version.
+ * Version 2 added the item SKU; items of version 1 files get a new one when read,
+ * BinaryDataFiles gives copies of stored items the stored item's SKU.
+ */
+public class BinaryCodec {
+	public static final int MAGIC = 0x45534442; // "ESDB"
+	public static final short VERSION = 2;
+	public static final short SKU_VERSION = 2; // first version storing item SKUs
+
+	public static final byte KIND_ITEMS = 1;
+	public static final byte KIND_SUPPLIERS = 2;
+	public static final byte KIND_SECTORS = 3;
+	public static final byte KIND_USERS = 4;
+
+	private static final byte USER_ADMIN = 0;
+	private static final byte USER_MANAGER = 1;
+	private static final byte USER_CASHIER = 2;
+
+	public static final int HEADER_SIZE = 4 + 2 + 1 + 8;
+
+	private BinaryCodec() {
+	}
+
+	// True if the bytes start with this codec's header rather than a Java serialization stream
+	public static boolean isCodecFormat(byte[] data) {
+		return data.length >= HEADER_SIZE && ByteBuffer.wrap(data).getInt() == MAGIC;
+	}
+
+	// Codec version the bytes were written with
+	public static short readVersion(byte[] data) {
+		return ByteBuffer.wrap(data).getShort(4);
+	}
+
+	// Sequence from the fixed header alone, for callers that read only HEADER_SIZE bytes
+	public static long readHeaderSequence(byte[] header) {
+		return ByteBuffer.wrap(header).getLong(4 + 2 + 1);
+	}
+
+	public static long readSequence(byte[] data) throws IOException {
+		return new Decoder(data, KIND_ITEMS).sequence;
+	}
+
+	// ---------------------------------------------------------------- Items
+
+	public static byte[] encodeItems(List<Item> items, long sequence) throws IOException {
+		Encoder encoder = new Encoder();
+		encoder.varInt(items.size());
+		for (Item item : items) {
+			encoder.beginRecord();
+			writeItem(encoder, item);
+			encoder.endRecord();
+		}
+		return encoder.toByteArray(KIND_ITEMS, sequence);
+	}
+
+	public static ArrayList<Item> decodeItems(byte[] data) throws IOException {
+		Decoder decoder = new Decoder(data, KIND_ITEMS);
+		int count = decoder.varInt();
+		ArrayList<Item> items = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int end = decoder.beginRecord();
+			items.add(readItem(decoder));
+			decoder.endRecord(end);
+		}
+		return items;
+	}
+
+	private static void writeItem(Encoder out, Item item) throws IOException {
+		out.varLong(item.getSku().getValue());
+		out.string(item.getItemName());
+		out.string(item.getItemSector());
+		out.data.writeDouble(item.getPrice());
+		out.varInt(item.getStockQuantity());
+		out.varInt(item.getItemsSold());
+		out.string(item.getImagePath());
+		out.string(item.getCategory());
+		out.string(item.getDescription());
+		out.string(item.getSupplierName());
+	}
+
+	private static Item readItem(Decoder in) throws IOException {
+		Sku sku = in.version >= SKU_VERSION ? Sku.of(in.varLong()) : Sku.random(); // see BinaryDataFiles for older files
+		String itemName = in.string();
+		String itemSector = in.string();
+		double price = in.buffer.getDouble();
+		int stockQuantity = in.varInt();
+		int itemsSold = in.varInt();
+		String imagePath = in.string();
+		String category = in.string();
+		String description = in.string();
+		String supplierName = in.string();
+		return new Item(sku, itemName, itemSector, price, stockQuantity, itemsSold, category, description, supplierName, imagePath);
+	}
+
+	private static void writeItemList(Encoder out, List<Item> items) throws IOException {
+		if (items == null) {
+			out.varInt(0);
+			return;
+		}
+		out.varInt(items.size() + 1);
+		for (Item item : items) {
+			writeItem(out, item);
+		}
+	}
+
+	private static ArrayList<Item> readItemList(Decoder in) throws IOException {
+		int size = in.varInt() - 1;
+		if (size < 0) {
+			return null;
+		}
+		ArrayList<Item> items = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			items.add(readItem(in));
+		}
+		return items;
+	}
+
+	// ---------------------------------------------------------------- Suppliers
+
+	public static byte[] encodeSuppliers(List<Supplier> suppliers) throws IOException {
+		Encoder encoder = new Encoder();
+		encoder.varInt(suppliers.size());
+		for (Supplier supplier : suppliers) {
+			encoder.beginRecord();
+			writeSupplier(encoder, supplier);
+			encoder.endRecord();
+		}
+		return encoder.toByteArray(KIND_SUPPLIERS, 0);
+	}
+
+	public static ArrayList<Supplier> decodeSuppliers(byte[] data) throws IOException {
+		Decoder decoder = new Decoder(data, KIND_SUPPLIERS);
+		int count = decoder.varInt();
+		ArrayList<Supplier> suppliers = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int end = decoder.beginRecord();
+			suppliers.add(readSupplier(decoder));
+			decoder.endRecord(end);
+		}
+		return suppliers;
+	}
+
+	private static void writeSupplier(Encoder out, Supplier supplier) throws IOException {
+		out.string(supplier.getSupplierName());
+		writeItemList(out, supplier.getSuppliedItems());
+		writeStringList(out, supplier.getItemIds());
+	}
+
+	private static Supplier readSupplier(Decoder in) throws IOException {
+		Supplier supplier = new Supplier(in.string());
+		ArrayList<Item> suppliedItems = readItemList(in);
+		supplier.setSuppliedItems(suppliedItems != null ? suppliedItems : new ArrayList<>());
+		ArrayList<String> itemIds = readStringList(in);
+		if (itemIds != null) {
+			supplier.getItemIds().addAll(itemIds);
+		}
+		return supplier;
+	}
+
+	private static void writeSupplierList(Encoder out, List<Supplier> suppliers) throws IOException {
+		if (suppliers == null) {
+			out.varInt(0);
+			return;
+		}
+		out.varInt(suppliers.size() + 1);
+		for (Supplier supplier : suppliers) {
+			writeSupplier(out, supplier);
+		}
+	}
+
+	private static ArrayList<Supplier> readSupplierList(Decoder in) throws IOException {
+		int size = in.varInt() - 1;
+		if (size < 0) {
+			return null;
+		}
+		ArrayList<Supplier> suppliers = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			suppliers.add(readSupplier(in));
+		}
+		return suppliers;
+	}
+
+	// ---------------------------------------------------------------- Sectors
+
+	public static byte[] encodeSectors(List<Sector> sectors) throws IOException {
+		Encoder encoder = new Encoder();
+		encoder.varInt(sectors.size());
+		for (Sector sector : sectors) {
+			encoder.beginRecord();
+			writeSector(encoder, sector);
+			encoder.endRecord();
+		}
+		return encoder.toByteArray(KIND_SECTORS, 0);
+	}
+
+	public static ArrayList<Sector> decodeSectors(byte[] data) throws IOException {
+		Decoder decoder = new Decoder(data, KIND_SECTORS);
+		int count = decoder.varInt();
+		ArrayList<Sector> sectors = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int end = decoder.beginRecord();
+			sectors.add(readSector(decoder));
+			decoder.endRecord(end);
+		}
+		return sectors;
+	}
+
+	private static void writeSector(Encoder out, Sector sector) throws IOException {
+		out.string(sector.getName());
+		writeItemList(out, sector.viewItems());
+		writeStringList(out, sector.getCategories());
+	}
+
+	private static Sector readSector(Decoder in) throws IOException {
+		Sector sector = new Sector(in.string());
+		ArrayList<Item> items = readItemList(in);
+		if (items != null) {
+			for (Item item : items) {
+				sector.addItem(item);
+			}
+		}
+		ArrayList<String> categories = readStringList(in);
+		if (categories != null) {
+			for (String category : categories) {
+				sector.addCategory(category);
+			}
+		}
+		return sector;
+	}
+
+	private static void writeSectorList(Encoder out, List<Sector> sectors) throws IOException {
+		if (sectors == null) {
+			out.varInt(0);
+			return;
+		}
+		out.varInt(sectors.size() + 1);
+		for (Sector sector : sectors) {
+			writeSector(out, sector);
+		}
+	}
+
+	private static ArrayList<Sector> readSectorList(Decoder in) throws IOException {
+		int size = in.varInt() - 1;
+		if (size < 0) {
+			return null;
+		}
+		ArrayList<Sector> sectors = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			sectors.add(readSector(in));
+		}
+		return sectors;
+	}
+
+	// ---------------------------------------------------------------- Users
+
+	public static byte[] encodeUsers(List<User> users) throws IOException {
+		Encoder encoder = new Encoder();
+		encoder.varInt(users.size());
+		for (User user : users) {
+			encoder.beginRecord();
+			writeUser(encoder, user);
+			encoder.endRecord();
+		}
+		return encoder.toByteArray(KIND_USERS, 0);
+	}
+
+	public static ArrayList<User> decodeUsers(byte[] data) throws IOException {
+		Decoder decoder = new Decoder(data, KIND_USERS);
+		int count = decoder.varInt();
+		ArrayList<User> users = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int end = decoder.beginRecord();
+			users.add(readUser(decoder));
+			decoder.endRecord(end);
+		}
+		return users;
+	}
+
+	private static void writeUser(Encoder out, User user) throws IOException {
+		if (user instanceof Manager) {
+			out.data.writeByte(USER_MANAGER);
+		} else if (user instanceof Cashier) {
+			out.data.writeByte(USER_CASHIER);
+		} else if (user instanceof Admin) {
+			out.data.writeByte(USER_ADMIN);
+		} else {
+			throw new IOException("Unsupported user type: " + user.getClass().getName());
+		}
+
+		out.varInt(user.getId());
+		out.string(user.getName());
+		out.data.writeDouble(user.getSalary());
+		out.data.writeByte(user.getRole() != null ? user.getRole().ordinal() : -1);
+		out.string(user.getUsername());
+		out.string(user.getPassword());
+		writeDate(out, user.getDateOfBirth());
+		out.string(user.getPhonenumber());
+		out.string(user.getEmail());
+
+		if (user instanceof Manager) {
+			Manager manager = (Manager) user;
+			writeSectorList(out, manager.getSectors());
+			writeSupplierList(out, manager.getSuppliers());
+			writeItemList(out, manager.getItems());
+			writeUserList(out, manager.getCashiers());
+			SalesMetrics metrics = manager.getSalesMetrics();
+			out.data.writeBoolean(metrics != null);
+			if (metrics != null) {
+				out.string(metrics.getTimePeriod());
+				out.data.writeDouble(metrics.getTotalCosts());
+			}
+		} else if (user instanceof Cashier) {
+			Cashier cashier = (Cashier) user;
+			out.data.writeBoolean(cashier.getSector() != null);
+			if (cashier.getSector() != null) {
+				writeSector(out, cashier.getSector());
+			}
+			writeBillList(out, cashier.getBills());
+			out.data.writeDouble(cashier.getTotalSales());
+			writeItemList(out, cashier.getItems());
+		}
+	}
+
+	private static User readUser(Decoder in) throws IOException {
+		byte type = in.buffer.get();
+		User user;
+		switch (type) {
+			case USER_ADMIN:
+				user = new Admin();
+				break;
+			case USER_MANAGER:
+				user = new Manager();
+				break;
+			case USER_CASHIER:
+				user = new Cashier();
+				break;
+			default:
+				throw new IOException("Unknown user type: " + type);
+		}
+
+		user.setId(in.varInt());
+		user.setName(in.string());
+		user.setSalary(in.buffer.getDouble());
+		byte role = in.buffer.get();
+		user.setRole(role >= 0 ? Role.values()[role] : null);
+		user.setUsername(in.string());
+		user.setPassword(in.string());
+		user.setDateOfBirth(readDate(in));
+		user.setPhonenumber(in.string());
+		user.setEmail(in.string());
+
+		if (user instanceof Manager) {
+			Manager manager = (Manager) user;
+			manager.setSectors(readSectorList(in));
+			manager.setSuppliers(readSupplierList(in));
+			manager.setItems(readItemList(in));
+			ArrayList<User> cashiers = readUserList(in);
+			if (cashiers != null) {
+				ArrayList<Cashier> managerCashiers = new ArrayList<>();
+				for (User cashier : cashiers) {
+					managerCashiers.add((Cashier) cashier);
+				}
+				manager.setCashiers(managerCashiers);
+			}
+			if (in.buffer.get() != 0) {
+				SalesMetrics metrics = new SalesMetrics();
+				metrics.setTimePeriod(in.string());
+				metrics.setTotalCosts(in.buffer.getDouble());
+				manager.setSalesMetrics(metrics);
+			}
+		} else if (user instanceof Cashier) {
+			Cashier cashier = (Cashier) user;
+			if (in.buffer.get() != 0) {
+				cashier.setSector(readSector(in));
+			}
+			cashier.setBills(readBillList(in));
+			cashier.setTotalSales(in.buffer.getDouble());
+			cashier.setItems(readItemList(in));
+		}
+		return user;
+	}
+
+	private static void writeUserList(Encoder out, List<? extends User> users) throws IOException {
+		if (users == null) {
+			out.varInt(0);
+			return;
+		}
+		out.varInt(users.size() + 1);
+		for (User user : users) {
+			writeUser(out, user);
+		}
+	}
+
+	private static ArrayList<User> readUserList(Decoder in) throws IOException {
+		int size = in.varInt() - 1;
+		if (size < 0) {
+			return null;
+		}
+		ArrayList<User> users = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			users.add(readUser(in));
+		}
+		return users;
+	}
+
+	// ---------------------------------------------------------------- Bills, dates and strings
+
+	private static void writeBillList(Encoder out, List<Bill> bills) throws IOException {
+		if (bills == null) {
+			out.varInt(0);
+			return;
+		}
+		out.varInt(bills.size() + 1);
+		for (Bill bill : bills) {
+			out.string(bill.getBillNumber());
+			writeItemList(out, bill.getItems());
+			out.data.writeDouble(bill.getTotalAmount());
+			writeDate(out, bill.getSaleDate());
+		}
+	}
+
+	private static ArrayList<Bill> readBillList(Decoder in) throws IOException {
+		int size = in.varInt() - 1;
+		if (size < 0) {
+			return null;
+		}
+		ArrayList<Bill> bills = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			String billNumber = in.string();
+			ArrayList<Item> items = readItemList(in);
+			if (items != null) {
+				items.replaceAll(BinaryCodec::toBillLine);
+			}
+			double totalAmount = in.buffer.getDouble();
+			bills.add(new Bill(billNumber, items, totalAmount, readDate(in)));
+		}
+		return bills;
+	}
+
+	// Bill lines share the SKU of the stored item, but are not that item
+	private static Item toBillLine(Item item) {
+		return new BillLine(item.getSku(), item.getItemName(), item.getCategory(), item.getPrice(), item.getStockQuantity());
+	}
+
+	private static void writeDate(Encoder out, Date date) throws IOException {
+		out.data.writeBoolean(date != null);
+		if (date != null) {
+			out.data.writeLong(date.getTime());
+		}
+	}
+
+	private static Date readDate(Decoder in) {
+		return in.buffer.get() != 0 ? new Date(in.buffer.getLong()) : null;
+	}
+
+	private static void writeStringList(Encoder out, List<String> strings) throws IOException {
+		if (strings == null) {
+			out.varInt(0);
+			return;
+		}
+		out.varInt(strings.size() + 1);
+		for (String value : strings) {
+			out.string(value);
+		}
+	}
+
+	private static ArrayList<String> readStringList(Decoder in) throws IOException {
+		int size = in.varInt() - 1;
+		if (size < 0) {
+			return null;
+		}
+		ArrayList<String> strings = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			strings.add(in.string());
+		}
+		return strings;
+	}
+
+	// Builds the record body first, so the dictionary can be written in front of it
+	private static class Encoder {
+		private final HashMap<String, Integer> dictionaryIndex = new HashMap<>();
+		private final ArrayList<String> dictionary = new ArrayList<>();
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		private ByteArrayOutputStream record;
+		private DataOutputStream data = new DataOutputStream(body);
+
+		void beginRecord() {
+			record = new ByteArrayOutputStream(128);
+			data = new DataOutputStream(record);
+		}
+
+		void endRecord() throws IOException {
+			data = new DataOutputStream(body);
+			writeVarInt(data, record.size());
+			record.writeTo(body);
+			record = null;
+		}
+
+		void varInt(int value) throws IOException {
+			writeVarInt(data, value);
+		}
+
+		void varLong(long value) throws IOException {
+			while ((value & ~0x7FL) != 0) {
+				data.writeByte((int) (value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			data.writeByte((int) value);
+		}
+
+		void string(String value) throws IOException {
+			if (value == null) {
+				writeVarInt(data, 0);
+				return;
+			}
+			Integer index = dictionaryIndex.get(value);
+			if (index == null) {
+				dictionary.add(value);
+				index = dictionary.size();
+				dictionaryIndex.put(value, index);
+			}
+			writeVarInt(data, index);
+		}
+
+		byte[] toByteArray(byte kind, long sequence) throws IOException {
+			ByteArrayOutputStream file = new ByteArrayOutputStream(body.size() + dictionary.size() * 16 + HEADER_SIZE);
+			DataOutputStream out = new DataOutputStream(file);
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeByte(kind);
+			out.writeLong(sequence);
+			writeVarInt(out, dictionary.size());
+			for (String value : dictionary) {
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				writeVarInt(out, bytes.length);
+				out.write(bytes);
+			}
+			body.writeTo(out);
+			out.flush();
+			return file.toByteArray();
+		}
+	}
+
+	private static class Decoder {
+		private final ByteBuffer buffer;
+		private final String[] dictionary;
+		private final long sequence;
+		private final short version;
+
+		Decoder(byte[] data, byte expectedKind) throws IOException {
+			buffer = ByteBuffer.wrap(data);
+			try {
+				if (buffer.getInt() != MAGIC) {
+					throw new IOException("Not a binary codec file");
+				}
+				version = buffer.getShort();
+				if (version > VERSION) {
+					throw new IOException("Unsupported codec version: " + version);
+				}
+				byte kind = buffer.get();
+				if (kind != expectedKind) {
+					throw new IOException("Expected record kind " + expectedKind + " but found " + kind);
+				}
+				sequence = buffer.getLong();
+				int size = varInt();
+				dictionary = new String[size + 1]; // index 0 stands for null
+				for (int i = 1; i <= size; i++) {
+					int length = varInt();
+					dictionary[i] = new String(data, buffer.position(), length, StandardCharsets.UTF_8);
+					buffer.position(buffer.position() + length);
+				}
+			} catch (BufferUnderflowException | IllegalArgumentException e) {
+				throw new IOException("Truncated binary codec header", e);
+			}
+		}
+
+		int varInt() throws IOException {
+			int value = 0;
+			for (int shift = 0; shift < 35; shift += 7) {
+				byte b = buffer.get();
+				value |= (b & 0x7F) << shift;
+				if (b >= 0) {
+					return value;
+				}
+			}
+			throw new IOException("Malformed varint");
+		}
+
+		long varLong() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 70; shift += 7) {
+				byte b = buffer.get();
+				value |= (long) (b & 0x7F) << shift;
+				if (b >= 0) {
+					return value;
+				}
+			}
+			throw new IOException("Malformed varlong");
+		}
+
+		String string() throws IOException {
+			int index = varInt();
+			if (index >= dictionary.length) {
+				throw new IOException("Dictionary index out of range: " + index);
+			}
+			return dictionary[index];
+		}
+
+		// Returns the position where the record ends
+		int beginRecord() throws IOException {
+			int length = varInt();
+			return buffer.position() + length;
+		}
+
+		// Skips any trailing fields written by a newer version
+		void endRecord(int end) throws IOException {
+			if (buffer.position() > end) {
+				throw new IOException("Record overran its declared length");
+			}
+			buffer.position(end);
+		}
+	}
+
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+}
@@ -0,0 +1,255 @@
+package util;
+
+import model.Cashier;
+import model.Item;
+import model.Manager;
+import model.Sector;
+import model.Sku;
+import model.Supplier;
+import model.User;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
+
+/**
+ * Reads and writes the .dat files in the BinaryCodec format.
+ * Files still in the old Java serialization format are detected by their
+ * header, read the old way once and rewritten in the codec format. Codec
+ * files from before item SKUs are rewritten the same way, so the SKUs handed
+ * out while reading them stay the items' SKUs from then on. The sectors,
+ * suppliers and employees files hold copies of stored items; while migrating
+ * those, each copy gets the SKU of the item in the inventory next to the file
+ * with the same name, sector and supplier.
+ */
+public class BinaryDataFiles {
+	private static final String INVENTORY_FILE_NAME = "items.dat";
+
+	private BinaryDataFiles() {
+	}
+
+	public static byte[] readFile(String path) throws IOException {
+		try (FileInputStream in = new FileInputStream(path)) {
+			return in.readAllBytes();
+		}
+	}
+
+	public static ArrayList<Item> loadItems(String path) throws IOException, ClassNotFoundException {
+		return loadItems(path, readFile(path));
+	}
+
+	// Decode inventory bytes that were already read from path
+	public static ArrayList<Item> loadItems(String path, byte[] data) throws IOException, ClassNotFoundException {
+		if (isCurrent(data)) {
+			return BinaryCodec.decodeItems(data);
+		}
+		synchronized (BinaryDataFiles.class) {
+			// Another load may have migrated the file since; its SKUs are the ones to keep
+			data = readFile(path);
+			if (isCurrent(data)) {
+				return BinaryCodec.decodeItems(data);
+			}
+			if (BinaryCodec.isCodecFormat(data)) {
+				ArrayList<Item> items = BinaryCodec.decodeItems(data);
+				migrate(path, BinaryCodec.encodeItems(items, BinaryCodec.readSequence(data)));
+				return items;
+			}
+			ArrayList<Item> items = castList(readLegacyObject(data), Item.class);
+			migrate(path, BinaryCodec.encodeItems(items, readLegacySequence(data)));
+			return items;
+		}
+	}
+
+	// Journal sequence stored with an inventory snapshot, 0 if there is none
+	public static long readItemsSequence(byte[] data) throws IOException {
+		return BinaryCodec.isCodecFormat(data) ? BinaryCodec.readSequence(data) : readLegacySequence(data);
+	}
+
+	public static ArrayList<Sector> loadSectors(String path) throws IOException, ClassNotFoundException {
+		byte[] data = readFile(path);
+		if (isCurrent(data)) {
+			return BinaryCodec.decodeSectors(data);
+		}
+		ArrayList<Sector> sectors = BinaryCodec.isCodecFormat(data) ? BinaryCodec.decodeSectors(data)
+				: castList(readLegacyObject(data), Sector.class);
+		HashMap<String, Sku> skus = inventorySkus(path);
+		for (Sector sector : sectors) {
+			useInventorySkus(sector, skus);
+		}
+		migrate(path, BinaryCodec.encodeSectors(sectors));
+		return sectors;
+	}
+
+	public static void saveSectors(String path, List<Sector> sectors) throws IOException {
+		AtomicFileStore.getInstance().save(path, BinaryCodec.encodeSectors(sectors));
+	}
+
+	public static ArrayList<Supplier> loadSuppliers(String path) throws IOException, ClassNotFoundException {
+		byte[] data = readFile(path);
+		if (isCurrent(data)) {
+			return BinaryCodec.decodeSuppliers(data);
+		}
+		ArrayList<Supplier> suppliers = BinaryCodec.isCodecFormat(data) ? BinaryCodec.decodeSuppliers(data)
+				: castList(readLegacyObject(data), Supplier.class);
+		HashMap<String, Sku> skus = inventorySkus(path);
+		for (Supplier supplier : suppliers) {
+			useInventorySkus(supplier, skus);
+		}
+		migrate(path, BinaryCodec.encodeSuppliers(suppliers));
+		return suppliers;
+	}
+
+	public static void saveSuppliers(String path, List<Supplier> suppliers) throws IOException {
+		AtomicFileStore.getInstance().save(path, BinaryCodec.encodeSuppliers(suppliers));
+	}
+
+	public static ArrayList<User> loadUsers(String path) throws IOException, ClassNotFoundException {
+		byte[] data = readFile(path);
+		if (isCurrent(data)) {
+			return BinaryCodec.decodeUsers(data);
+		}
+		ArrayList<User> users = BinaryCodec.isCodecFormat(data) ? BinaryCodec.decodeUsers(data)
+				: castList(readLegacyObject(data), User.class);
+		HashMap<String, Sku> skus = inventorySkus(path);
+		for (User user : users) {
+			if (user instanceof Manager) {
+				Manager manager = (Manager) user;
+				useInventorySkus(manager.getItems(), skus);
+				if (manager.getSectors() != null) {
+					manager.getSectors().forEach(sector -> useInventorySkus(sector, skus));
+				}
+				if (manager.getSuppliers() != null) {
+					manager.getSuppliers().forEach(supplier -> useInventorySkus(supplier, skus));
+				}
+			} else if (user instanceof Cashier) {
+				Cashier cashier = (Cashier) user;
+				useInventorySkus(cashier.getItems(), skus);
+				useInventorySkus(cashier.getSector(), skus);
+			}
+		}
+		migrate(path, BinaryCodec.encodeUsers(users));
+		return users;
+	}
+
+	public static void saveUsers(String path, List<User> users) throws IOException {
+		AtomicFileStore.getInstance().save(path, BinaryCodec.encodeUsers(users));
+	}
+
+	private static boolean isCurrent(byte[] data) {
+		return BinaryCodec.isCodecFormat(data) && BinaryCodec.readVersion(data) >= BinaryCodec.SKU_VERSION;
+	}
+
+	// SKUs of the inventory next to path by name, sector and supplier, and by name alone for unique names
+	private static HashMap<String, Sku> inventorySkus(String path) {
+		HashMap<String, Sku> skus = new HashMap<>();
+		File inventory = new File(new File(path).getAbsoluteFile().getParentFile(), INVENTORY_FILE_NAME);
+		if (!inventory.isFile()) {
+			return skus;
+		}
+		try {
+			for (Item item : loadItems(inventory.getPath())) {
+				skus.putIfAbsent(itemKey(item), item.getSku());
+				String name = nameKey(item);
+				skus.put(name, skus.containsKey(name) ? null : item.getSku()); // a shared name only resolves by the full key
+			}
+		} catch (IOException | ClassNotFoundException e) {
+			System.err.println("Error reading " + inventory + " for item SKUs: " + e.getMessage());
+		}
+		return skus;
+	}
+
+	private static void useInventorySkus(Sector sector, HashMap<String, Sku> skus) {
+		if (sector != null) {
+			useInventorySkus(sector.viewItems(), skus);
+		}
+	}
+
+	private static void useInventorySkus(Supplier supplier, HashMap<String, Sku> skus) {
+		if (supplier != null) {
+			useInventorySkus(supplier.getSuppliedItems(), skus);
+		}
+	}
+
+	// Replaces copies of stored items with copies under the stored item's SKU
+	private static void useInventorySkus(List<Item> items, HashMap<String, Sku> skus) {
+		if (items == null) {
+			return;
+		}
+		for (ListIterator<Item> it = items.listIterator(); it.hasNext();) {
+			Item item = it.next();
+			Sku sku = skus.get(itemKey(item));
+			if (sku == null) {
+				sku = skus.get(nameKey(item));
+			}
+			if (sku != null && !sku.equals(item.getSku())) {
+				it.set(item.withSku(sku));
+			}
+		}
+	}
+
+	private static String itemKey(Item item) {
+		return nameKey(item) + '|' + lower(item.getItemSector()) + '|' + lower(item.getSupplierName());
+	}
+
+	private static String nameKey(Item item) {
+		return lower(item.getItemName());
+	}
+
+	private static String lower(String text) {
+		return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+	}
+
+	// Old files may hold several lists one after another, the last one wins
+	private static Object readLegacyObject(byte[] data) throws IOException, ClassNotFoundException {
+		Object last = null;
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data))) {
+			while (true) {
+				try {
+					last = ois.readObject();
+				} catch (EOFException e) {
+					break;
+				} catch (OptionalDataException e) {
+					break; // trailing primitive data, e.g. an inventory journal sequence
+				}
+			}
+		}
+		return last;
+	}
+
+	// Inventory snapshots written before the codec carried the journal sequence after the list
+	private static long readLegacySequence(byte[] data) {
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data))) {
+			ois.readObject();
+			return ois.readLong();
+		} catch (IOException | ClassNotFoundException e) {
+			return 0;
+		}
+	}
+
+	private static <T> ArrayList<T> castList(Object object, Class<T> type) throws IOException {
+		if (!(object instanceof ArrayList<?>)) {
+			throw new IOException("Expected a list of " + type.getSimpleName());
+		}
+		ArrayList<T> list = new ArrayList<>();
+		for (Object element : (ArrayList<?>) object) {
+			if (!type.isInstance(element)) {
+				throw new IOException("Expected a list of " + type.getSimpleName());
+			}
+			list.add(type.cast(element));
+		}
+		return list;
+	}
+
+	// One-time rewrite of an old file; reading still succeeds if this fails
+	private static void migrate(String path, byte[] encoded) {
+		try {
+			AtomicFileStore.getInstance().save(path, encoded);
+			System.out.println("Migrated " + path + " to binary codec version " + BinaryCodec.VERSION + ".");
+		} catch (IOException e) {
+			System.err.println("Error migrating " + path + " to binary codec version " + BinaryCodec.VERSION + ": " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package util;
+
+/**
+ * How InventoryService keeps concurrent stock changes from losing updates.
+ * STRIPED locks the stripes of the items, in this process and in the shared
+ * lock file, so it also covers terminals running as separate processes.
+ * OPTIMISTIC takes no locks: writers compare-and-set against the item version
+ * they read and retry on conflict, so restocks never wait for a checkout.
+ * It only coordinates threads of one process.
+ */
+public enum Concurrency {
+    STRIPED, OPTIMISTIC
+}
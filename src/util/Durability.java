@@ -0,0 +1,11 @@
+package util;
+
+/**
+ * How AtomicFileStore makes a save durable.
+ * PER_WRITE forces every save to disk on the calling thread, BATCHED coalesces
+ * saves that arrive close together into one forced write (group commit) and
+ * BUFFERED coalesces them but leaves flushing to the operating system.
+ */
+public enum Durability {
+    PER_WRITE, BATCHED, BUFFERED
+}
@@ -1,12 +1,7 @@
 package util;
 
-import java.io.EOFException;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 
 import model.User;
@@ -20,8 +15,8 @@ public class EmployeeFileHandler {
 			return;
 		}
 
-		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(EMPLOYEE_FILE))) {
-			oos.writeObject(employees);
+		try {
+			BinaryDataFiles.saveUsers(EMPLOYEE_FILE, employees);
 			System.out.println("Employee data saved successfully to binary file: " + EMPLOYEE_FILE);
 		} catch (IOException e) {
 			System.out.println("Error saving employee data to binary file: " + e.getMessage());
@@ -29,17 +24,10 @@ public class EmployeeFileHandler {
 	}
 
 	
-	@SuppressWarnings("unchecked")
 	public ArrayList<User> loadEmployeeData() {
 		ArrayList<User> employees = new ArrayList<>();
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(EMPLOYEE_FILE))) {
-			while (true) {
-				try {
-					employees = (ArrayList<User>) ois.readObject(); 
-				} catch (EOFException e) {
-					break;
-				}
-			}
+		try {
+			employees = BinaryDataFiles.loadUsers(EMPLOYEE_FILE);
 			System.out.println("Employee data loaded successfully from binary file: " + EMPLOYEE_FILE);
 		} catch (FileNotFoundException e) {
 			System.err.println("Employee binary file not found: " + EMPLOYEE_FILE);
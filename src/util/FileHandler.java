@@ -9,6 +9,8 @@ import util.Role;
 
 import java.io.*;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
@@ -20,13 +22,18 @@ import java.util.Date;
 public class FileHandler {
 	// Constants for file paths
 	private static final String EMPLOYEE_FILE = "src/BinaryFiles/employees.dat";
-	private static final String INVENTORY_FILE = "src/BinaryFiles/items.dat";
 	private static final String BILL_DIRECTORY = "src/BinaryFiles/Bills/";
 	private static final String SECTOR_FILE = "src/BinaryFiles/sectors.dat";
 	
 	// Final reference to a helper class
 	private final EmployeeFileHandler EmployeeFile = new EmployeeFileHandler();
 
+	// Shared in-memory inventory, items.dat is only read once per process
+	private final InventoryRepository inventoryRepository = InventoryRepository.getInstance();
+	private final BillCatalog billCatalog = BillCatalog.getInstance();
+	private final SalesLedger salesLedger = SalesLedger.getInstance();
+	private final SalesAggregates salesAggregates = SalesAggregates.getInstance();
+
 	/**
 	 * Fix for SpotBugs: Call to method of static java.text.DateFormat.
 	 * SimpleDateFormat is not thread-safe. By using ThreadLocal, each thread
@@ -35,32 +42,21 @@ public class FileHandler {
 	private static final ThreadLocal<SimpleDateFormat> threadSafeFormat = 
 			ThreadLocal.withInitial(() -> new SimpleDateFormat("dd-MM-yyyy"));
 
+	// Each thread reuses one parser and its read buffer
+	private static final ThreadLocal<ReceiptParser> receiptParser = ThreadLocal.withInitial(ReceiptParser::new);
+
 	public FileHandler() {
 	}
 
 	// Load inventory data for a specific sector
 	public ArrayList<Item> loadInventoryBySector(String sector) {
-		ArrayList<Item> inventory = loadInventory();
-		ArrayList<Item> sectorInventory = new ArrayList<>();
-
-		for (Item item : inventory) {
-			if (item.getItemSector().equalsIgnoreCase(sector)) {
-				sectorInventory.add(item);
-			}
-		}
-
-		return sectorInventory;
+		return inventoryRepository.findBySector(sector);
 	}
 
 	// Save the entire inventory to the binary file
 	public void saveInventory(ArrayList<Item> inventory) {
-		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(INVENTORY_FILE))) {
-			// Fix: Defensive copy of the list before writing
-			oos.writeObject(new ArrayList<>(inventory)); 
-			System.out.println("Inventory saved successfully to binary file: " + INVENTORY_FILE);
-		} catch (IOException e) {
-			System.err.println("Error saving inventory to binary file: " + e.getMessage());
-		}
+		// The repository keeps its own copy of the list and writes it through
+		inventoryRepository.saveAll(inventory);
 	}
 
 	/**
@@ -76,8 +72,8 @@ public class FileHandler {
 		// Fix: Store a copy of the list to prevent external modification
 		ArrayList<Sector> sectorsCopy = new ArrayList<>(sectors);
 
-		try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(SECTOR_FILE))) {
-			out.writeObject(sectorsCopy); 
+		try {
+			BinaryDataFiles.saveSectors(SECTOR_FILE, sectorsCopy);
 			System.out.println("Sectors saved successfully.");
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -85,22 +81,12 @@ public class FileHandler {
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	public ArrayList<Sector> loadSectors() {
 		ArrayList<Sector> sectors = new ArrayList<>();
 
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(SECTOR_FILE))) {
-			Object obj = ois.readObject();
-			if (obj instanceof ArrayList<?>) {
-				ArrayList<?> tempList = (ArrayList<?>) obj;
-
-				if (!tempList.isEmpty() && tempList.get(0) instanceof Sector) {
-					sectors = (ArrayList<Sector>) tempList;
-					System.out.println("Sectors loaded successfully.");
-				} else {
-					System.err.println("Error: File data is not of type ArrayList<Sector>");
-				}
-			}
+		try {
+			sectors = BinaryDataFiles.loadSectors(SECTOR_FILE);
+			System.out.println("Sectors loaded successfully.");
 		} catch (IOException e) {
 			System.out.println("Error loading sectors: File not found or unable to read.");
 		} catch (ClassNotFoundException e) {
@@ -110,130 +96,61 @@ public class FileHandler {
 		return sectors;
 	}
 
-	@SuppressWarnings("unchecked")
 	public ArrayList<Item> loadInventory() {
-		ArrayList<Item> inventory = new ArrayList<>();
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(INVENTORY_FILE))) {
-			inventory = (ArrayList<Item>) ois.readObject();
-			System.out.println("Inventory loaded successfully from binary file: " + INVENTORY_FILE);
-		} catch (FileNotFoundException e) {
-			System.err.println("Inventory binary file not found: " + INVENTORY_FILE);
-		} catch (IOException | ClassNotFoundException e) {
-			System.err.println("Error loading inventory from binary file: " + e.getMessage());
-		}
-		return inventory;
+		return inventoryRepository.findAll();
 	}
 
+	// Today's bills come from the bill catalog, receipt files are only read if their items are needed
 	public ArrayList<Bill> loadBills() {
-	    ArrayList<Bill> bills = new ArrayList<>();
-	    File billDirectory = new File(BILL_DIRECTORY);
-
-	    if (!billDirectory.exists() || !billDirectory.isDirectory()) {
-	        return bills;
-	    }
-
-	    File[] billFiles = billDirectory.listFiles((dir, name) -> name.endsWith(".txt"));
-
-	    if (billFiles == null || billFiles.length == 0) {
-	        return bills;
-	    }
-
-	    Date today = new Date();
+	    LocalDate today = LocalDate.now();
+	    return loadBills(today, today);
+	}
 
-	    for (File billFile : billFiles) {
-	        Bill bill = loadBillFromFile(billFile);
-	        if (bill != null) {
-	            if (isSameDay(bill.getSaleDate(), today)) {
-	                bills.add(bill);
-	            } 
-	        }
+	public ArrayList<Bill> loadBills(LocalDate from, LocalDate to) {
+	    ArrayList<Bill> bills = new ArrayList<>();
+	    for (BillCatalog.Entry entry : billCatalog.findBetween(from, to)) {
+	        File receiptFile = entry.getReceiptFile();
+	        bills.add(new Bill(entry.getBillNumber(), entry.getTotalAmount(), entry.getSaleDate(),
+	                () -> loadItemsFromFile(receiptFile)));
 	    }
-
 	    return bills;
 	}
 
+	private ArrayList<Item> loadItemsFromFile(File billFile) {
+	    Bill bill = loadBillFromFile(billFile);
+	    return bill != null ? bill.getItems() : new ArrayList<>();
+	}
+
 	public Bill loadBillFromFile(File billFile) {
-	    Bill bill = null;
-	    try (BufferedReader br = new BufferedReader(new FileReader(billFile))) {
-	        String line;
-	        String billNumber = null;
-	        ArrayList<Item> items = new ArrayList<>();
-	        double totalAmount = 0.0;
-	        Date saleDate = null;
-	        boolean isItemSection = false;
-
-	        while ((line = br.readLine()) != null) {
-	            line = line.trim();
-
-	            if (line.startsWith("Bill Number:")) {
-	                billNumber = line.split(":")[1].trim();
-	            } else if (line.startsWith("Date:")) {
-	                String dateString = line.split(":")[1].trim();
-	                // Fix: Accessed via ThreadLocal instance to resolve static DateFormat issues
-	                saleDate = threadSafeFormat.get().parse(dateString); 
-	            } else if (line.startsWith("Total Amount:")) {
-	                totalAmount = Double.parseDouble(line.split(":")[1].trim());
-	            } else if (line.startsWith("Items:")) {
-	                isItemSection = true;
-	            } else if (isItemSection && !line.startsWith("-") && !line.isEmpty()) {
-	                if (line.startsWith("Item Name")) continue;
-
-	                String[] itemDetails = line.split("\\s{2,}");
-	                if (itemDetails.length >= 4) {
-	                    String itemName = itemDetails[0].trim();
-	                    String category = itemDetails[1].trim();
-	                    double price = Double.parseDouble(itemDetails[3].trim());
-	                    items.add(new Item(itemName, category, price, 0, 0));
-	                }
-	            }
-	        }
-
-	        if (billNumber != null && !items.isEmpty() && totalAmount > 0 && saleDate != null) {
-	            bill = new Bill(billNumber, items, totalAmount, saleDate);
-	        }
-	    } catch (Exception e) {
+	    try {
+	        ReceiptParser parser = receiptParser.get();
+	        return parser.parse(billFile) ? parser.toBill() : null;
+	    } catch (IOException e) {
 	        e.printStackTrace();
+	        return null;
 	    }
-	    return bill;
 	}
 
-	public ArrayList<Item> filterItemsByCategory(String category) {
-		ArrayList<Item> filteredItems = new ArrayList<>();
-		ArrayList<Item> inventory = loadInventory();
-
-		for (Item item : inventory) {
-			if (item.getCategory().equalsIgnoreCase(category)) {
-				filteredItems.add(item);
-			}
-		}
+	// Case-insensitive, served from the repository's name index
+	public Item findItemByName(String itemName) {
+		return inventoryRepository.findByName(itemName);
+	}
 
-		return filteredItems;
+	public ArrayList<Item> filterItemsByCategory(String category) {
+		return inventoryRepository.findByCategory(category);
 	}
 
+	// Distinct categories, straight from the repository's category index
 	public ArrayList<String> loadCategoriesBySectors() {
-		ArrayList<String> categories = new ArrayList<>();
-		ArrayList<Item> inventory = loadInventory();
-
-		for (Item item : inventory) {
-			String category = item.getCategory();
-			if (!categories.contains(category)) {
-				categories.add(category);
-			}
-		}
-
-		return categories;
+		return inventoryRepository.findCategories();
 	}
 
 	public static ArrayList<Cashier> loadCashiers() {
 		ArrayList<Cashier> cashiers = new ArrayList<>();
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(EMPLOYEE_FILE))) {
-			Object obj = ois.readObject();
-			if (obj instanceof ArrayList) {
-				ArrayList<?> list = (ArrayList<?>) obj;
-				for (Object item : list) {
-					if (item instanceof Cashier) {
-						cashiers.add((Cashier) item);
-					}
+		try {
+			for (User user : BinaryDataFiles.loadUsers(EMPLOYEE_FILE)) {
+				if (user instanceof Cashier) {
+					cashiers.add((Cashier) user);
 				}
 			}
 		} catch (Exception e) {
@@ -244,9 +161,8 @@ public class FileHandler {
 
 	public ArrayList<Cashier> loadCashiersByRole() {
 		ArrayList<Cashier> cashiers = new ArrayList<>();
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(EMPLOYEE_FILE))) {
-			@SuppressWarnings("unchecked")
-			ArrayList<User> users = (ArrayList<User>) ois.readObject();
+		try {
+			ArrayList<User> users = BinaryDataFiles.loadUsers(EMPLOYEE_FILE);
 
 			for (User user : users) {
 				if (user instanceof Cashier && user.getRole() == Role.Cashier) {
@@ -259,28 +175,14 @@ public class FileHandler {
 		return cashiers;
 	}
 
+	// All or nothing, under the stripe locks of the sold items; see InventoryService
 	public void updateInventoryForSale(ArrayList<Item> soldItems) throws IllegalArgumentException, IOException {
-	    ArrayList<Item> inventory = loadInventory();
-
-	    for (Item soldItem : soldItems) {
-	        boolean itemFound = false;
-
-	        for (Item inventoryItem : inventory) {
-	            if (inventoryItem.getItemName().equalsIgnoreCase(soldItem.getItemName())) {
-	                itemFound = true;
-	                if (!inventoryItem.hasSufficientStock(soldItem.getStockQuantity())) {
-	                    throw new IllegalArgumentException("Insufficient stock for item: " + soldItem.getItemName());
-	                }
-	                inventoryItem.sellItem(soldItem.getStockQuantity());
-	                break;
-	            }
-	        }
-
-	        if (!itemFound) {
-	            throw new IllegalArgumentException("Item not found in inventory: " + soldItem.getItemName());
-	        }
-	    }
-	    saveInventory(inventory);
+	    InventoryService.getInstance().checkout(soldItems);
+	}
+
+	// Puts the stock of a sale whose bill could not be saved back
+	public void undoInventoryForSale(ArrayList<Item> soldItems) throws IllegalArgumentException, IOException {
+	    InventoryService.getInstance().undoCheckout(soldItems);
 	}
 
 	public void addEmployeeSalary(String employeeName, double salary) {
@@ -303,10 +205,15 @@ public class FileHandler {
 		}
 	}
 
-	public void saveBill(String billNumber, ArrayList<Item> items, double total, String cashierName, String sector) {
+	// Throws if the bill could not be saved; no receipt is left behind then
+	public void saveBill(String billNumber, ArrayList<Item> items, double total, String cashierName, String sector) throws IOException {
 		// Fix: Thread-safe formatting via ThreadLocal
-		String date = threadSafeFormat.get().format(new Date());
-		String fileName = BILL_DIRECTORY + billNumber + "_" + date + ".txt";
+		Date saleDate = new Date();
+		String date = threadSafeFormat.get().format(saleDate);
+		LocalDate saleDay = saleDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+		// Receipts are partitioned by day: Bills/yyyy/MM/dd/
+		File partition = BillPartitions.partitionFor(new File(BILL_DIRECTORY), saleDay);
+		String fileName = new File(partition, billNumber + "_" + date + ".txt").getPath();
 		
 		try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
 			writer.write("=========================================\n");
@@ -335,9 +242,30 @@ public class FileHandler {
 			writer.write("=========================================\n");
 		} catch (IOException e) {
 			System.err.println("Error saving bill to file: " + fileName);
+			new File(fileName).delete();
+			throw e;
+		}
+
+		try {
+			billCatalog.append(billNumber, saleDay, cashierName, sector, total, new File(fileName));
+		} catch (IOException e) {
+			System.err.println("Error adding bill to the bill catalog: " + e.getMessage());
+			new File(fileName).delete();
+			throw e;
 		}
 	}
 	
+	// Append the finalized bill to the sales ledger the report screens read and update the totals
+	public void recordSale(String billNumber, Cashier cashier, String sector, double total, int lineCount) {
+		try {
+			salesLedger.append(new SalesLedger.Record(billNumber, System.currentTimeMillis(), cashier.getId(),
+					cashier.getName(), sector, Math.round(total * 100), lineCount));
+		} catch (IOException e) {
+			System.err.println("Error writing to the sales ledger: " + e.getMessage());
+		}
+		salesAggregates.refresh();
+	}
+
 	public boolean isSameDay(Date date1, Date date2) {
 		if (date1 == null || date2 == null) return false;
 	    Calendar cal1 = Calendar.getInstance();
@@ -348,13 +276,18 @@ public class FileHandler {
 	           cal1.get(Calendar.DAY_OF_YEAR) == cal2.get(Calendar.DAY_OF_YEAR);
 	}
 
+	// Looked up in the repository's name index; only a name shared across sectors needs the sector's items
 	public boolean isItemOutOfStock(String itemName, String sector) {
-		ArrayList<Item> sectorItems = loadInventoryBySector(sector);
-		for (Item item : sectorItems) {
-			if (item.getItemName().equalsIgnoreCase(itemName)) {
-				return item.getStockQuantity() == 0;
+		Item item = inventoryRepository.findByName(itemName);
+		if (item != null && sector != null && !sector.equalsIgnoreCase(item.getItemSector())) {
+			item = null;
+			for (Item sectorItem : loadInventoryBySector(sector)) {
+				if (sectorItem.getItemName().equalsIgnoreCase(itemName)) {
+					item = sectorItem;
+					break;
+				}
 			}
 		}
-		return true;
+		return item == null || item.getStockQuantity() == 0;
 	}
 }
\ No newline at end of file
@@ -14,25 +14,29 @@ import java.util.List;
 public class FileHandlerMANAGER{
 	// Constants for file paths CHANGE IF THESE DONT WORK FOR YOU
 	private static final String EMPLOYEE_FILE = "src/BinaryFiles/employees.dat"; // Binary files for employees
-	private static final String INVENTORY_FILE = "src/BinaryFiles/items.dat"; // Binary files for inventory
 	private static final String SECTOR_FILE = "src/BinaryFiles/sectors.dat"; // Path to sector file
 	private static final String SUPPLIER_FILE = "src/BinaryFiles/suppliers.dat"; // Binary files for suppliers
 
+	// Shared with FileHandler so both see one cached inventory
+	private final InventoryRepository inventoryRepository = InventoryRepository.getInstance();
+
 	public FileHandlerMANAGER() {
 
 	}
 	
 	public boolean deleteItemAndUpdateSuppliers(Item item, ArrayList<Item> inventory, ArrayList<Supplier> suppliers) {
+		// Items are equal by SKU, so this holds however the stock changed since the list was loaded
 		boolean itemRemoved = inventory.remove(item);
 
 		if (itemRemoved) {
 		
+			// Supplier copies stored before SKUs carry SKUs of their own, so their names still count
 			for (Supplier supplier : suppliers) {
-				supplier.getSuppliedItems().removeIf(i -> i.getItemName().equals(item.getItemName()));
+				supplier.getSuppliedItems().removeIf(i -> i.equals(item) || i.getItemName().equals(item.getItemName()));
 			}
 
-			// Save updated data to files
-			saveInventory(inventory);
+			// Save updated data to files, the inventory only journals the delete
+			inventoryRepository.delete(item.getSku());
 			saveSuppliers(suppliers);
 			return true;
 		}
@@ -41,28 +45,42 @@ public class FileHandlerMANAGER{
 
 	
 	public void saveInventory(ArrayList<Item> inventory) {
-		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(INVENTORY_FILE))) {
-			oos.writeObject(inventory); 
-			System.out.println("Inventory saved successfully to binary file: " + INVENTORY_FILE);
+		inventoryRepository.saveAll(inventory);
+	}
+
+	// Add a single item, journaled instead of rewriting the whole inventory file
+	public void addItem(Item newItem) {
+		inventoryRepository.add(newItem);
+	}
+
+	// Restock a single item under its stripe lock, journaled instead of rewriting the whole inventory file
+	public Item restockItem(String itemName, int quantity) {
+		try {
+			return InventoryService.getInstance().restock(itemName, quantity);
 		} catch (IOException e) {
-			System.err.println("Error saving inventory to binary file: " + e.getMessage());
+			System.err.println("Error locking inventory for restock: " + e.getMessage());
+			return null;
 		}
 	}
 
+	// Move an item to another sector and category, journaled like the other single-item changes
+	public Item recategorizeItem(String itemName, String sector, String category) {
+		return inventoryRepository.recategorize(itemName, sector, category);
+	}
+
 	public void saveSuppliers(List<Supplier> suppliers) {
-		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(SUPPLIER_FILE))) {
-			oos.writeObject(suppliers);
+		try {
+			BinaryDataFiles.saveSuppliers(SUPPLIER_FILE, suppliers);
 			System.out.println("Suppliers saved successfully to binary file: " + SUPPLIER_FILE);
 		} catch (IOException e) {
 			System.err.println("Error saving suppliers: " + e.getMessage());
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	public ArrayList<Supplier> loadSuppliers() {
 		ArrayList<Supplier> suppliers = new ArrayList<>();
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(SUPPLIER_FILE))) {
-			suppliers = (ArrayList<Supplier>) ois.readObject();
+		try {
+			suppliers = BinaryDataFiles.loadSuppliers(SUPPLIER_FILE);
 			System.out.println("Suppliers loaded successfully from binary file: " + SUPPLIER_FILE);
 		} catch (FileNotFoundException e) {
 			System.err.println("Suppliers binary file not found: " + SUPPLIER_FILE);
@@ -85,8 +103,8 @@ public class FileHandlerMANAGER{
 			return; // If the list is empty, do not proceed with saving.
 		}
 
-		try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(SECTOR_FILE))) {
-			out.writeObject(sectors); // Serialize the sectors list (which includes categories).
+		try {
+			BinaryDataFiles.saveSectors(SECTOR_FILE, sectors); // Encode the sectors list (which includes categories).
 			System.out.println("Sectors saved successfully.");
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -95,75 +113,53 @@ public class FileHandlerMANAGER{
 	}
 
 
-	// Load inventory data from the item.dat file
+	// Load inventory data from the shared repository (items.dat is read once)
 	// This method does not modify or update the inventory file
-	@SuppressWarnings("unchecked")
 	public ArrayList<Item> loadInventory() {
-		ArrayList<Item> inventory = new ArrayList<>();
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(INVENTORY_FILE))) {
-			inventory = (ArrayList<Item>) ois.readObject();
-			System.out.println("Inventory loaded successfully from binary file: " + INVENTORY_FILE);
-		} catch (FileNotFoundException e) {
-			System.err.println("Inventory binary file not found: " + INVENTORY_FILE);
-		} catch (IOException | ClassNotFoundException e) {
-			System.err.println("Error loading inventory from binary file: " + e.getMessage());
-		}
-		return inventory;
+		return inventoryRepository.findAll();
 	}
 
 		// Updated method for reading low stock items based on sector categories
 	public static ArrayList<Item> readLowStockItemsFromBinaryFileMANAGER(String fileName, int threshold, ArrayList<Sector> managerSectors) {
-	    ArrayList<Item> lowStockItems = new ArrayList<>();
-	    try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(fileName))) {
-	        @SuppressWarnings("unchecked")
-			ArrayList<Item> inventory = (ArrayList<Item>) ois.readObject();
-	        
-	        for (Item item : inventory) {
-	            for (Sector sector : managerSectors) {
-	                if (sector.getCategories().contains(item.getCategory()) && item.getStockQuantity() <= threshold) {
-	                    lowStockItems.add(item);
-	                    break; 
-	                }
-	            }
-	        }
+	    try {
+	        ArrayList<Item> inventory = BinaryDataFiles.loadItems(fileName);
+	        return filterLowStockItems(inventory, threshold, managerSectors);
 	    } catch (IOException | ClassNotFoundException e) {
 	        e.printStackTrace();
 	    }
+	    return new ArrayList<>();
+	}
+
+	// Same filter as above but over an inventory that is already in memory; one category lookup per item
+	public static ArrayList<Item> filterLowStockItems(ArrayList<Item> inventory, int threshold, ArrayList<Sector> managerSectors) {
+	    ArrayList<Item> lowStockItems = new ArrayList<>();
+	    SectorCategoryIndex managed = new SectorCategoryIndex(managerSectors);
+	    for (Item item : inventory) {
+	        if (item.getStockQuantity() <= threshold && managed.covers(item.getCategory())) {
+	            lowStockItems.add(item);
+	        }
+	    }
 	    return lowStockItems;
 	}
 	
-		public ArrayList<Item> notifyLowStockforManager(int threshold, ArrayList<Sector> managerSectors) {
-		    ArrayList<Item> lowStockItems = new ArrayList<>();
-
-		    ArrayList<Item> allItems = readLowStockItemsFromBinaryFileMANAGER(INVENTORY_FILE, threshold, managerSectors);
-
-		    for (Item item : allItems) {
-		        System.out.println("Checking item: " + item.getItemName() + ", Stock: " + item.getStockQuantity() + ", Category: " + item.getCategory());
-		        
-		        for (Sector sector : managerSectors) {
-		          
-		            if (sector.getCategories().contains(item.getCategory()) && item.getStockQuantity() <= threshold) {
-		                lowStockItems.add(item);
-		                break;  
-		            }
-		        }
-		    }
-		    return lowStockItems;
-		}
+	// Low-stock items of the manager's sectors, lowest stock first, from the repository's low-stock index
+	public ArrayList<Item> notifyLowStockforManager(int threshold, ArrayList<Sector> managerSectors) {
+		return inventoryRepository.findLowStock(categoriesOf(managerSectors), threshold);
+	}
 
+	// Badge count, without building the item list
+	public int countLowStockForManager(int threshold, ArrayList<Sector> managerSectors) {
+		return inventoryRepository.countLowStock(categoriesOf(managerSectors), threshold);
+	}
 
-	public ArrayList<String> loadCategoriesBySectors() {
-		ArrayList<String> categories = new ArrayList<>();
-		ArrayList<Item> inventory = loadInventory(); // Assuming this method loads items
+	private static List<String> categoriesOf(ArrayList<Sector> sectors) {
+		return new SectorCategoryIndex(sectors).categories();
+	}
 
-		for (Item item : inventory) {
-			String category = item.getCategory();
-			if (!categories.contains(category)) {
-				categories.add(category); // Only add unique categories
-			}
-		}
 
-		return categories; // Return the list of categories
+	// Distinct categories, straight from the repository's category index
+	public ArrayList<String> loadCategoriesBySectors() {
+		return inventoryRepository.findCategories();
 	}
 
 	public boolean deleteItemFromSupplier(String itemId) {
@@ -199,8 +195,8 @@ public class FileHandlerMANAGER{
 	
 	public ArrayList<Cashier> loadCashiersByRole(ArrayList<Sector> managerSectors) {
         ArrayList<Cashier> cashiers = new ArrayList<>();
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(EMPLOYEE_FILE))) {
-			ArrayList<User> users = (ArrayList<User>) ois.readObject(); // Read the whole list
+        try {
+			ArrayList<User> users = BinaryDataFiles.loadUsers(EMPLOYEE_FILE); // Read the whole list
             // Debug: Print Manager Sectors
             System.out.println("Manager Sectors: " + managerSectors);
             for (User user : users) {
@@ -242,27 +238,15 @@ public class FileHandlerMANAGER{
 
 	// Save inventory data to the item.dat file
 	public void saveIventory(ArrayList<Item> inventory) {
-		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(INVENTORY_FILE))) {
-			oos.writeObject(inventory);
-			System.out.println("Inventory saved successfully to binary file: " + INVENTORY_FILE);
-		} catch (IOException e) {
-			System.err.println("Error saving inventory to binary file: " + e.getMessage());
-		}
+		saveInventory(inventory);
 	}
 
 
 	// Load employee data from a binary file
-	@SuppressWarnings("unchecked")
 	public ArrayList<User> loadEmployeeData() {
 		ArrayList<User> employees = new ArrayList<>();
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(EMPLOYEE_FILE))) {
-			while (true) {
-				try {
-					employees = (ArrayList<User>) ois.readObject();
-				} catch (EOFException e) {
-					break;
-				}
-			}
+		try {
+			employees = BinaryDataFiles.loadUsers(EMPLOYEE_FILE);
 			System.out.println("Employee data loaded successfully from binary file: " + EMPLOYEE_FILE);
 		} catch (FileNotFoundException e) {
 			System.err.println("Employee binary file not found: " + EMPLOYEE_FILE);
@@ -0,0 +1,287 @@
+package util;
+
+import model.Item;
+import model.Sku;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal for inventory changes.
+ * Each sale, restock, add or delete is written as one small record instead of
+ * rewriting items.dat. Record layout:
+ *   int length | long sequence | byte type | UTF item name | payload | long crc32
+ * Stock delta and delete payloads end with the item's SKU; records written
+ * before SKUs lack it and are matched by name instead.
+ * A record with a short read or a bad checksum marks a torn tail and ends replay.
+ * Appends return the AtomicFileStore sync of the journal, so callers can wait
+ * for the group commit after releasing their locks.
+ */
+public class InventoryJournal {
+	public static final byte STOCK_DELTA = 1;
+	public static final byte UPSERT = 2;
+	public static final byte DELETE = 3;
+
+	private final File journalFile;
+	private final File rotatedFile;
+	private FileOutputStream fileOut;
+	private DataOutputStream out;
+	private Object openFileKey; // identity of the file the stream appends to
+
+	// One decoded journal record
+	public static class Entry {
+		private final long sequence;
+		private final byte type;
+		private final String itemName;
+		private final Sku sku; // null for records written before SKUs
+		private final int stockDelta;
+		private final int soldDelta;
+		private final Item item;
+
+		Entry(long sequence, byte type, String itemName, Sku sku, int stockDelta, int soldDelta, Item item) {
+			this.sequence = sequence;
+			this.type = type;
+			this.itemName = itemName;
+			this.sku = sku;
+			this.stockDelta = stockDelta;
+			this.soldDelta = soldDelta;
+			this.item = item;
+		}
+
+		public long getSequence() {
+			return sequence;
+		}
+
+		public byte getType() {
+			return type;
+		}
+
+		public String getItemName() {
+			return itemName;
+		}
+
+		public Sku getSku() {
+			return sku;
+		}
+
+		public int getStockDelta() {
+			return stockDelta;
+		}
+
+		public int getSoldDelta() {
+			return soldDelta;
+		}
+
+		public Item getItem() {
+			return item;
+		}
+	}
+
+	public InventoryJournal(String journalPath) {
+		this.journalFile = new File(journalPath);
+		this.rotatedFile = new File(journalPath + ".1");
+	}
+
+	public CompletableFuture<Void> appendStockDelta(long sequence, Item item, int stockDelta, int soldDelta) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+		DataOutputStream record = startRecord(buffer, sequence, STOCK_DELTA, item.getItemName());
+		record.writeInt(stockDelta);
+		record.writeInt(soldDelta);
+		record.writeLong(item.getSku().getValue());
+		return write(buffer);
+	}
+
+	public CompletableFuture<Void> appendUpsert(long sequence, Item item) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+		DataOutputStream record = startRecord(buffer, sequence, UPSERT, item.getItemName());
+		byte[] itemBytes = BinaryCodec.encodeItems(Collections.singletonList(item), sequence);
+		record.writeInt(itemBytes.length);
+		record.write(itemBytes);
+		return write(buffer);
+	}
+
+	public CompletableFuture<Void> appendDelete(long sequence, Item item) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+		DataOutputStream record = startRecord(buffer, sequence, DELETE, item.getItemName());
+		record.writeLong(item.getSku().getValue());
+		return write(buffer);
+	}
+
+	private DataOutputStream startRecord(ByteArrayOutputStream buffer, long sequence, byte type, String itemName) throws IOException {
+		DataOutputStream record = new DataOutputStream(buffer);
+		record.writeLong(sequence);
+		record.writeByte(type);
+		record.writeUTF(itemName);
+		return record;
+	}
+
+	private synchronized CompletableFuture<Void> write(ByteArrayOutputStream buffer) throws IOException {
+		if (out != null && !isOpenFile()) {
+			close(); // another terminal rotated or truncated the journal
+		}
+		if (out == null) {
+			fileOut = new FileOutputStream(journalFile, true);
+			out = new DataOutputStream(new BufferedOutputStream(fileOut));
+			openFileKey = fileKey();
+		}
+		CRC32 crc = new CRC32();
+		byte[] payload = buffer.toByteArray();
+		crc.update(payload);
+		out.writeInt(payload.length);
+		out.write(payload);
+		out.writeLong(crc.getValue());
+		out.flush();
+		return AtomicFileStore.getInstance().requestSync(journalFile.getPath(), this::force);
+	}
+
+	// Forces the open journal; one closed since was forced when it was closed
+	private synchronized void force() throws IOException {
+		if (fileOut != null) {
+			fileOut.getChannel().force(false);
+		}
+	}
+
+	/**
+	 * Reads every intact record, the rotated journal of an unfinished
+	 * compaction first and then the live journal.
+	 */
+	public ArrayList<Entry> readAll() {
+		ArrayList<Entry> entries = new ArrayList<>();
+		readFile(rotatedFile, entries);
+		readFile(journalFile, entries);
+		return entries;
+	}
+
+	private void readFile(File file, ArrayList<Entry> entries) {
+		if (!file.exists()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			while (true) {
+				int length;
+				try {
+					length = in.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+				if (length <= 0) {
+					System.err.println("Corrupt inventory journal record in " + file + ", stopping replay.");
+					break;
+				}
+				byte[] payload = new byte[length];
+				in.readFully(payload);
+				long checksum = in.readLong();
+				CRC32 crc = new CRC32();
+				crc.update(payload);
+				if (crc.getValue() != checksum) {
+					System.err.println("Inventory journal checksum mismatch in " + file + ", stopping replay.");
+					break;
+				}
+				entries.add(decode(payload));
+			}
+		} catch (EOFException e) {
+			System.err.println("Inventory journal " + file + " ends with a partial record, ignoring it.");
+		} catch (IOException | ClassNotFoundException e) {
+			System.err.println("Error reading inventory journal: " + e.getMessage());
+		}
+	}
+
+	private Entry decode(byte[] payload) throws IOException, ClassNotFoundException {
+		DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+		long sequence = record.readLong();
+		byte type = record.readByte();
+		String itemName = record.readUTF();
+		switch (type) {
+			case STOCK_DELTA:
+				int stockDelta = record.readInt();
+				int soldDelta = record.readInt();
+				return new Entry(sequence, type, itemName, readSku(record), stockDelta, soldDelta, null);
+			case UPSERT:
+				byte[] itemBytes = new byte[record.readInt()];
+				record.readFully(itemBytes);
+				if (BinaryCodec.isCodecFormat(itemBytes)) {
+					Item item = BinaryCodec.decodeItems(itemBytes).get(0);
+					Sku sku = BinaryCodec.readVersion(itemBytes) >= BinaryCodec.SKU_VERSION ? item.getSku() : null;
+					return new Entry(sequence, type, itemName, sku, 0, 0, item);
+				}
+				try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(itemBytes))) {
+					return new Entry(sequence, type, itemName, null, 0, 0, (Item) ois.readObject()); // written before the codec
+				}
+			case DELETE:
+				return new Entry(sequence, type, itemName, readSku(record), 0, 0, null);
+			default:
+				throw new IOException("Unknown inventory journal record type: " + type);
+		}
+	}
+
+	private static Sku readSku(DataInputStream record) throws IOException {
+		return record.available() >= 8 ? Sku.of(record.readLong()) : null;
+	}
+
+	/**
+	 * Moves the live journal aside so new records go to a fresh file while a
+	 * snapshot is written. Returns false if an earlier rotation is still pending.
+	 */
+	public synchronized boolean rotate() throws IOException {
+		if (rotatedFile.exists()) {
+			return false;
+		}
+		close();
+		if (journalFile.exists() && !journalFile.renameTo(rotatedFile)) {
+			throw new IOException("Could not rotate inventory journal " + journalFile);
+		}
+		return true;
+	}
+
+	// Called once the snapshot covering the rotated records is on disk
+	public synchronized void discardRotated() {
+		if (rotatedFile.exists() && !rotatedFile.delete()) {
+			System.err.println("Could not delete rotated inventory journal " + rotatedFile);
+		}
+	}
+
+	// Called after a full snapshot that covers every record written so far
+	public synchronized void truncate() throws IOException {
+		close();
+		discardRotated();
+		if (journalFile.exists() && !journalFile.delete()) {
+			throw new IOException("Could not truncate inventory journal " + journalFile);
+		}
+	}
+
+	private boolean isOpenFile() throws IOException {
+		Object key = fileKey();
+		return key != null && key.equals(openFileKey);
+	}
+
+	private Object fileKey() throws IOException {
+		try {
+			return Files.readAttributes(journalFile.toPath(), BasicFileAttributes.class).fileKey();
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+
+	public synchronized long size() {
+		return journalFile.length();
+	}
+
+	public synchronized void close() throws IOException {
+		if (out != null) {
+			out.flush();
+			if (AtomicFileStore.getInstance().getDurability() != Durability.BUFFERED) {
+				fileOut.getChannel().force(false); // records may still wait for a group commit
+			}
+			out.close();
+			out = null;
+			fileOut = null;
+			openFileKey = null;
+		}
+	}
+}
@@ -0,0 +1,965 @@
+package util;
+
+import model.Item;
+import model.Sku;
+
+import java.io.*;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide inventory repository.
+ * items.dat is deserialized once and every later read is served from memory.
+ * Single-item changes (sell, restock, add, delete) are appended to an
+ * InventoryJournal and folded into a new items.dat snapshot in the background;
+ * full saves still write the whole snapshot. Stock levels of sells and restocks
+ * are written in place to the memory-mapped StockTable instead of the journal.
+ * Items are keyed by their SKU in the primary map; name, category and sector
+ * lookups go through case-insensitive hash indexes. Every change keeps them
+ * all in step, so lookups cost the size of their result.
+ * A LowStockIndex follows every stock change for the low-stock queries and alerts.
+ * FileHandler and FileHandlerMANAGER always see the same inventory.
+ * Other terminals share the files. Changes that rewrite them or append
+ * catalog records (save, add, delete, recategorize, compaction) hold every
+ * StripeLocks stripe, so no terminal commits stock meanwhile, and first read
+ * the files again if another terminal wrote them since this one did.
+ */
+public class InventoryRepository {
+	private static final String INVENTORY_FILE = "src/BinaryFiles/items.dat";
+	private static final String JOURNAL_FILE = "src/BinaryFiles/items.journal";
+	private static final String STOCK_FILE = "src/BinaryFiles/stock.bin";
+	private static final String LOCK_FILE = "inventory.lock"; // next to the inventory file
+	private static final int COMPACT_THRESHOLD = 500; // journal records before a new snapshot
+	private static final int CLOSE_TIMEOUT_SECONDS = 30;
+	private static final int MAX_CATALOG_CHANGES = 1024; // kept for ItemSearchIndex, see changesSince
+
+	private static InventoryRepository instance;
+
+	private final String inventoryFile;
+	private final String journalFile;
+	private final InventoryJournal journal;
+	private final StockTable stockTable;
+	private final StripeLocks locks;
+	// Shared by OPTIMISTIC stock commits, exclusive for full rewrites, which take no stripe of theirs
+	private final ReentrantReadWriteLock stockCommits = new ReentrantReadWriteLock();
+	private String seenFiles; // stamp of the snapshot and journal as this process last knew them
+	private boolean stockTableReady;
+	private boolean stockTableFailed; // set once the table could not be opened or written
+	private final ExecutorService compactor;
+	private final Object snapshotLock = new Object();
+	private ArrayList<Item> items; // null until the first read, in stock table order
+	private final HashMap<Sku, Item> itemsBySku = new HashMap<>(); // primary key of every stored item
+	private final HashMap<String, Item> itemsByName = new HashMap<>(); // lower-cased name -> first item with it
+	private final LinkedHashMap<String, ArrayList<Item>> itemsByCategory = new LinkedHashMap<>(); // lower-cased keys
+	private final LinkedHashMap<String, LinkedHashMap<String, ArrayList<Item>>> itemsBySector = new LinkedHashMap<>(); // sector -> category -> items
+	private final HashMap<String, String> categoryNames = new HashMap<>(); // lower-cased category -> first spelling seen
+	private volatile long catalogVersion; // moves whenever items are added, removed or reloaded
+	private final ArrayList<CatalogChange> catalogChanges = new ArrayList<>(); // the changes after version changesStart
+	private long changesStart;
+	private final LowStockIndex lowStock = new LowStockIndex();
+
+	// An item added to or removed from the catalog, see changesSince
+	public static final class CatalogChange {
+		private final Item item;
+		private final boolean added;
+
+		private CatalogChange(Item item, boolean added) {
+			this.item = item;
+			this.added = added;
+		}
+
+		public Item getItem() {
+			return item;
+		}
+
+		public boolean isAdded() {
+			return added;
+		}
+	}
+
+	// Journal state
+	private long lastSequence;
+	private long lastSnapshotSequence = -1;
+	private int recordsSinceSnapshot;
+	private boolean compactionScheduled;
+
+	// Counters
+	private long hitCount;
+	private long missCount;
+	private long loadCount;
+	private long lastLoadTimeNanos;
+	private long totalLoadTimeNanos;
+
+	// Repository over other files than the live data directory, for tools and tests
+	public InventoryRepository(String inventoryFile, String journalFile, String stockFile) {
+		this.inventoryFile = inventoryFile;
+		this.journalFile = journalFile;
+		this.journal = new InventoryJournal(journalFile);
+		this.stockTable = new StockTable(stockFile);
+		this.locks = StripeLocks.forFile(new File(new File(inventoryFile).getAbsoluteFile().getParentFile(), LOCK_FILE).getPath());
+		this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "inventory-compactor");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public static synchronized InventoryRepository getInstance() {
+		if (instance == null) {
+			instance = new InventoryRepository(INVENTORY_FILE, JOURNAL_FILE, STOCK_FILE);
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns a new list holding the cached items. The list itself can be
+	 * modified freely by the caller; the items are the shared instances.
+	 */
+	public synchronized ArrayList<Item> findAll() {
+		ensureLoaded();
+		return new ArrayList<>(items);
+	}
+
+	// Items of a sector, grouped by category
+	public synchronized ArrayList<Item> findBySector(String sector) {
+		ensureLoaded();
+		ArrayList<Item> sectorItems = new ArrayList<>();
+		LinkedHashMap<String, ArrayList<Item>> categories = sector != null ? itemsBySector.get(key(sector)) : null;
+		if (categories != null) {
+			for (ArrayList<Item> categoryItems : categories.values()) {
+				sectorItems.addAll(categoryItems);
+			}
+		}
+		return sectorItems;
+	}
+
+	public synchronized ArrayList<Item> findByCategory(String category) {
+		ensureLoaded();
+		ArrayList<Item> categoryItems = category != null ? itemsByCategory.get(key(category)) : null;
+		return categoryItems != null ? new ArrayList<>(categoryItems) : new ArrayList<>();
+	}
+
+	// Distinct categories of the whole inventory, in the order they first appear
+	public synchronized ArrayList<String> findCategories() {
+		ensureLoaded();
+		ArrayList<String> categories = new ArrayList<>(itemsByCategory.size());
+		for (String category : itemsByCategory.keySet()) {
+			categories.add(categoryNames.get(category));
+		}
+		return categories;
+	}
+
+	public synchronized ArrayList<String> findCategories(String sector) {
+		ensureLoaded();
+		ArrayList<String> categories = new ArrayList<>();
+		LinkedHashMap<String, ArrayList<Item>> sectorCategories = sector != null ? itemsBySector.get(key(sector)) : null;
+		if (sectorCategories != null) {
+			for (String category : sectorCategories.keySet()) {
+				categories.add(categoryNames.get(category));
+			}
+		}
+		return categories;
+	}
+
+	public synchronized Item findByName(String itemName) {
+		ensureLoaded();
+		return findStored(itemName);
+	}
+
+	public synchronized Item findBySku(Sku sku) {
+		ensureLoaded();
+		return sku != null ? itemsBySku.get(sku) : null;
+	}
+
+	/**
+	 * The stored item the given one stands for: the one with its SKU, or else
+	 * the one with its name, for items that never had a stored SKU such as
+	 * lines parsed back from receipts.
+	 */
+	public synchronized Item findMatching(Item item) {
+		ensureLoaded();
+		Item stored = itemsBySku.get(item.getSku());
+		return stored != null ? stored : findStored(item.getItemName());
+	}
+
+	/**
+	 * Items of the given categories with at most threshold units in stock,
+	 * lowest stock first.
+	 */
+	public synchronized ArrayList<Item> findLowStock(Collection<String> categories, int threshold) {
+		ensureLoaded();
+		return lowStock.findAtOrBelow(categories, threshold);
+	}
+
+	public synchronized int countLowStock(Collection<String> categories, int threshold) {
+		ensureLoaded();
+		return lowStock.countAtOrBelow(categories, threshold);
+	}
+
+	// Called, under the repository lock, whenever a stock crosses LowStockIndex.ALERT_THRESHOLD
+	public void addLowStockListener(LowStockIndex.Listener listener) {
+		lowStock.addListener(listener);
+	}
+
+	public void removeLowStockListener(LowStockIndex.Listener listener) {
+		lowStock.removeListener(listener);
+	}
+
+	// Sell from the stored item; the stock table is updated in place, the journal is the fallback
+	public void sell(Item item, int quantity) {
+		awaitDurable(stageSale(item, quantity));
+	}
+
+	// Takes back units sold by a checkout that was undone, without waiting for the group commit
+	synchronized CompletableFuture<Void> stageReturn(Item item, int quantity) {
+		ensureLoaded();
+		item.adjustStock(quantity, -quantity);
+		return stageStockChange(item, quantity, -quantity);
+	}
+
+	// Sells without waiting for the group commit, see stageStockChange
+	synchronized CompletableFuture<Void> stageSale(Item item, int quantity) {
+		ensureLoaded();
+		item.sellItem(quantity);
+		return stageStockChange(item, -quantity, quantity);
+	}
+
+	// Reloads the stock of a stored item from the stock table, which other processes may have written
+	public synchronized void refreshStock(Item item) {
+		if (stockTableReady && stockTable.read(item)) {
+			lowStock.update(item);
+		}
+	}
+
+	// Restock the stored item with the given name, returns null if there is none
+	public Item restock(String itemName, int quantity) {
+		Item item;
+		CompletableFuture<Void> sync;
+		synchronized (this) {
+			ensureLoaded();
+			item = findStored(itemName);
+			if (item == null) {
+				return null;
+			}
+			item.restockItem(quantity);
+			sync = stageStockChange(item, quantity, 0);
+		}
+		awaitDurable(sync);
+		return item;
+	}
+
+	// Moves a stored item to another sector and category, returns null if there is no such item
+	public Item recategorize(String itemName, String sector, String category) {
+		return exclusively(() -> {
+			Item item = findStored(itemName);
+			if (item == null) {
+				return null;
+			}
+			ungroup(item);
+			item.setItemSector(sector);
+			item.setCategory(category);
+			group(item);
+			lowStock.update(item);
+			try {
+				awaitDurable(journal.appendUpsert(++lastSequence, item));
+				recordAppended();
+			} catch (IOException e) {
+				journalFailed(e);
+			}
+			return item;
+		});
+	}
+
+	/**
+	 * Persists a stock change already applied to a stored item. The table gets
+	 * the item's current values, so after concurrent changes the last write
+	 * holds all of them; the journal gets the delta itself. Callers hold the
+	 * item's stripe, or in OPTIMISTIC mode the stock commit lock from the
+	 * compare-and-set on, see InventoryService. Returns once the change is as
+	 * durable as the AtomicFileStore mode makes it.
+	 */
+	public void recordStockChange(Item item, int stockDelta, int soldDelta) {
+		awaitDurable(stageStockChange(item, stockDelta, soldDelta));
+	}
+
+	/**
+	 * Writes the change like recordStockChange, but returns the sync to pass
+	 * to awaitDurable instead of waiting, so callers can release their locks
+	 * first and a bill waits once for all of its lines.
+	 */
+	synchronized CompletableFuture<Void> stageStockChange(Item item, int stockDelta, int soldDelta) {
+		lowStock.update(item);
+		CompletableFuture<Void> sync = writeStock(item);
+		if (sync != null) {
+			return sync;
+		}
+		// Another terminal's snapshot may have moved the sequence past this process's
+		boolean current = filesStamp().equals(seenFiles);
+		if (!current) {
+			lastSequence = Math.max(lastSequence, snapshotSequence());
+		}
+		try {
+			sync = journal.appendStockDelta(++lastSequence, item, stockDelta, soldDelta);
+			recordAppended();
+		} catch (IOException e) {
+			journalFailed(e);
+		}
+		if (current) {
+			seenFiles = filesStamp();
+		}
+		return sync;
+	}
+
+	/**
+	 * Waits for the group commit of a journal or stock table write. Stock
+	 * changes wait after releasing the repository lock, so changes of other
+	 * threads join the same commit. A failed sync is handled like a failed
+	 * journal write: a snapshot is scheduled.
+	 */
+	void awaitDurable(CompletableFuture<Void> sync) {
+		if (sync == null) {
+			return;
+		}
+		try {
+			AtomicFileStore.getInstance().awaitSync(sync);
+		} catch (IOException e) {
+			synchronized (this) {
+				journalFailed(e);
+			}
+		}
+	}
+
+	public void add(Item item) {
+		exclusively(() -> {
+			items.add(item);
+			indexItem(item);
+			lowStock.update(item);
+			CompletableFuture<Void> logged = null;
+			try {
+				logged = journal.appendUpsert(++lastSequence, item);
+				recordAppended();
+			} catch (IOException e) {
+				journalFailed(e);
+			}
+			CompletableFuture<Void> stored = writeStock(item);
+			awaitDurable(logged); // both syncs join the same group commit
+			awaitDurable(stored);
+			return null;
+		});
+	}
+
+	public boolean delete(String itemName) {
+		return exclusively(() -> delete(findStored(itemName)));
+	}
+
+	public boolean delete(Sku sku) {
+		return exclusively(() -> delete(sku != null ? itemsBySku.get(sku) : null));
+	}
+
+	private boolean delete(Item item) {
+		if (item == null) {
+			return false;
+		}
+		items.remove(item);
+		unindexItem(item);
+		lowStock.remove(item);
+		try {
+			awaitDurable(journal.appendDelete(++lastSequence, item));
+			recordAppended();
+		} catch (IOException e) {
+			journalFailed(e);
+		}
+		rebuildStockTable(); // drops the deleted item's record
+		return true;
+	}
+
+	/**
+	 * Replace the cached inventory and write it through to the binary file.
+	 * Items the cache shares with the list get the stock other terminals
+	 * committed before it is written.
+	 */
+	public void saveAll(List<Item> inventory) {
+		exclusively(() -> {
+			items = new ArrayList<>(inventory);
+			rebuildIndexes();
+			restoreStock();
+			lowStock.rebuild(items);
+			writeFullSnapshot();
+			rebuildStockTable();
+			return null;
+		});
+	}
+
+	// Persist the current cached state after items were changed in place
+	public void flush() {
+		exclusively(() -> {
+			writeFullSnapshot();
+			return null;
+		});
+	}
+
+	/**
+	 * Waits for a scheduled compaction, then releases the journal stream and
+	 * the stock table mapping. The repository is not used after this.
+	 */
+	public void close() {
+		compactor.shutdown();
+		try {
+			if (!compactor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				System.err.println("Inventory compaction did not finish within " + CLOSE_TIMEOUT_SECONDS + " s of closing.");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		synchronized (this) {
+			stockTableReady = false;
+			try {
+				journal.close();
+				stockTable.close();
+			} catch (IOException e) {
+				System.err.println("Error closing inventory files: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Runs a change that rewrites the shared files, or appends catalog records
+	 * to the journal, with every stripe held, after bringing the cache up to
+	 * what other terminals wrote. The stripes are taken before the repository
+	 * lock, in the order InventoryService takes them.
+	 */
+	private <T> T exclusively(Supplier<T> change) {
+		List<FileLock> held = lockAll();
+		try {
+			synchronized (this) {
+				ensureLoaded();
+				catchUp();
+				T result = change.get();
+				seenFiles = filesStamp();
+				return result;
+			}
+		} finally {
+			unlock(held);
+		}
+	}
+
+	/**
+	 * Every stripe, then the stock commit lock for writing, so no optimistic
+	 * commit is between its compare-and-set and its table write either.
+	 * Null if the lock file cannot be used; the change still goes ahead rather
+	 * than being lost.
+	 */
+	private List<FileLock> lockAll() {
+		List<FileLock> held = null;
+		try {
+			held = locks.lockAll();
+		} catch (IOException e) {
+			System.err.println("Error locking the inventory, other terminals are not excluded: " + e.getMessage());
+		}
+		stockCommits.writeLock().lock();
+		return held;
+	}
+
+	private void unlock(List<FileLock> held) {
+		stockCommits.writeLock().unlock();
+		if (held != null) {
+			locks.unlock(held);
+		}
+	}
+
+	// Held by an OPTIMISTIC commit from its compare-and-set until the change is recorded
+	Lock getStockCommitLock() {
+		return stockCommits.readLock();
+	}
+
+	// Stripes shared with InventoryService, whose stock changes the full rewrites exclude
+	StripeLocks getLocks() {
+		return locks;
+	}
+
+	/**
+	 * Reads the files again if another terminal wrote them since this process
+	 * last did, keeping the instances of the items still there so references
+	 * held elsewhere stay live; otherwise only the stock is read from the table.
+	 */
+	private void catchUp() {
+		if (filesStamp().equals(seenFiles)) {
+			restoreStock();
+			lowStock.rebuild(items);
+			return;
+		}
+		HashMap<Sku, Item> cached = new HashMap<>(itemsBySku);
+		long sequence = lastSequence;
+		load();
+		for (int i = 0; i < items.size(); i++) {
+			Item read = items.get(i);
+			Item kept = cached.get(read.getSku());
+			if (kept != null && kept != read) {
+				kept.restoreStock(read.getStockQuantity(), read.getItemsSold());
+				kept.setItemSector(read.getItemSector());
+				kept.setCategory(read.getCategory());
+				kept.setDescription(read.getDescription());
+				kept.setImagePath(read.getImagePath());
+				items.set(i, kept);
+			}
+		}
+		rebuildIndexes();
+		lowStock.rebuild(items);
+		lastSequence = Math.max(lastSequence, sequence);
+	}
+
+	// Stock committed by other terminals, straight from the shared table
+	private void restoreStock() {
+		if (!stockTableReady) {
+			return;
+		}
+		try {
+			stockTable.restore(items);
+		} catch (IOException e) {
+			disableStockTable(e);
+		}
+	}
+
+	// Changes whenever any process replaces the snapshot or writes the journal
+	private String filesStamp() {
+		return stamp(new File(inventoryFile)) + '|' + stamp(new File(journalFile)) + '|' + stamp(new File(journalFile + ".1"));
+	}
+
+	private static String stamp(File file) {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+			return attributes.fileKey() + ":" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+		} catch (IOException e) {
+			return "-";
+		}
+	}
+
+	// Journal sequence in the header of the snapshot on disk
+	private long snapshotSequence() {
+		try (DataInputStream in = new DataInputStream(new FileInputStream(inventoryFile))) {
+			byte[] header = new byte[BinaryCodec.HEADER_SIZE];
+			in.readFully(header);
+			return BinaryCodec.isCodecFormat(header) ? BinaryCodec.readHeaderSequence(header) : 0;
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	// Drop the cache so the next read goes back to disk
+	public synchronized void invalidate() {
+		items = null;
+		catalogVersion++;
+		clearCatalogChanges();
+		seenFiles = null;
+		itemsBySku.clear();
+		itemsByName.clear();
+		itemsByCategory.clear();
+		itemsBySector.clear();
+		categoryNames.clear();
+		lowStock.clear();
+	}
+
+	private Item findStored(String itemName) {
+		return itemName != null ? itemsByName.get(key(itemName)) : null;
+	}
+
+	private static String key(String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+
+	// The first item keeps a name, the same one the old linear scan returned
+	private void indexItem(Item item) {
+		catalogVersion++;
+		logCatalogChange(item, true);
+		itemsBySku.putIfAbsent(item.getSku(), item);
+		itemsByName.putIfAbsent(key(item.getItemName()), item);
+		group(item);
+	}
+
+	private void unindexItem(Item item) {
+		catalogVersion++;
+		logCatalogChange(item, false);
+		itemsBySku.remove(item.getSku(), item);
+		ungroup(item);
+		String name = key(item.getItemName());
+		if (itemsByName.get(name) != item) {
+			return;
+		}
+		itemsByName.remove(name);
+		for (Item other : items) {
+			if (key(other.getItemName()).equals(name)) {
+				itemsByName.put(name, other); // a duplicate name takes over
+				break;
+			}
+		}
+	}
+
+	// Adds the item to its category and sector lists; items without a category are not grouped
+	private void group(Item item) {
+		if (item.getCategory() == null) {
+			return;
+		}
+		String category = key(item.getCategory());
+		categoryNames.putIfAbsent(category, item.getCategory());
+		itemsByCategory.computeIfAbsent(category, k -> new ArrayList<>()).add(item);
+		if (item.getItemSector() != null) {
+			itemsBySector.computeIfAbsent(key(item.getItemSector()), k -> new LinkedHashMap<>())
+					.computeIfAbsent(category, k -> new ArrayList<>()).add(item);
+		}
+	}
+
+	// Empty lists are dropped so categories without items disappear from the dropdowns
+	private void ungroup(Item item) {
+		if (item.getCategory() == null) {
+			return;
+		}
+		String category = key(item.getCategory());
+		if (removeFrom(itemsByCategory, category, item)) {
+			categoryNames.remove(category);
+		}
+		if (item.getItemSector() != null) {
+			String sector = key(item.getItemSector());
+			LinkedHashMap<String, ArrayList<Item>> sectorCategories = itemsBySector.get(sector);
+			if (sectorCategories != null && removeFrom(sectorCategories, category, item) && sectorCategories.isEmpty()) {
+				itemsBySector.remove(sector);
+			}
+		}
+	}
+
+	// Removes the item by identity, returns true if its list became empty and was dropped
+	private static boolean removeFrom(Map<String, ArrayList<Item>> groups, String key, Item item) {
+		ArrayList<Item> group = groups.get(key);
+		if (group == null) {
+			return false;
+		}
+		for (int i = 0; i < group.size(); i++) {
+			if (group.get(i) == item) {
+				group.remove(i);
+				break;
+			}
+		}
+		if (group.isEmpty()) {
+			groups.remove(key);
+			return true;
+		}
+		return false;
+	}
+
+	private void rebuildIndexes() {
+		catalogVersion++;
+		itemsBySku.clear();
+		itemsByName.clear();
+		itemsByCategory.clear();
+		itemsBySector.clear();
+		categoryNames.clear();
+		for (Item item : items) {
+			indexItem(item);
+		}
+		clearCatalogChanges(); // followers start over from findAll
+	}
+
+	// Only the latest changes are kept, a follower further behind starts over
+	private void logCatalogChange(Item item, boolean added) {
+		if (catalogChanges.size() >= MAX_CATALOG_CHANGES) {
+			clearCatalogChanges();
+			return;
+		}
+		catalogChanges.add(new CatalogChange(item, added));
+	}
+
+	private void clearCatalogChanges() {
+		catalogChanges.clear();
+		changesStart = catalogVersion;
+	}
+
+	private void ensureLoaded() {
+		if (items != null) {
+			hitCount++;
+			return;
+		}
+		missCount++;
+		long start = System.nanoTime();
+		int replayed = load();
+		lowStock.rebuild(items); // after the journal and table brought the stock up to date
+		lastLoadTimeNanos = System.nanoTime() - start;
+		totalLoadTimeNanos += lastLoadTimeNanos;
+		loadCount++;
+		if (replayed > 0) {
+			System.out.println("Replayed " + replayed + " inventory journal records.");
+			scheduleCompaction();
+		}
+	}
+
+	// Snapshot, then journal, then stock table; returns how many journal records were replayed
+	private int load() {
+		seenFiles = filesStamp(); // before reading, so a write meanwhile shows as a change
+		items = readFromFile();
+		rebuildIndexes();
+		int replayed = replayJournal();
+		loadStockTable();
+		return replayed;
+	}
+
+	private ArrayList<Item> readFromFile() {
+		ArrayList<Item> inventory = new ArrayList<>();
+		lastSequence = 0;
+		try {
+			byte[] data = BinaryDataFiles.readFile(inventoryFile);
+			inventory = BinaryDataFiles.loadItems(inventoryFile, data);
+			lastSequence = BinaryDataFiles.readItemsSequence(data); // journal position covered by this snapshot
+			System.out.println("Inventory loaded successfully from binary file: " + inventoryFile);
+		} catch (FileNotFoundException e) {
+			System.err.println("Inventory binary file not found: " + inventoryFile);
+		} catch (IOException | ClassNotFoundException e) {
+			System.err.println("Error loading inventory from binary file: " + e.getMessage());
+		}
+		lastSnapshotSequence = lastSequence;
+		return inventory;
+	}
+
+	// Apply journal records newer than the snapshot, returns how many were applied
+	private int replayJournal() {
+		int replayed = 0;
+		for (InventoryJournal.Entry entry : journal.readAll()) {
+			if (entry.getSequence() <= lastSnapshotSequence) {
+				continue;
+			}
+			// Records written before SKUs name their item instead
+			Item item = entry.getSku() != null ? itemsBySku.get(entry.getSku()) : findStored(entry.getItemName());
+			switch (entry.getType()) {
+				case InventoryJournal.STOCK_DELTA:
+					if (item != null) {
+						// rolled back optimistic sales carry a negative sold delta
+						item.adjustStock(entry.getStockDelta(), entry.getSoldDelta());
+					}
+					break;
+				case InventoryJournal.UPSERT:
+					if (item != null) {
+						items.set(items.indexOf(item), entry.getItem());
+						unindexItem(item);
+					} else {
+						items.add(entry.getItem());
+					}
+					indexItem(entry.getItem());
+					break;
+				case InventoryJournal.DELETE:
+					if (item != null) {
+						items.remove(item);
+						unindexItem(item);
+					}
+					break;
+				default:
+					break;
+			}
+			lastSequence = Math.max(lastSequence, entry.getSequence());
+			replayed++;
+		}
+		recordsSinceSnapshot = replayed;
+		return replayed;
+	}
+
+	// Stock levels in the table are newer than the snapshot and journal
+	private void loadStockTable() {
+		try {
+			if (!stockTable.restore(items)) {
+				stockTable.rebuild(items);
+			}
+			stockTableReady = true;
+		} catch (IOException e) {
+			System.err.println("Error opening stock table, using the journal for stock changes: " + e.getMessage());
+			stockTableReady = false;
+			stockTableFailed = true;
+		}
+	}
+
+	// Also opens the table when the inventory was saved before it was ever loaded
+	private void rebuildStockTable() {
+		if (stockTableFailed) {
+			return;
+		}
+		try {
+			stockTable.rebuild(items);
+			stockTableReady = true;
+		} catch (IOException e) {
+			disableStockTable(e);
+		}
+	}
+
+	// Returns the table's sync, or null if the change has to go to the journal instead
+	private CompletableFuture<Void> writeStock(Item item) {
+		if (!stockTableReady) {
+			return null;
+		}
+		try {
+			return stockTable.update(item);
+		} catch (IOException e) {
+			disableStockTable(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Stops using the table for this run. The table is marked invalid, so stale
+	 * table values never override the journal, and a snapshot is scheduled,
+	 * since the caller may hold a stripe and cannot wait for all of them.
+	 */
+	private void disableStockTable(IOException e) {
+		System.err.println("Error writing stock table, using the journal for stock changes: " + e.getMessage());
+		stockTableReady = false;
+		stockTableFailed = true;
+		stockTable.invalidate();
+		scheduleCompaction();
+	}
+
+	private void recordAppended() {
+		recordsSinceSnapshot++;
+		if (recordsSinceSnapshot >= COMPACT_THRESHOLD) {
+			scheduleCompaction();
+		}
+	}
+
+	// If the journal cannot be written, fall back to a snapshot so nothing is lost
+	private void journalFailed(IOException e) {
+		System.err.println("Error writing inventory journal, saving a snapshot instead: " + e.getMessage());
+		scheduleCompaction();
+	}
+
+	private void scheduleCompaction() {
+		if (!compactionScheduled && !compactor.isShutdown()) {
+			compactionScheduled = true;
+			compactor.submit(this::compact);
+		}
+	}
+
+	/**
+	 * Folds the journal into a new snapshot with every stripe held, after
+	 * catching up with the other terminals. The inventory is serialized and the
+	 * journal rotated under the repository lock; the file write happens outside
+	 * it so reads go on meanwhile.
+	 */
+	private void compact() {
+		List<FileLock> held = lockAll();
+		try {
+			byte[] snapshot;
+			long sequence;
+			synchronized (this) {
+				compactionScheduled = false;
+				if (items == null) {
+					return; // invalidated, the next load reads the journal anyway
+				}
+				catchUp();
+				try {
+					snapshot = serializeSnapshot();
+					sequence = lastSequence;
+					journal.rotate();
+				} catch (IOException e) {
+					System.err.println("Error compacting inventory journal: " + e.getMessage());
+					return;
+				}
+				recordsSinceSnapshot = 0;
+			}
+			if (writeSnapshot(snapshot, sequence)) {
+				journal.discardRotated();
+			}
+			synchronized (this) {
+				seenFiles = filesStamp(); // no other terminal wrote meanwhile, the stripes kept them out
+			}
+		} finally {
+			unlock(held);
+		}
+	}
+
+	private void writeFullSnapshot() {
+		try {
+			lastSequence++; // new version, so a pending background snapshot cannot overwrite it
+			if (writeSnapshot(serializeSnapshot(), lastSequence)) {
+				journal.truncate();
+				recordsSinceSnapshot = 0;
+			}
+		} catch (IOException e) {
+			System.err.println("Error saving inventory to binary file: " + e.getMessage());
+		}
+	}
+
+	private byte[] serializeSnapshot() throws IOException {
+		return BinaryCodec.encodeItems(items, lastSequence);
+	}
+
+	// Never lets an older background snapshot overwrite a newer one
+	private boolean writeSnapshot(byte[] snapshot, long sequence) {
+		synchronized (snapshotLock) {
+			if (sequence < lastSnapshotSequence) {
+				return false;
+			}
+			try {
+				AtomicFileStore.getInstance().save(inventoryFile, snapshot);
+				lastSnapshotSequence = sequence;
+				System.out.println("Inventory saved successfully to binary file: " + inventoryFile);
+				return true;
+			} catch (IOException e) {
+				System.err.println("Error saving inventory to binary file: " + e.getMessage());
+				return false;
+			}
+		}
+	}
+
+	// Lets derived indexes, such as ItemSearchIndex, see that the set of items changed
+	public long getCatalogVersion() {
+		return catalogVersion;
+	}
+
+	/**
+	 * Items added and removed after the given catalog version, oldest first,
+	 * or null if those changes are no longer kept and the caller has to start
+	 * over from findAll.
+	 */
+	public synchronized List<CatalogChange> changesSince(long version) {
+		if (version < changesStart || version > catalogVersion) {
+			return null;
+		}
+		return new ArrayList<>(catalogChanges.subList((int) (version - changesStart), catalogChanges.size()));
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	public synchronized long getLoadCount() {
+		return loadCount;
+	}
+
+	public synchronized long getLastLoadTimeMillis() {
+		return lastLoadTimeNanos / 1_000_000;
+	}
+
+	public synchronized long getTotalLoadTimeMillis() {
+		return totalLoadTimeNanos / 1_000_000;
+	}
+
+	public synchronized String getStatistics() {
+		return "Inventory cache -> Hits: " + hitCount +
+				", Misses: " + missCount +
+				", Loads: " + loadCount +
+				", Last load: " + getLastLoadTimeMillis() + " ms" +
+				", Total load time: " + getTotalLoadTimeMillis() + " ms";
+	}
+}
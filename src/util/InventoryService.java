@@ -0,0 +1,274 @@
+package util;
+
+import model.Item;
+
+import java.io.IOException;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Stock changes of checkouts and restocks, safe across cashier terminals.
+ * The Concurrency mode, -Dinventory.concurrency=striped|optimistic, picks
+ * locking or compare-and-set on the item versions.
+ * Items hash onto the repository's StripeLocks, so baskets with no item in
+ * common commit in parallel and overlapping baskets only wait on the stripes
+ * they share. The stripes include a region of inventory.lock in the data
+ * directory, so terminals running as separate processes exclude each other on
+ * the same stripes, and the repository's full rewrites exclude them all.
+ */
+public class InventoryService {
+	private static InventoryService instance;
+
+	private final InventoryRepository repository;
+	private final Concurrency concurrency;
+	private final StripeLocks locks;
+
+	// OPTIMISTIC commit counters
+	private final AtomicLong commits = new AtomicLong();
+	private final AtomicLong conflicts = new AtomicLong();
+	private final AtomicLong rollbacks = new AtomicLong();
+
+	// Mode can be chosen with -Dinventory.concurrency=striped|optimistic, in any case
+	public static synchronized InventoryService getInstance() {
+		if (instance == null) {
+			Concurrency mode = Concurrency.STRIPED;
+			String configured = System.getProperty("inventory.concurrency");
+			if (configured != null) {
+				try {
+					mode = Concurrency.valueOf(configured.trim().toUpperCase(Locale.ROOT));
+				} catch (IllegalArgumentException e) {
+					System.err.println("Unknown concurrency mode " + configured + ", using " + mode);
+				}
+			}
+			instance = new InventoryService(InventoryRepository.getInstance(), mode);
+		}
+		return instance;
+	}
+
+	public InventoryService(InventoryRepository repository, Concurrency concurrency) {
+		this.repository = repository;
+		this.concurrency = concurrency;
+		this.locks = repository.getLocks();
+	}
+
+	/**
+	 * Deducts the stock of every line of a bill, or none of it. Lines are
+	 * matched to stored items by SKU, or by name when they carry none of the
+	 * stored SKUs, and lines of the same item are added up. Stock is checked
+	 * again under the stripe locks, so two terminals cannot both sell the last
+	 * units of an item. The bill waits once for the group commit of all its
+	 * lines, after releasing its locks; a later sale of the same items is
+	 * forced by the same or a later commit, so it never becomes durable first.
+	 */
+	public void checkout(List<Item> soldItems) throws IllegalArgumentException, IOException {
+		IdentityHashMap<Item, Integer> requested = match(soldItems);
+		if (concurrency == Concurrency.OPTIMISTIC) {
+			checkoutOptimistic(requested);
+			return;
+		}
+
+		ArrayList<CompletableFuture<Void>> syncs = new ArrayList<>(requested.size());
+		List<FileLock> fileLocks = locks.lock(stripesOf(requested.keySet()));
+		try {
+			// Items are shared with the repository, so check the whole bill before touching any stock
+			for (Map.Entry<Item, Integer> entry : requested.entrySet()) {
+				repository.refreshStock(entry.getKey());
+				if (!entry.getKey().hasSufficientStock(entry.getValue())) {
+					throw new IllegalArgumentException("Insufficient stock for item: " + entry.getKey().getItemName());
+				}
+			}
+			for (Map.Entry<Item, Integer> entry : requested.entrySet()) {
+				syncs.add(repository.stageSale(entry.getKey(), entry.getValue()));
+			}
+		} finally {
+			locks.unlock(fileLocks);
+		}
+		syncs.forEach(repository::awaitDurable);
+	}
+
+	/**
+	 * Puts back the stock a checkout of the same lines took, for a bill that
+	 * could not be saved after all. The sold counts go down by as much.
+	 */
+	public void undoCheckout(List<Item> soldItems) throws IllegalArgumentException, IOException {
+		IdentityHashMap<Item, Integer> returned = match(soldItems);
+		if (concurrency == Concurrency.OPTIMISTIC) {
+			for (Map.Entry<Item, Integer> entry : returned.entrySet()) {
+				commit(entry.getKey(), entry.getValue(), -entry.getValue());
+			}
+			return;
+		}
+		ArrayList<CompletableFuture<Void>> syncs = new ArrayList<>(returned.size());
+		List<FileLock> fileLocks = locks.lock(stripesOf(returned.keySet()));
+		try {
+			for (Map.Entry<Item, Integer> entry : returned.entrySet()) {
+				repository.refreshStock(entry.getKey());
+				syncs.add(repository.stageReturn(entry.getKey(), entry.getValue()));
+			}
+		} finally {
+			locks.unlock(fileLocks);
+		}
+		syncs.forEach(repository::awaitDurable);
+	}
+
+	// Stored item of every line with the quantity of its lines added up
+	private IdentityHashMap<Item, Integer> match(List<Item> lines) {
+		IdentityHashMap<Item, Integer> requested = new IdentityHashMap<>();
+		for (Item line : lines) {
+			Item inventoryItem = repository.findMatching(line);
+			if (inventoryItem == null) {
+				throw new IllegalArgumentException("Item not found in inventory: " + line.getItemName());
+			}
+			requested.merge(inventoryItem, line.getStockQuantity(), Integer::sum);
+		}
+		return requested;
+	}
+
+	// Restock the stored item with the given name, returns null if there is none
+	public Item restock(String itemName, int quantity) throws IOException {
+		Item item = repository.findByName(itemName);
+		if (item == null) {
+			return null;
+		}
+		if (concurrency == Concurrency.OPTIMISTIC) {
+			commit(item, quantity, 0);
+			return item;
+		}
+		List<FileLock> fileLocks = locks.lock(stripesOf(List.of(item)));
+		try {
+			repository.refreshStock(item);
+			return repository.restock(itemName, quantity);
+		} finally {
+			locks.unlock(fileLocks);
+		}
+	}
+
+	/**
+	 * Commits each line with compare-and-set against the version it read,
+	 * retrying a line whose item changed in between. A line that runs out of
+	 * stock undoes the lines already committed, so the bill sells all or nothing.
+	 * The shared commit lock keeps the repository's full rewrites from restoring
+	 * a stale table value onto an item between its compare-and-set and its
+	 * table write; commits do not exclude each other.
+	 */
+	private void checkoutOptimistic(Map<Item, Integer> requested) {
+		ArrayList<CompletableFuture<Void>> syncs = new ArrayList<>(requested.size());
+		Lock commitLock = repository.getStockCommitLock();
+		commitLock.lock();
+		try {
+			commitOptimistic(requested, syncs);
+		} finally {
+			commitLock.unlock();
+			syncs.forEach(repository::awaitDurable); // rolled back lines too
+		}
+	}
+
+	private void commitOptimistic(Map<Item, Integer> requested, List<CompletableFuture<Void>> syncs) {
+		ArrayList<Map.Entry<Item, Integer>> committed = new ArrayList<>(requested.size());
+		for (Map.Entry<Item, Integer> entry : requested.entrySet()) {
+			Item item = entry.getKey();
+			int quantity = entry.getValue();
+			while (true) {
+				long version = item.getVersion();
+				int stock = item.getStockQuantity();
+				if (stock < quantity) {
+					for (Map.Entry<Item, Integer> done : committed) {
+						done.getKey().adjustStock(done.getValue(), -done.getValue());
+						syncs.add(repository.stageStockChange(done.getKey(), done.getValue(), -done.getValue()));
+					}
+					if (!committed.isEmpty()) {
+						rollbacks.incrementAndGet();
+					}
+					throw new IllegalArgumentException("Insufficient stock for item: " + item.getItemName());
+				}
+				if (item.compareAndSetStock(version, stock - quantity, item.getItemsSold() + quantity)) {
+					break;
+				}
+				conflicts.incrementAndGet();
+			}
+			syncs.add(repository.stageStockChange(item, -quantity, quantity));
+			committed.add(entry);
+		}
+		commits.incrementAndGet();
+	}
+
+	// One compare-and-set commit of a stock change that cannot fail, such as a restock
+	private void commit(Item item, int stockDelta, int soldDelta) {
+		CompletableFuture<Void> sync;
+		Lock commitLock = repository.getStockCommitLock();
+		commitLock.lock();
+		try {
+			while (true) {
+				long version = item.getVersion();
+				if (item.compareAndSetStock(version, item.getStockQuantity() + stockDelta, item.getItemsSold() + soldDelta)) {
+					break;
+				}
+				conflicts.incrementAndGet();
+			}
+			sync = repository.stageStockChange(item, stockDelta, soldDelta);
+		} finally {
+			commitLock.unlock();
+		}
+		repository.awaitDurable(sync);
+		commits.incrementAndGet();
+	}
+
+	public Concurrency getConcurrency() {
+		return concurrency;
+	}
+
+	// Checkouts and restocks committed on the optimistic path
+	public long getCommitCount() {
+		return commits.get();
+	}
+
+	// Compare-and-set attempts that lost to another writer and were retried
+	public long getConflictCount() {
+		return conflicts.get();
+	}
+
+	// Checkouts undone because a later line ran out of stock
+	public long getRollbackCount() {
+		return rollbacks.get();
+	}
+
+	public String getStatistics() {
+		long committed = commits.get();
+		long retried = conflicts.get();
+		return "Inventory commits (" + concurrency + ") -> Commits: " + committed +
+				", Conflicts: " + retried +
+				", Retries per commit: " + (committed == 0 ? "0.00" : String.format("%.2f", retried / (double) committed)) +
+				", Rollbacks: " + rollbacks.get();
+	}
+
+	public int getStripeCount() {
+		return locks.getStripeCount();
+	}
+
+	// Distinct stripes of the items, in ascending order
+	private int[] stripesOf(Iterable<Item> items) {
+		TreeSet<Integer> indexes = new TreeSet<>();
+		for (Item item : items) {
+			indexes.add(stripeOf(item));
+		}
+		int[] ordered = new int[indexes.size()];
+		int i = 0;
+		for (int index : indexes) {
+			ordered[i++] = index;
+		}
+		return ordered;
+	}
+
+	// Keyed like the item's stock record, so reloaded items keep their stripe
+	private int stripeOf(Item item) {
+		return locks.stripeOf(StockTable.key(item));
+	}
+}
@@ -0,0 +1,335 @@
+package util;
+
+import model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Search over the item names of the inventory.
+ * Names are lower-cased once. Substring queries of three or more characters
+ * intersect the posting lists of their trigrams, so only names sharing every
+ * trigram of the query are compared at all. Shorter queries scan the
+ * precomputed keys. Autocomplete walks a prefix trie holding every name and
+ * every word start within a name. The index is built in full once; after
+ * that the first query after the repository's catalog version moves applies
+ * the added and removed items to the postings and the trie. It is only built
+ * again when the repository no longer has those changes, e.g. after a reload,
+ * or when half of the positions belong to removed items.
+ */
+public class ItemSearchIndex {
+	private static ItemSearchIndex instance;
+
+	private final InventoryRepository repository;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); // queries read, catalog changes write
+	private volatile long catalogVersion = -1; // -1 until built
+
+	// Item positions only grow, removed items leave a null behind
+	private final ArrayList<Item> items = new ArrayList<>();
+	private final ArrayList<String> keys = new ArrayList<>(); // lower-cased names, same order as items
+	private final IdentityHashMap<Item, Integer> positions = new IdentityHashMap<>();
+	private final HashMap<Long, IntList> postings = new HashMap<>(); // trigram -> ascending item positions
+	private TrieNode trie = new TrieNode();
+	private int removedCount;
+
+	// Trie over characters; every node keeps the first items below it for suggestions
+	private static class TrieNode {
+		private static final int SUGGESTIONS_PER_NODE = 16;
+		private static final int MAX_DEPTH = 10; // longer prefixes are checked against the keys
+
+		private final TreeMap<Character, TrieNode> children = new TreeMap<>();
+		private final IntList items = new IntList();
+
+		void insert(String key, int start, int item) {
+			TrieNode node = this;
+			for (int c = start; c < key.length() && c - start < MAX_DEPTH; c++) {
+				node = node.children.computeIfAbsent(key.charAt(c), k -> new TrieNode());
+				if (node.items.size < SUGGESTIONS_PER_NODE
+						&& (node.items.size == 0 || node.items.values[node.items.size - 1] != item)) {
+					node.items.add(item);
+				}
+			}
+		}
+	}
+
+	// Growable int array, so posting lists do not box every position
+	private static class IntList {
+		private int[] values = new int[4];
+		private int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		// Values are ascending; returns false if the value was not there
+		boolean remove(int value) {
+			int at = Arrays.binarySearch(values, 0, size, value);
+			if (at < 0) {
+				return false;
+			}
+			System.arraycopy(values, at + 1, values, at, size - at - 1);
+			size--;
+			return true;
+		}
+	}
+
+	public static synchronized ItemSearchIndex getInstance() {
+		if (instance == null) {
+			instance = new ItemSearchIndex(InventoryRepository.getInstance());
+		}
+		return instance;
+	}
+
+	public ItemSearchIndex(InventoryRepository repository) {
+		this.repository = repository;
+	}
+
+	/**
+	 * Items whose name contains the query, ignoring case, in the order they
+	 * joined the catalog. An empty query returns every item.
+	 */
+	public ArrayList<Item> search(String query) {
+		update();
+		String needle = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+		ArrayList<Item> matches = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			if (needle.length() < 3) {
+				for (int i = 0; i < keys.size(); i++) {
+					String key = keys.get(i);
+					if (key != null && key.contains(needle)) {
+						matches.add(items.get(i));
+					}
+				}
+				return matches;
+			}
+
+			// Intersect the posting lists, shortest first, then confirm the remaining names
+			int gramCount = needle.length() - 2;
+			IntList[] lists = new IntList[gramCount];
+			for (int c = 0; c < gramCount; c++) {
+				lists[c] = postings.get(trigram(needle, c));
+				if (lists[c] == null) {
+					return matches;
+				}
+			}
+			Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+			int[] candidates = Arrays.copyOf(lists[0].values, lists[0].size); // narrowed in place
+			int count = candidates.length;
+			for (int l = 1; l < lists.length && count > 0; l++) {
+				count = intersect(candidates, count, lists[l]);
+			}
+			for (int i = 0; i < count; i++) {
+				if (keys.get(candidates[i]).contains(needle)) {
+					matches.add(items.get(candidates[i]));
+				}
+			}
+			return matches;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Up to limit item names that start with the prefix, or have a word that
+	 * does, for autocomplete. Shorter names come first.
+	 */
+	public ArrayList<String> suggest(String prefix, int limit) {
+		update();
+		ArrayList<String> suggestions = new ArrayList<>();
+		String key = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+		if (key.isEmpty()) {
+			return suggestions;
+		}
+		lock.readLock().lock();
+		try {
+			TrieNode node = find(key);
+			if (node == null) {
+				return suggestions;
+			}
+			LinkedHashSet<String> names = new LinkedHashSet<>();
+			for (int i = 0; i < node.items.size; i++) {
+				int item = node.items.values[i];
+				if (matchesWordStart(keys.get(item), key)) {
+					names.add(items.get(item).getItemName());
+				}
+			}
+			suggestions.addAll(names);
+		} finally {
+			lock.readLock().unlock();
+		}
+		suggestions.sort((a, b) -> Integer.compare(a.length(), b.length()));
+		return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+	}
+
+	// Builds the index now, so the first keystroke does not pay for it
+	public void warmUp() {
+		update();
+	}
+
+	// Brings the index up to the repository's catalog version
+	private void update() {
+		if (catalogVersion != -1 && catalogVersion == repository.getCatalogVersion()) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			long version = repository.getCatalogVersion();
+			if (catalogVersion != -1 && catalogVersion == version) {
+				return;
+			}
+			List<InventoryRepository.CatalogChange> changes = null;
+			ArrayList<Item> catalog = null;
+			synchronized (repository) { // no change can slip in between the changes and their version
+				if (catalogVersion != -1) {
+					changes = repository.changesSince(catalogVersion);
+				}
+				if (changes == null) {
+					catalog = repository.findAll();
+				}
+				version = repository.getCatalogVersion();
+			}
+			if (changes != null) {
+				for (InventoryRepository.CatalogChange change : changes) {
+					if (change.isAdded()) {
+						add(change.getItem());
+					} else {
+						remove(change.getItem());
+					}
+				}
+			}
+			if (catalog == null && removedCount > items.size() / 2) {
+				catalog = repository.findAll();
+				version = repository.getCatalogVersion();
+			}
+			if (catalog != null) {
+				build(catalog);
+			}
+			catalogVersion = version;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void build(List<Item> catalog) {
+		items.clear();
+		keys.clear();
+		positions.clear();
+		postings.clear();
+		trie = new TrieNode();
+		removedCount = 0;
+		for (Item item : catalog) {
+			add(item);
+		}
+	}
+
+	private void add(Item item) {
+		int position = items.size();
+		String key = item.getItemName().toLowerCase(Locale.ROOT);
+		items.add(item);
+		keys.add(key);
+		positions.put(item, position);
+		for (int c = 0; c + 3 <= key.length(); c++) {
+			IntList list = postings.computeIfAbsent(trigram(key, c), k -> new IntList());
+			if (list.size == 0 || list.values[list.size - 1] != position) {
+				list.add(position); // a name repeating a trigram is listed once
+			}
+		}
+		for (int c = 0; c < key.length(); c++) {
+			if (c == 0 || key.charAt(c - 1) == ' ') {
+				trie.insert(key, c, position);
+			}
+		}
+	}
+
+	private void remove(Item item) {
+		Integer position = positions.remove(item);
+		if (position == null) {
+			return;
+		}
+		String key = keys.get(position);
+		items.set(position, null);
+		keys.set(position, null);
+		removedCount++;
+		for (int c = 0; c + 3 <= key.length(); c++) {
+			long gram = trigram(key, c);
+			IntList list = postings.get(gram);
+			if (list != null && list.remove(position) && list.size == 0) {
+				postings.remove(gram);
+			}
+		}
+		for (int c = 0; c < key.length(); c++) {
+			if (c == 0 || key.charAt(c - 1) == ' ') {
+				TrieNode node = trie;
+				for (int d = c; d < key.length() && d - c < TrieNode.MAX_DEPTH && node != null; d++) {
+					node = node.children.get(key.charAt(d));
+					if (node != null && node.items.size == TrieNode.SUGGESTIONS_PER_NODE && node.items.remove(position)) {
+						refill(node, key.substring(c, d + 1)); // a full node may have more items below it
+					} else if (node != null) {
+						node.items.remove(position);
+					}
+				}
+			}
+		}
+	}
+
+	// Lists the first items with a word starting with the node's prefix again
+	private void refill(TrieNode node, String prefix) {
+		node.items.size = 0;
+		if (prefix.length() >= 3) {
+			IntList candidates = postings.get(trigram(prefix, 0));
+			for (int i = 0; candidates != null && i < candidates.size && node.items.size < TrieNode.SUGGESTIONS_PER_NODE; i++) {
+				if (matchesWordStart(keys.get(candidates.values[i]), prefix)) {
+					node.items.add(candidates.values[i]);
+				}
+			}
+			return;
+		}
+		for (int i = 0; i < keys.size() && node.items.size < TrieNode.SUGGESTIONS_PER_NODE; i++) {
+			if (keys.get(i) != null && matchesWordStart(keys.get(i), prefix)) {
+				node.items.add(i);
+			}
+		}
+	}
+
+	private TrieNode find(String key) {
+		TrieNode node = trie;
+		for (int c = 0; c < key.length() && c < TrieNode.MAX_DEPTH && node != null; c++) {
+			node = node.children.get(key.charAt(c));
+		}
+		return node;
+	}
+
+	private static boolean matchesWordStart(String key, String prefix) {
+		return key.startsWith(prefix) || key.contains(" " + prefix);
+	}
+
+	// Keeps the values of candidates[0, count) that are also in other, returns how many
+	private static int intersect(int[] candidates, int count, IntList other) {
+		int kept = 0;
+		int j = 0;
+		for (int i = 0; i < count && j < other.size; i++) {
+			while (j < other.size && other.values[j] < candidates[i]) {
+				j++;
+			}
+			if (j < other.size && other.values[j] == candidates[i]) {
+				candidates[kept++] = candidates[i];
+			}
+		}
+		return kept;
+	}
+
+	private static long trigram(String key, int start) {
+		return ((long) key.charAt(start) << 32) | ((long) key.charAt(start + 1) << 16) | key.charAt(start + 2);
+	}
+}
@@ -0,0 +1,179 @@
+package util;
+
+import model.Item;
+import model.Sector;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Items of every category ordered by stock level, kept by InventoryRepository
+ * through every sell, restock, add, delete and reload. A threshold query takes
+ * the head of each category's set, log n to find its end plus the k items
+ * returned, instead of scanning the inventory. Each entry records the stock it
+ * was filed under, since items change their stock in place. Categories are
+ * normalized as in Sector.hasCategory. Listeners hear about
+ * every item whose stock crosses ALERT_THRESHOLD, in either direction.
+ * Not thread-safe on its own; the repository calls it under its lock.
+ */
+public class LowStockIndex {
+	public static final int ALERT_THRESHOLD = 5; // the dashboard's low-stock level
+
+	// Told when an item falls to the alert threshold or rises above it again
+	public interface Listener {
+		void stockCrossed(Item item, int previousStock, boolean low);
+	}
+
+	// An item filed under the stock it had at the time
+	private static class Entry implements Comparable<Entry> {
+		private final Item item;
+		private final int stock;
+		private final long id; // tie-break, so items with equal stock and name stay distinct
+
+		Entry(Item item, int stock, long id) {
+			this.item = item;
+			this.stock = stock;
+			this.id = id;
+		}
+
+		@Override
+		public int compareTo(Entry other) {
+			int order = Integer.compare(stock, other.stock);
+			return order != 0 ? order : Long.compare(id, other.id);
+		}
+	}
+
+	private final HashMap<String, TreeSet<Entry>> byCategory = new HashMap<>();
+	private final IdentityHashMap<Item, Entry> entries = new IdentityHashMap<>();
+	private final IdentityHashMap<Item, String> categories = new IdentityHashMap<>(); // normalized category each item is filed in
+	private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+	private long nextId;
+
+	void addListener(Listener listener) {
+		listeners.add(listener);
+	}
+
+	void removeListener(Listener listener) {
+		listeners.remove(listener);
+	}
+
+	// Files every item again, without events
+	void rebuild(List<Item> items) {
+		byCategory.clear();
+		entries.clear();
+		categories.clear();
+		for (Item item : items) {
+			file(item);
+		}
+	}
+
+	void clear() {
+		byCategory.clear();
+		entries.clear();
+		categories.clear();
+	}
+
+	/**
+	 * Refiles the item under its current stock and category, and tells the
+	 * listeners if the stock crossed the alert threshold.
+	 */
+	void update(Item item) {
+		Entry previous = entries.get(item);
+		String category = categories.get(item);
+		if (previous != null && previous.stock == item.getStockQuantity() && category != null
+				&& item.getCategory() != null && category.equals(Sector.categoryKey(item.getCategory()))) {
+			return;
+		}
+		unfile(item);
+		Entry current = file(item);
+		if (previous != null && current != null
+				&& (previous.stock <= ALERT_THRESHOLD) != (current.stock <= ALERT_THRESHOLD)) {
+			for (Listener listener : listeners) {
+				listener.stockCrossed(item, previous.stock, current.stock <= ALERT_THRESHOLD);
+			}
+		}
+	}
+
+	void remove(Item item) {
+		unfile(item);
+	}
+
+	/**
+	 * Items of the given categories with at most threshold units in stock,
+	 * lowest stock first.
+	 */
+	ArrayList<Item> findAtOrBelow(Collection<String> categoryNames, int threshold) {
+		ArrayList<Item> lowStock = new ArrayList<>();
+		for (String category : keys(categoryNames)) {
+			TreeSet<Entry> set = byCategory.get(category);
+			if (set != null) {
+				for (Entry entry : set.headSet(bound(threshold))) {
+					lowStock.add(entry.item);
+				}
+			}
+		}
+		if (lowStock.size() > 1) {
+			lowStock.sort((a, b) -> Integer.compare(entries.get(a).stock, entries.get(b).stock));
+		}
+		return lowStock;
+	}
+
+	int countAtOrBelow(Collection<String> categoryNames, int threshold) {
+		int count = 0;
+		for (String category : keys(categoryNames)) {
+			TreeSet<Entry> set = byCategory.get(category);
+			if (set != null) {
+				count += set.headSet(bound(threshold)).size();
+			}
+		}
+		return count;
+	}
+
+	private static LinkedHashSet<String> keys(Collection<String> categoryNames) {
+		LinkedHashSet<String> keys = new LinkedHashSet<>();
+		for (String category : categoryNames) {
+			if (category != null) {
+				keys.add(Sector.categoryKey(category));
+			}
+		}
+		return keys;
+	}
+
+	// Sorts after every entry with stock <= threshold
+	private static Entry bound(int threshold) {
+		return new Entry(null, threshold, Long.MAX_VALUE);
+	}
+
+	private Entry file(Item item) {
+		if (item.getCategory() == null) {
+			return null;
+		}
+		String category = Sector.normalizeCategory(item.getCategory());
+		Entry entry = new Entry(item, item.getStockQuantity(), nextId++);
+		byCategory.computeIfAbsent(category, k -> new TreeSet<>()).add(entry);
+		entries.put(item, entry);
+		categories.put(item, category);
+		return entry;
+	}
+
+	private void unfile(Item item) {
+		Entry entry = entries.remove(item);
+		String category = categories.remove(item);
+		if (entry == null) {
+			return;
+		}
+		TreeSet<Entry> set = byCategory.get(category);
+		if (set != null) {
+			set.remove(entry);
+			if (set.isEmpty()) {
+				byCategory.remove(category);
+			}
+		}
+	}
+}
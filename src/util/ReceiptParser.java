@@ -0,0 +1,341 @@
+package util;
+
+import model.Bill;
+import model.Item;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Single-pass scanner over a receipt written by FileHandler.saveBill.
+ * The file is read into a reused byte buffer and scanned once; header values
+ * and item lines are kept as offsets into that buffer and amounts as fixed-point
+ * cents, so no String, regex or Item is created unless a caller asks for one.
+ * One parser holds one receipt at a time and is not thread-safe.
+ */
+public class ReceiptParser {
+	private static final byte[] BILL_NUMBER = "Bill Number:".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] CASHIER = "Cashier:".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] SECTOR = "Sector:".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] DATE = "Date:".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] ITEMS = "Items:".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] ITEM_HEADER = "Item Name".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] TOTAL_AMOUNT = "Total Amount:".getBytes(StandardCharsets.US_ASCII);
+
+	private File receipt;
+	private byte[] buffer = new byte[4096];
+	private int length;
+
+	// Header fields as [start, end) offsets into buffer, -1 when missing
+	private int billNumberStart, billNumberEnd;
+	private int cashierStart, cashierEnd;
+	private int sectorStart, sectorEnd;
+	private long epochDay;
+	private boolean hasDate;
+	private long totalCents;
+
+	// Item lines: name and category offsets, quantity and price in cents
+	private int lineCount;
+	private int[] lineOffsets = new int[4 * 16];
+	private int[] lineQuantities = new int[16];
+	private long[] linePrices = new long[16];
+
+	/**
+	 * Reads and scans one receipt. Returns false if it lacks a bill number or a
+	 * date, the same receipts the old line parser could not turn into a Bill.
+	 */
+	public boolean parse(File receipt) throws IOException {
+		this.receipt = receipt;
+		read(receipt);
+		billNumberStart = cashierStart = sectorStart = -1;
+		billNumberEnd = cashierEnd = sectorEnd = -1;
+		hasDate = false;
+		totalCents = 0;
+		lineCount = 0;
+
+		boolean itemSection = false;
+		int pos = 0;
+		while (pos < length) {
+			int lineEnd = pos;
+			while (lineEnd < length && buffer[lineEnd] != '\n') {
+				lineEnd++;
+			}
+			int start = skipSpaces(pos, lineEnd);
+			int end = trimEnd(start, lineEnd);
+			pos = lineEnd + 1;
+			if (start == end) {
+				continue;
+			}
+
+			if (startsWith(start, end, BILL_NUMBER)) {
+				billNumberStart = valueStart(start + BILL_NUMBER.length, end);
+				billNumberEnd = end;
+			} else if (startsWith(start, end, CASHIER)) {
+				cashierStart = valueStart(start + CASHIER.length, end);
+				cashierEnd = end;
+			} else if (startsWith(start, end, SECTOR)) {
+				sectorStart = valueStart(start + SECTOR.length, end);
+				sectorEnd = end;
+			} else if (startsWith(start, end, DATE)) {
+				hasDate = parseDate(valueStart(start + DATE.length, end), end);
+			} else if (startsWith(start, end, TOTAL_AMOUNT)) {
+				totalCents = parseCents(valueStart(start + TOTAL_AMOUNT.length, end), end);
+				itemSection = false;
+			} else if (startsWith(start, end, ITEMS)) {
+				itemSection = true;
+			} else if (itemSection && buffer[start] != '-' && buffer[start] != '=' && !startsWith(start, end, ITEM_HEADER)) {
+				parseItemLine(start, end);
+			}
+		}
+		return billNumberStart >= 0 && hasDate;
+	}
+
+	/**
+	 * Item lines are "%-20s %-10s %-10d %-10.2f": read price and quantity from the
+	 * right, then split name and category at the last run of two or more spaces,
+	 * or at the last single space when a long name swallowed the padding.
+	 */
+	private void parseItemLine(int start, int end) {
+		int priceStart = tokenStart(start, end);
+		int quantityEnd = trimEnd(start, priceStart);
+		int quantityStart = tokenStart(start, quantityEnd);
+		int prefixEnd = trimEnd(start, quantityStart);
+		if (priceStart <= start || quantityStart <= start || prefixEnd <= start
+				|| !isNumber(priceStart, end) || !isNumber(quantityStart, quantityEnd)) {
+			return;
+		}
+
+		int categoryStart = -1;
+		for (int i = prefixEnd - 1; i > start; i--) {
+			if (buffer[i] == ' ' && buffer[i - 1] == ' ') {
+				categoryStart = i + 1;
+				break;
+			}
+		}
+		if (categoryStart < 0) {
+			categoryStart = tokenStart(start, prefixEnd);
+			if (categoryStart <= start) {
+				return;
+			}
+		}
+		int nameEnd = trimEnd(start, categoryStart);
+
+		ensureLineCapacity();
+		lineOffsets[4 * lineCount] = start;
+		lineOffsets[4 * lineCount + 1] = nameEnd;
+		lineOffsets[4 * lineCount + 2] = categoryStart;
+		lineOffsets[4 * lineCount + 3] = prefixEnd;
+		lineQuantities[lineCount] = (int) parseLong(quantityStart, quantityEnd);
+		linePrices[lineCount] = parseCents(priceStart, end);
+		lineCount++;
+	}
+
+	// dd-MM-yyyy straight to an epoch day, without a formatter or Calendar
+	private boolean parseDate(int start, int end) {
+		if (end - start != 10 || buffer[start + 2] != '-' || buffer[start + 5] != '-') {
+			return false;
+		}
+		int day = (int) parseLong(start, start + 2);
+		int month = (int) parseLong(start + 3, start + 5);
+		int year = (int) parseLong(start + 6, end);
+		if (day < 1 || day > 31 || month < 1 || month > 12 || year < 0) {
+			return false;
+		}
+		epochDay = daysFromCivil(year, month, day);
+		return true;
+	}
+
+	// Days since 1970-01-01 for a proleptic Gregorian date
+	private static long daysFromCivil(int year, int month, int day) {
+		long y = month <= 2 ? year - 1 : year;
+		long era = Math.floorDiv(y, 400);
+		long yearOfEra = y - era * 400;
+		long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+
+	// Fixed-point decimal with two places, further digits are dropped
+	private long parseCents(int start, int end) {
+		boolean negative = start < end && buffer[start] == '-';
+		int i = negative ? start + 1 : start;
+		long units = 0;
+		while (i < end && buffer[i] >= '0' && buffer[i] <= '9') {
+			units = units * 10 + (buffer[i++] - '0');
+		}
+		long cents = 0;
+		if (i < end && buffer[i] == '.') {
+			i++;
+			for (int place = 0; place < 2; place++) {
+				cents *= 10;
+				if (i < end && buffer[i] >= '0' && buffer[i] <= '9') {
+					cents += buffer[i++] - '0';
+				}
+			}
+		}
+		long value = units * 100 + cents;
+		return negative ? -value : value;
+	}
+
+	private long parseLong(int start, int end) {
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			value = value * 10 + (buffer[i] - '0');
+		}
+		return value;
+	}
+
+	private boolean isNumber(int start, int end) {
+		if (start < end && buffer[start] == '-') {
+			start++;
+		}
+		if (start >= end) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if ((buffer[i] < '0' || buffer[i] > '9') && buffer[i] != '.') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void read(File receipt) throws IOException {
+		long size = receipt.length();
+		if (size >= buffer.length) {
+			buffer = new byte[(int) Math.max(size + 1, buffer.length * 2L)];
+		}
+		length = 0;
+		try (FileInputStream in = new FileInputStream(receipt)) {
+			int n;
+			while ((n = in.read(buffer, length, buffer.length - length)) > 0) {
+				length += n;
+				if (length == buffer.length) {
+					buffer = Arrays.copyOf(buffer, buffer.length * 2); // file grew while reading
+				}
+			}
+		}
+	}
+
+	private void ensureLineCapacity() {
+		if (lineCount == lineQuantities.length) {
+			lineOffsets = Arrays.copyOf(lineOffsets, lineOffsets.length * 2);
+			lineQuantities = Arrays.copyOf(lineQuantities, lineQuantities.length * 2);
+			linePrices = Arrays.copyOf(linePrices, linePrices.length * 2);
+		}
+	}
+
+	private boolean startsWith(int start, int end, byte[] prefix) {
+		if (end - start < prefix.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (buffer[start + i] != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int skipSpaces(int start, int end) {
+		while (start < end && (buffer[start] == ' ' || buffer[start] == '\t' || buffer[start] == '\r')) {
+			start++;
+		}
+		return start;
+	}
+
+	private int valueStart(int start, int end) {
+		return skipSpaces(start, end);
+	}
+
+	private int trimEnd(int start, int end) {
+		while (end > start && (buffer[end - 1] == ' ' || buffer[end - 1] == '\t' || buffer[end - 1] == '\r')) {
+			end--;
+		}
+		return end;
+	}
+
+	// Start of the last space-separated token before end
+	private int tokenStart(int start, int end) {
+		int i = end;
+		while (i > start && buffer[i - 1] != ' ') {
+			i--;
+		}
+		return i;
+	}
+
+	private String text(int start, int end) {
+		return start < 0 ? null : new String(buffer, start, end - start, StandardCharsets.UTF_8);
+	}
+
+	public File getReceipt() {
+		return receipt;
+	}
+
+	public String getBillNumber() {
+		return text(billNumberStart, billNumberEnd);
+	}
+
+	public String getCashierName() {
+		return text(cashierStart, cashierEnd);
+	}
+
+	public String getSector() {
+		return text(sectorStart, sectorEnd);
+	}
+
+	public long getEpochDay() {
+		return epochDay;
+	}
+
+	public long getTotalCents() {
+		return totalCents;
+	}
+
+	public double getTotalAmount() {
+		return totalCents / 100.0;
+	}
+
+	public int getLineCount() {
+		return lineCount;
+	}
+
+	public String getLineName(int line) {
+		return text(lineOffsets[4 * line], lineOffsets[4 * line + 1]);
+	}
+
+	public String getLineCategory(int line) {
+		return text(lineOffsets[4 * line + 2], lineOffsets[4 * line + 3]);
+	}
+
+	public int getLineQuantity(int line) {
+		return lineQuantities[line];
+	}
+
+	public long getLinePriceCents(int line) {
+		return linePrices[line];
+	}
+
+	/**
+	 * Builds the Bill the old loadBillFromFile returned: items carry name,
+	 * category and price only. Returns null for bills without items or total.
+	 */
+	public Bill toBill() {
+		if (lineCount == 0 || totalCents <= 0) {
+			return null;
+		}
+		ArrayList<Item> items = new ArrayList<>(lineCount);
+		for (int i = 0; i < lineCount; i++) {
+			items.add(new Item(getLineName(i), getLineCategory(i), linePrices[i] / 100.0, 0, 0));
+		}
+		Date saleDate = Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+		return new Bill(getBillNumber(), items, getTotalAmount(), saleDate);
+	}
+}
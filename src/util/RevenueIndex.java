@@ -0,0 +1,129 @@
+package util;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+
+/**
+ * Day-bucketed revenue and bill counts for one group (the store, a sector or
+ * a cashier), held in Fenwick trees over the epoch days. A [from, to] range
+ * costs two prefix lookups, and a bill added for an earlier day (a late
+ * correction) is a point update, not a rebuild of the cumulative sums.
+ */
+public class RevenueIndex {
+	private static final int MIN_CAPACITY = 64;
+
+	private long baseDay; // epoch day stored at position 1
+	private long[] cents = new long[0];
+	private long[] bills = new long[0];
+
+	// One index per group name, used for sectors and cashiers
+	public static class Grouped {
+		private final HashMap<String, RevenueIndex> groups = new HashMap<>();
+
+		public void add(String group, long epochDay, int billCount, long totalCents) {
+			groups.computeIfAbsent(group, key -> new RevenueIndex()).add(epochDay, billCount, totalCents);
+		}
+
+		public RevenueIndex get(String group) {
+			RevenueIndex index = groups.get(group);
+			return index != null ? index : new RevenueIndex();
+		}
+
+		public void clear() {
+			groups.clear();
+		}
+	}
+
+	public void add(long epochDay, int billCount, long totalCents) {
+		ensureCovers(epochDay);
+		for (int i = (int) (epochDay - baseDay) + 1; i < cents.length; i += i & -i) {
+			cents[i] += totalCents;
+			bills[i] += billCount;
+		}
+	}
+
+	public void clear() {
+		cents = new long[0];
+		bills = new long[0];
+	}
+
+	public long getTotalCents(LocalDate from, LocalDate to) {
+		return prefix(cents, to.toEpochDay()) - prefix(cents, from.toEpochDay() - 1);
+	}
+
+	public double getTotalAmount(LocalDate from, LocalDate to) {
+		return getTotalCents(from, to) / 100.0;
+	}
+
+	public int getBillCount(LocalDate from, LocalDate to) {
+		return (int) (prefix(bills, to.toEpochDay()) - prefix(bills, from.toEpochDay() - 1));
+	}
+
+	// Sum of every day up to and including epochDay
+	private long prefix(long[] tree, long epochDay) {
+		if (tree.length == 0 || epochDay < baseDay) {
+			return 0;
+		}
+		long sum = 0;
+		for (int i = (int) Math.min(epochDay - baseDay + 1, tree.length - 1); i > 0; i -= i & -i) {
+			sum += tree[i];
+		}
+		return sum;
+	}
+
+	// Grows the trees, to the left or the right, so epochDay has a position
+	private void ensureCovers(long epochDay) {
+		if (cents.length == 0) {
+			baseDay = epochDay;
+			cents = new long[MIN_CAPACITY + 1];
+			bills = new long[MIN_CAPACITY + 1];
+			return;
+		}
+		long lastDay = baseDay + cents.length - 2;
+		if (epochDay >= baseDay && epochDay <= lastDay) {
+			return;
+		}
+		long newBase = Math.min(baseDay, epochDay);
+		long needed = Math.max(lastDay, epochDay) - newBase + 1;
+		int capacity = cents.length - 1;
+		while (capacity < needed) {
+			capacity *= 2;
+		}
+		long[] dayCents = values(cents);
+		long[] dayBills = values(bills);
+		int shift = (int) (baseDay - newBase);
+		baseDay = newBase;
+		cents = new long[capacity + 1];
+		bills = new long[capacity + 1];
+		for (int d = 0; d < dayCents.length; d++) {
+			cents[d + shift + 1] = dayCents[d];
+			bills[d + shift + 1] = dayBills[d];
+		}
+		build(cents);
+		build(bills);
+	}
+
+	// Per-day values back out of a tree
+	private static long[] values(long[] tree) {
+		long[] values = new long[tree.length - 1];
+		long[] copy = tree.clone();
+		for (int i = copy.length - 1; i > 0; i--) {
+			int parent = i + (i & -i);
+			if (parent < copy.length) {
+				copy[parent] -= copy[i];
+			}
+		}
+		System.arraycopy(copy, 1, values, 0, values.length);
+		return values;
+	}
+
+	// Turns per-day values at positions 1..n into a tree in O(n)
+	private static void build(long[] tree) {
+		for (int i = 1; i < tree.length; i++) {
+			int parent = i + (i & -i);
+			if (parent < tree.length) {
+				tree[parent] += tree[i];
+			}
+		}
+	}
+}
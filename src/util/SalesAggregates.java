@@ -0,0 +1,266 @@
+package util;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sales totals per day, per (day, cashier) and per (day, sector), kept up to
+ * date from the sales ledger. Only records appended since the last refresh are
+ * read, and the totals are saved to sales.aggregates together with the ledger
+ * offset they cover, so a restart loads one entry per day instead of
+ * re-reading every bill. Single-day queries are map lookups, date-range
+ * queries go through RevenueIndex.
+ */
+public class SalesAggregates {
+	private static final String AGGREGATES_FILE = "src/BinaryFiles/sales.aggregates";
+	private static final int FORMAT_VERSION = 1;
+
+	private static SalesAggregates instance;
+
+	private final File aggregatesFile;
+	private final SalesLedger ledger;
+	private final TreeMap<Long, DayTotals> days = new TreeMap<>();
+	private final HashMap<String, Totals> cashiersAllTime = new HashMap<>();
+	private final RevenueIndex storeRevenue = new RevenueIndex();
+	private final RevenueIndex.Grouped sectorRevenue = new RevenueIndex.Grouped();
+	private final RevenueIndex.Grouped cashierRevenue = new RevenueIndex.Grouped();
+	private long ledgerOffset; // ledger bytes already folded into the totals
+	private boolean loaded;
+
+	// Bill count and revenue of one group
+	public static class Totals {
+		private int billCount;
+		private long totalCents;
+
+		void add(int bills, long cents) {
+			billCount += bills;
+			totalCents += cents;
+		}
+
+		public int getBillCount() {
+			return billCount;
+		}
+
+		public long getTotalCents() {
+			return totalCents;
+		}
+
+		public double getTotalAmount() {
+			return totalCents / 100.0;
+		}
+
+		static Totals of(RevenueIndex index, LocalDate from, LocalDate to) {
+			Totals totals = new Totals();
+			totals.add(index.getBillCount(from, to), index.getTotalCents(from, to));
+			return totals;
+		}
+	}
+
+	private static class DayTotals {
+		private final Totals store = new Totals();
+		private final LinkedHashMap<String, Totals> cashiers = new LinkedHashMap<>();
+		private final LinkedHashMap<String, Totals> sectors = new LinkedHashMap<>();
+	}
+
+	public static synchronized SalesAggregates getInstance() {
+		if (instance == null) {
+			instance = new SalesAggregates(AGGREGATES_FILE, SalesLedger.getInstance());
+		}
+		return instance;
+	}
+
+	SalesAggregates(String aggregatesFile, SalesLedger ledger) {
+		this.aggregatesFile = new File(aggregatesFile);
+		this.ledger = ledger;
+	}
+
+	public synchronized Totals getDayTotals(LocalDate day) {
+		refreshIfStale();
+		DayTotals totals = days.get(day.toEpochDay());
+		return totals != null ? totals.store : new Totals();
+	}
+
+	// Per-cashier totals of one day, in the order the cashiers first sold
+	public synchronized Map<String, Totals> getCashierTotals(LocalDate day) {
+		refreshIfStale();
+		DayTotals totals = days.get(day.toEpochDay());
+		return totals != null ? Collections.unmodifiableMap(totals.cashiers) : Collections.emptyMap();
+	}
+
+	public synchronized Map<String, Totals> getSectorTotals(LocalDate day) {
+		refreshIfStale();
+		DayTotals totals = days.get(day.toEpochDay());
+		return totals != null ? Collections.unmodifiableMap(totals.sectors) : Collections.emptyMap();
+	}
+
+	public synchronized Totals getCashierTotalsAllTime(String cashierName) {
+		refreshIfStale();
+		Totals totals = cashiersAllTime.get(cashierName);
+		return totals != null ? totals : new Totals();
+	}
+
+	// Whole store between both dates inclusive
+	public synchronized Totals getTotals(LocalDate from, LocalDate to) {
+		refreshIfStale();
+		return Totals.of(storeRevenue, from, to);
+	}
+
+	public synchronized Totals getSectorTotals(String sector, LocalDate from, LocalDate to) {
+		refreshIfStale();
+		return Totals.of(sectorRevenue.get(sector), from, to);
+	}
+
+	public synchronized Totals getCashierTotals(String cashierName, LocalDate from, LocalDate to) {
+		refreshIfStale();
+		return Totals.of(cashierRevenue.get(cashierName), from, to);
+	}
+
+	/**
+	 * Folds ledger records appended since the last call into the totals and
+	 * saves them. Called after every finalized bill.
+	 */
+	public synchronized void refresh() {
+		if (!loaded) {
+			load();
+		}
+		long ledgerLength = ledger.length();
+		if (ledgerOffset > ledgerLength) {
+			// the ledger was replaced, start over from its first record
+			clear();
+		}
+		long end = ledger.forEachFrom(ledgerOffset, this::add);
+		if (end != ledgerOffset) {
+			ledgerOffset = end;
+			save();
+		}
+	}
+
+	private void refreshIfStale() {
+		if (!loaded || ledger.length() != ledgerOffset) {
+			refresh();
+		}
+	}
+
+	private void clear() {
+		days.clear();
+		cashiersAllTime.clear();
+		storeRevenue.clear();
+		sectorRevenue.clear();
+		cashierRevenue.clear();
+		ledgerOffset = 0;
+	}
+
+	private void add(SalesLedger.Record record) {
+		long epochDay = record.getSaleDay().toEpochDay();
+		storeRevenue.add(epochDay, 1, record.getTotalCents());
+		sectorRevenue.add(record.getSector(), epochDay, 1, record.getTotalCents());
+		cashierRevenue.add(record.getCashierName(), epochDay, 1, record.getTotalCents());
+		DayTotals day = days.computeIfAbsent(epochDay, key -> new DayTotals());
+		day.store.add(1, record.getTotalCents());
+		day.cashiers.computeIfAbsent(record.getCashierName(), key -> new Totals()).add(1, record.getTotalCents());
+		day.sectors.computeIfAbsent(record.getSector(), key -> new Totals()).add(1, record.getTotalCents());
+		cashiersAllTime.computeIfAbsent(record.getCashierName(), key -> new Totals()).add(1, record.getTotalCents());
+	}
+
+	/**
+	 * Layout: int version | long ledger offset | int name count | UTF names
+	 * | int day count | per day: int epoch day, int cashier count, int sector count,
+	 *   then (int name index, int bills, long cents) for every cashier and sector.
+	 * Store totals and all-time cashier totals are summed again on load.
+	 */
+	private void save() {
+		try {
+			ArrayList<String> names = new ArrayList<>();
+			HashMap<String, Integer> nameIndex = new HashMap<>();
+			for (DayTotals day : days.values()) {
+				for (String name : day.cashiers.keySet()) {
+					nameIndex.computeIfAbsent(name, key -> { names.add(key); return names.size() - 1; });
+				}
+				for (String name : day.sectors.keySet()) {
+					nameIndex.computeIfAbsent(name, key -> { names.add(key); return names.size() - 1; });
+				}
+			}
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(ledgerOffset);
+			out.writeInt(names.size());
+			for (String name : names) {
+				out.writeUTF(name);
+			}
+			out.writeInt(days.size());
+			for (Map.Entry<Long, DayTotals> day : days.entrySet()) {
+				out.writeInt(day.getKey().intValue());
+				out.writeInt(day.getValue().cashiers.size());
+				out.writeInt(day.getValue().sectors.size());
+				writeGroup(out, day.getValue().cashiers, nameIndex);
+				writeGroup(out, day.getValue().sectors, nameIndex);
+			}
+			AtomicFileStore.getInstance().save(aggregatesFile.getPath(), bytes.toByteArray());
+		} catch (IOException e) {
+			System.err.println("Error saving sales aggregates: " + e.getMessage());
+		}
+	}
+
+	private static void writeGroup(DataOutputStream out, Map<String, Totals> group, Map<String, Integer> nameIndex) throws IOException {
+		for (Map.Entry<String, Totals> entry : group.entrySet()) {
+			out.writeInt(nameIndex.get(entry.getKey()));
+			out.writeInt(entry.getValue().getBillCount());
+			out.writeLong(entry.getValue().getTotalCents());
+		}
+	}
+
+	private void load() {
+		loaded = true;
+		if (!aggregatesFile.exists()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(aggregatesFile)))) {
+			if (in.readInt() != FORMAT_VERSION) {
+				System.err.println("Unknown sales aggregates format, rebuilding from the ledger.");
+				return;
+			}
+			long offset = in.readLong();
+			String[] names = new String[in.readInt()];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = in.readUTF();
+			}
+			int dayCount = in.readInt();
+			for (int i = 0; i < dayCount; i++) {
+				DayTotals day = new DayTotals();
+				long epochDay = in.readInt();
+				int cashierCount = in.readInt();
+				int sectorCount = in.readInt();
+				for (int c = 0; c < cashierCount; c++) {
+					String cashier = names[in.readInt()];
+					int bills = in.readInt();
+					long cents = in.readLong();
+					day.cashiers.computeIfAbsent(cashier, key -> new Totals()).add(bills, cents);
+					day.store.add(bills, cents);
+					cashiersAllTime.computeIfAbsent(cashier, key -> new Totals()).add(bills, cents);
+					cashierRevenue.add(cashier, epochDay, bills, cents);
+					storeRevenue.add(epochDay, bills, cents);
+				}
+				for (int s = 0; s < sectorCount; s++) {
+					String sector = names[in.readInt()];
+					int bills = in.readInt();
+					long cents = in.readLong();
+					day.sectors.computeIfAbsent(sector, key -> new Totals()).add(bills, cents);
+					sectorRevenue.add(sector, epochDay, bills, cents);
+				}
+				days.put(epochDay, day);
+			}
+			ledgerOffset = offset;
+		} catch (IOException | ArrayIndexOutOfBoundsException e) {
+			System.err.println("Error reading sales aggregates, rebuilding from the ledger: " + e.getMessage());
+			clear();
+		}
+	}
+}
@@ -0,0 +1,318 @@
+package util;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only sales ledger, one record per finalized bill. This is the one
+ * source the daily bills, cashier performance and report screens read.
+ * Record layout:
+ *   int length | long epoch millis | long total cents | int line count | int cashier id
+ *   | UTF bill number | UTF cashier name | UTF sector | long crc32
+ * A record with a short read or a bad checksum marks a torn tail and ends reading.
+ * Appends and the repair of a torn tail hold an exclusive lock on the lock
+ * file next to the ledger, so one terminal never cuts off a record another
+ * terminal is still writing. There is one instance per ledger in a process,
+ * since the JVM refuses overlapping FileLocks of its own.
+ */
+public class SalesLedger {
+	private static final String LEDGER_FILE = "src/BinaryFiles/sales.ledger";
+	private static final String BILL_DIRECTORY = "src/BinaryFiles/Bills/";
+
+	private static SalesLedger instance;
+
+	private final File ledgerFile;
+	private final File billDirectory;
+	private final File lockFile;
+	private FileChannel lockChannel;
+	private boolean checked;
+
+	// One ledger record
+	public static class Record {
+		private final String billNumber;
+		private final long epochMillis;
+		private final int cashierId;
+		private final String cashierName;
+		private final String sector;
+		private final long totalCents;
+		private final int lineCount;
+
+		public Record(String billNumber, long epochMillis, int cashierId, String cashierName, String sector,
+				long totalCents, int lineCount) {
+			this.billNumber = billNumber;
+			this.epochMillis = epochMillis;
+			this.cashierId = cashierId;
+			this.cashierName = cashierName;
+			this.sector = sector;
+			this.totalCents = totalCents;
+			this.lineCount = lineCount;
+		}
+
+		public String getBillNumber() {
+			return billNumber;
+		}
+
+		public long getEpochMillis() {
+			return epochMillis;
+		}
+
+		public LocalDate getSaleDay() {
+			return Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()).toLocalDate();
+		}
+
+		// 0 for bills recorded from receipts, which only carry the cashier name
+		public int getCashierId() {
+			return cashierId;
+		}
+
+		public String getCashierName() {
+			return cashierName;
+		}
+
+		public String getSector() {
+			return sector;
+		}
+
+		public long getTotalCents() {
+			return totalCents;
+		}
+
+		public double getTotalAmount() {
+			return totalCents / 100.0;
+		}
+
+		public int getLineCount() {
+			return lineCount;
+		}
+	}
+
+	public static synchronized SalesLedger getInstance() {
+		if (instance == null) {
+			instance = new SalesLedger(LEDGER_FILE, BILL_DIRECTORY);
+		}
+		return instance;
+	}
+
+	SalesLedger(String ledgerFile, String billDirectory) {
+		this.ledgerFile = new File(ledgerFile);
+		this.billDirectory = new File(billDirectory);
+		this.lockFile = new File(ledgerFile + ".lock");
+	}
+
+	// Waits for the group commit after releasing the ledger, so other appends can join it
+	public void append(Record record) throws IOException {
+		CompletableFuture<Void> sync;
+		synchronized (this) {
+			FileLock lock = lockLedger();
+			try {
+				if (ensureCreated().contains(record.getBillNumber())) {
+					return; // its receipt was already saved and picked up while building the ledger
+				}
+				try (FileOutputStream out = new FileOutputStream(ledgerFile, true)) {
+					out.write(encode(record));
+				}
+			} finally {
+				lock.release();
+			}
+			sync = AtomicFileStore.getInstance().requestSync(ledgerFile);
+		}
+		AtomicFileStore.getInstance().awaitSync(sync);
+	}
+
+	// Streams every intact record in the order the bills were finalized
+	public synchronized void forEach(Consumer<Record> consumer) {
+		try {
+			ensureCreatedLocked();
+		} catch (IOException e) {
+			System.err.println("Error creating sales ledger: " + e.getMessage());
+			return;
+		}
+		readRecords(0, consumer);
+	}
+
+	/**
+	 * Streams the records appended after the given offset and returns the
+	 * offset to continue from, so readers can follow the ledger incrementally.
+	 */
+	public synchronized long forEachFrom(long offset, Consumer<Record> consumer) {
+		try {
+			ensureCreatedLocked();
+		} catch (IOException e) {
+			System.err.println("Error creating sales ledger: " + e.getMessage());
+			return offset;
+		}
+		return readRecords(offset, consumer);
+	}
+
+	public synchronized long length() {
+		return ledgerFile.length();
+	}
+
+	private void ensureCreatedLocked() throws IOException {
+		if (checked) {
+			return;
+		}
+		FileLock lock = lockLedger();
+		try {
+			ensureCreated();
+		} finally {
+			lock.release();
+		}
+	}
+
+	// Waits until no other terminal appends to or repairs the ledger
+	private FileLock lockLedger() throws IOException {
+		if (lockChannel == null) {
+			File directory = lockFile.getAbsoluteFile().getParentFile();
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("Could not create " + directory);
+			}
+			lockChannel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		}
+		return lockChannel.lock();
+	}
+
+	// Returns the offset just past the last intact record
+	private long readRecords(long offset, Consumer<Record> consumer) {
+		long valid = offset;
+		try (FileInputStream file = new FileInputStream(ledgerFile)) {
+			file.getChannel().position(offset);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(file));
+			while (true) {
+				int length;
+				try {
+					length = in.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+				if (length <= 0) {
+					System.err.println("Corrupt sales ledger record, stopping.");
+					break;
+				}
+				byte[] payload = new byte[length];
+				in.readFully(payload);
+				CRC32 crc = new CRC32();
+				crc.update(payload);
+				if (crc.getValue() != in.readLong()) {
+					System.err.println("Sales ledger checksum mismatch, stopping.");
+					break;
+				}
+				consumer.accept(decode(payload));
+				valid += 4 + length + 8;
+			}
+		} catch (EOFException e) {
+			System.err.println("Sales ledger ends with a partial record, ignoring it.");
+		} catch (IOException e) {
+			System.err.println("Error reading sales ledger: " + e.getMessage());
+		}
+		return valid;
+	}
+
+	public ArrayList<Record> readAll() {
+		ArrayList<Record> records = new ArrayList<>();
+		forEach(records::add);
+		return records;
+	}
+
+	// Records of the days from both dates inclusive
+	public ArrayList<Record> read(LocalDate from, LocalDate to) {
+		ArrayList<Record> records = new ArrayList<>();
+		forEach(record -> {
+			LocalDate day = record.getSaleDay();
+			if (!day.isBefore(from) && !day.isAfter(to)) {
+				records.add(record);
+			}
+		});
+		return records;
+	}
+
+	/**
+	 * The first ledger is filled from the saved receipts, so history from
+	 * before the ledger is not lost. Those records have no cashier id and are
+	 * stamped at the start of their day. Returns the bill numbers filled in
+	 * this way. An existing ledger loses a torn last record, so new records
+	 * are not appended behind it. Callers hold the ledger lock.
+	 */
+	private Set<String> ensureCreated() throws IOException {
+		HashSet<String> backfilled = new HashSet<>();
+		if (checked) {
+			return backfilled;
+		}
+		if (ledgerFile.exists()) {
+			long valid = readRecords(0, record -> {});
+			if (valid < ledgerFile.length()) {
+				try (RandomAccessFile file = new RandomAccessFile(ledgerFile, "rw")) {
+					file.setLength(valid);
+				}
+			}
+		} else {
+			ArrayList<Record> records = BillScanner.getInstance().scan(BillPartitions.listAllReceipts(billDirectory),
+					ArrayList::new,
+					(found, receipt) -> found.add(new Record(receipt.getBillNumber(),
+							LocalDate.ofEpochDay(receipt.getEpochDay()).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+							0, receipt.getCashierName(), receipt.getSector(), receipt.getTotalCents(), receipt.getLineCount())),
+					(left, right) -> {
+						left.addAll(right);
+						return left;
+					});
+			records.sort(Comparator.comparingLong(Record::getEpochMillis).thenComparing(Record::getBillNumber));
+
+			ByteArrayOutputStream data = new ByteArrayOutputStream();
+			for (Record record : records) {
+				data.write(encode(record));
+				backfilled.add(record.getBillNumber());
+			}
+			AtomicFileStore.getInstance().save(ledgerFile.getPath(), data.toByteArray());
+			if (!records.isEmpty()) {
+				System.out.println("Built sales ledger from " + records.size() + " receipts.");
+			}
+		}
+		checked = true;
+		return backfilled;
+	}
+
+	private static byte[] encode(Record record) throws IOException {
+		ByteArrayOutputStream payload = new ByteArrayOutputStream(96);
+		DataOutputStream out = new DataOutputStream(payload);
+		out.writeLong(record.getEpochMillis());
+		out.writeLong(record.getTotalCents());
+		out.writeInt(record.getLineCount());
+		out.writeInt(record.getCashierId());
+		out.writeUTF(record.getBillNumber());
+		out.writeUTF(record.getCashierName() != null ? record.getCashierName() : "");
+		out.writeUTF(record.getSector() != null ? record.getSector() : "");
+
+		CRC32 crc = new CRC32();
+		crc.update(payload.toByteArray());
+		ByteArrayOutputStream framed = new ByteArrayOutputStream(payload.size() + 12);
+		DataOutputStream framedOut = new DataOutputStream(framed);
+		framedOut.writeInt(payload.size());
+		payload.writeTo(framed);
+		framedOut.writeLong(crc.getValue());
+		return framed.toByteArray();
+	}
+
+	private static Record decode(byte[] payload) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+		long epochMillis = in.readLong();
+		long totalCents = in.readLong();
+		int lineCount = in.readInt();
+		int cashierId = in.readInt();
+		String billNumber = in.readUTF();
+		String cashierName = in.readUTF();
+		String sector = in.readUTF();
+		return new Record(billNumber, epochMillis, cashierId, cashierName, sector, totalCents, lineCount);
+	}
+}
@@ -0,0 +1,49 @@
+package util;
+
+import model.Sector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Reverse map from category to the sectors listing it, over a set of sectors,
+ * so checking an item against all of a manager's sectors is one hash lookup
+ * instead of a pass over every sector's category list. Categories are
+ * normalized as in Sector.hasCategory. Built from a snapshot of the sectors;
+ * build a new one after they change.
+ */
+public class SectorCategoryIndex {
+	private final HashMap<String, ArrayList<Sector>> sectorsByCategory = new HashMap<>();
+
+	public SectorCategoryIndex(List<Sector> sectors) {
+		for (Sector sector : sectors) {
+			for (String category : sector.getCategories()) {
+				if (category == null) {
+					continue;
+				}
+				ArrayList<Sector> owners = sectorsByCategory.computeIfAbsent(Sector.normalizeCategory(category),
+						k -> new ArrayList<>(1));
+				if (!owners.contains(sector)) {
+					owners.add(sector);
+				}
+			}
+		}
+	}
+
+	public boolean covers(String category) {
+		return category != null && sectorsByCategory.containsKey(Sector.categoryKey(category));
+	}
+
+	// Sectors listing the category, in the order they were given; empty if none does
+	public List<Sector> sectorsOf(String category) {
+		ArrayList<Sector> owners = category != null ? sectorsByCategory.get(Sector.categoryKey(category)) : null;
+		return owners != null ? Collections.unmodifiableList(owners) : List.of();
+	}
+
+	// Distinct normalized categories of all the sectors
+	public List<String> categories() {
+		return new ArrayList<>(sectorsByCategory.keySet());
+	}
+}
@@ -0,0 +1,232 @@
+package util;
+
+import model.Item;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Memory-mapped table holding the two fields that change on every checkout.
+ * Header and records:
+ *   int magic | int record count | long generation
+ *   long SKU | int stockQuantity | int itemsSold
+ * A sale overwrites one 16-byte record in place instead of rewriting items.dat;
+ * descriptive item data stays in the catalog file. Records are found by their
+ * key, never by position: every rewrite of the layout moves the generation,
+ * and a process that sees a generation other than its own reads the keys
+ * again before it touches a record, so it never writes one item's stock into
+ * another item's record. Writes are made durable through AtomicFileStore
+ * syncs, so in BATCHED mode concurrent sales share one forced write.
+ */
+public class StockTable {
+	private static final int MAGIC = 0x53544B32; // "STK2"
+	private static final int NAME_KEYED_MAGIC = 0x53544B31; // "STK1", records keyed by a hash of the item name
+	private static final int HEADER_SIZE = 16; // int magic | int record count | long generation
+	private static final int RECORD_SIZE = 16;
+	private static final int MIN_CAPACITY = 1024;
+
+	private final Path path;
+	private FileChannel channel;
+	private MappedByteBuffer buffer;
+	private int capacity;
+	private int count;
+	private long generation; // of the layout the records map was read from
+	private final HashMap<Long, Integer> records = new HashMap<>(); // key -> record
+
+	public StockTable(String path) {
+		this.path = Paths.get(path);
+	}
+
+	/**
+	 * Copies stored stock levels onto the catalog items, matched by key, so a
+	 * table left half-rewritten by a crash still restores every record it holds.
+	 * Returns false if some item has no record and the table needs to be rebuilt.
+	 * A name-keyed table is restored by name once, then has to be rebuilt.
+	 */
+	public boolean restore(List<Item> items) throws IOException {
+		open(Math.max(items.size(), MIN_CAPACITY));
+		int magic = buffer.getInt(0);
+		if (magic != MAGIC && magic != NAME_KEYED_MAGIC) {
+			return false;
+		}
+		readKeys();
+		boolean complete = magic == MAGIC;
+		for (Item item : items) {
+			Integer record = records.get(magic == MAGIC ? key(item) : nameHash(item.getItemName()));
+			if (record == null) {
+				complete = false;
+				continue;
+			}
+			item.restoreStock(buffer.getInt(offset(record) + 8), buffer.getInt(offset(record) + 12));
+		}
+		return complete;
+	}
+
+	// Rewrites every record in list order and moves the generation
+	public void rebuild(List<Item> items) throws IOException {
+		open(items.size());
+		long next = buffer.getInt(0) == MAGIC ? buffer.getLong(8) + 1 : generation + 1;
+		records.clear();
+		for (int i = 0; i < items.size(); i++) {
+			writeRecord(i, items.get(i));
+			records.put(key(items.get(i)), i);
+		}
+		count = items.size();
+		generation = next;
+		buffer.putInt(4, count);
+		buffer.putLong(8, generation);
+		buffer.putInt(0, MAGIC);
+		AtomicFileStore.getInstance().awaitSync(requestSync());
+	}
+
+	/**
+	 * Overwrites the record of one item, appending one for an item the table
+	 * does not hold yet. Fails if the record found for the item holds another key.
+	 * Returns the sync to wait for before the change counts as durable.
+	 */
+	public CompletableFuture<Void> update(Item item) throws IOException {
+		if (buffer == null || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Stock table is not open");
+		}
+		refreshKeys();
+		long key = key(item);
+		Integer record = records.get(key);
+		if (record == null) {
+			record = count;
+			if (record >= capacity) {
+				open(record + 1);
+			}
+			records.put(key, record);
+			count = record + 1;
+			writeRecord(record, item);
+			buffer.putInt(4, count);
+		} else if (buffer.getLong(offset(record)) != key) {
+			throw new IOException("Stock record " + record + " does not belong to " + item.getItemName());
+		} else {
+			writeRecord(record, item);
+		}
+		return requestSync();
+	}
+
+	/**
+	 * Copies the stored stock of the item's record onto it, picking up changes
+	 * another process wrote to the shared mapping. Returns false if the table
+	 * holds no record for the item.
+	 */
+	public boolean read(Item item) {
+		if (buffer == null || buffer.getInt(0) != MAGIC) {
+			return false;
+		}
+		long key = key(item);
+		Integer record;
+		try {
+			refreshKeys();
+			record = records.get(key);
+		} catch (IOException e) {
+			return false;
+		}
+		if (record == null || buffer.getLong(offset(record)) != key) {
+			return false;
+		}
+		item.restoreStock(buffer.getInt(offset(record) + 8), buffer.getInt(offset(record) + 12));
+		return true;
+	}
+
+	// Reads the keys again when another process rewrote the layout or appended records
+	private void refreshKeys() throws IOException {
+		if (buffer.getLong(8) != generation || buffer.getInt(4) != count) {
+			readKeys();
+		}
+	}
+
+	// Maps more of the file first if another process grew the table
+	private void readKeys() throws IOException {
+		if (buffer.getInt(4) > capacity) {
+			open(buffer.getInt(4));
+		}
+		generation = buffer.getLong(8);
+		count = buffer.getInt(4);
+		records.clear();
+		for (int i = 0; i < count; i++) {
+			records.put(buffer.getLong(offset(i)), i);
+		}
+	}
+
+	private void writeRecord(int record, Item item) {
+		int offset = offset(record);
+		buffer.putLong(offset, key(item));
+		buffer.putInt(offset + 8, item.getStockQuantity());
+		buffer.putInt(offset + 12, item.getItemsSold());
+	}
+
+	// Page writes are in place; forcing the mapping writes every dirty page, so the latest request covers the others
+	private CompletableFuture<Void> requestSync() {
+		MappedByteBuffer mapped = buffer;
+		return AtomicFileStore.getInstance().requestSync(path.toAbsolutePath().toString(), mapped::force);
+	}
+
+	// Maps the file with room for at least the given number of records
+	private void open(int records) throws IOException {
+		if (channel == null) {
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+		if (buffer != null && records <= capacity) {
+			return;
+		}
+		int fileRecords = (int) Math.max(0, (channel.size() - HEADER_SIZE) / RECORD_SIZE);
+		int newCapacity = Math.max(MIN_CAPACITY, Math.max(fileRecords, capacity));
+		while (newCapacity < records) {
+			newCapacity *= 2;
+		}
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * RECORD_SIZE);
+		capacity = newCapacity;
+	}
+
+	// Marks the table as unusable so the next load rebuilds it from the catalog
+	public void invalidate() {
+		if (buffer != null) {
+			buffer.putInt(0, 0);
+			buffer.force(0, HEADER_SIZE);
+		}
+	}
+
+	public void close() throws IOException {
+		if (buffer != null) {
+			buffer.force();
+			buffer = null;
+		}
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+		capacity = 0;
+		records.clear();
+	}
+
+	private static int offset(int record) {
+		return HEADER_SIZE + record * RECORD_SIZE;
+	}
+
+	// Records and lock stripes are keyed the same way, so a rename keeps both
+	static long key(Item item) {
+		return item.getSku().getValue();
+	}
+
+	// 64-bit FNV-1a over the lower-cased name, the key of STK1 tables
+	private static long nameHash(String name) {
+		long hash = 0xcbf29ce484222325L;
+		String key = name.toLowerCase();
+		for (int i = 0; i < key.length(); i++) {
+			hash ^= key.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+}
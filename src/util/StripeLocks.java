@@ -0,0 +1,130 @@
+package util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The inventory's lock stripes. Each stripe is a ReentrantLock for the
+ * threads of this process plus one byte of the lock file, locked with
+ * FileChannel.lock, for terminals running as separate processes. Stock
+ * changes take the stripes of their items; changes that rewrite the shared
+ * files take all of them. Stripes are always taken in ascending order, which
+ * keeps two holders from deadlocking. There is one instance per lock file in
+ * a process, since the JVM refuses overlapping FileLocks of its own.
+ */
+public class StripeLocks {
+	public static final int STRIPES = 64;
+	private static final long LOCK_RETRY_NANOS = 50_000; // wait before asking for a region another terminal holds again
+
+	private static final HashMap<String, StripeLocks> instances = new HashMap<>();
+
+	private final File lockFile;
+	private final ReentrantLock[] stripes;
+	private final int[] all;
+	private FileChannel lockChannel;
+
+	public static synchronized StripeLocks forFile(String lockFile) {
+		String path = new File(lockFile).getAbsolutePath();
+		return instances.computeIfAbsent(path, p -> new StripeLocks(new File(p), STRIPES));
+	}
+
+	private StripeLocks(File lockFile, int stripeCount) {
+		this.lockFile = lockFile;
+		this.stripes = new ReentrantLock[stripeCount];
+		this.all = new int[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new ReentrantLock();
+			all[i] = i;
+		}
+	}
+
+	public int getStripeCount() {
+		return stripes.length;
+	}
+
+	// Keys are SKUs; mixed first so stripes spread evenly whatever bits the keys share
+	public int stripeOf(long key) {
+		long mixed = key * 0x9E3779B97F4A7C15L;
+		return (int) Long.remainderUnsigned(mixed ^ (mixed >>> 32), stripes.length);
+	}
+
+	// Every stripe, for changes no terminal may commit stock during
+	public List<FileLock> lockAll() throws IOException {
+		return lock(all);
+	}
+
+	/**
+	 * Takes the in-process lock, then the file region, of every stripe. Only the
+	 * thread holding a stripe's ReentrantLock ever asks for its region, so one
+	 * JVM never requests an overlapping FileLock.
+	 */
+	public List<FileLock> lock(int[] stripeIndexes) throws IOException {
+		ArrayList<FileLock> fileLocks = new ArrayList<>(stripeIndexes.length);
+		int locked = 0;
+		try {
+			FileChannel channel = lockChannel();
+			for (int index : stripeIndexes) {
+				stripes[index].lock();
+				locked++;
+				fileLocks.add(lockRegion(channel, index));
+			}
+			return fileLocks;
+		} catch (IOException | RuntimeException e) {
+			release(fileLocks);
+			for (int i = locked - 1; i >= 0; i--) {
+				stripes[stripeIndexes[i]].unlock();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Polls with tryLock instead of a blocking lock. The kernel keeps record locks
+	 * per process, not per thread, so with several threads per terminal a blocking
+	 * lock can be refused as a deadlock that the ascending order rules out.
+	 */
+	private static FileLock lockRegion(FileChannel channel, int index) throws IOException {
+		FileLock fileLock;
+		while ((fileLock = channel.tryLock(index, 1, false)) == null) {
+			LockSupport.parkNanos(LOCK_RETRY_NANOS);
+		}
+		return fileLock;
+	}
+
+	public void unlock(List<FileLock> fileLocks) {
+		int[] held = new int[fileLocks.size()];
+		for (int i = 0; i < held.length; i++) {
+			held[i] = (int) fileLocks.get(i).position();
+		}
+		release(fileLocks);
+		for (int i = held.length - 1; i >= 0; i--) {
+			stripes[held[i]].unlock();
+		}
+	}
+
+	private static void release(List<FileLock> fileLocks) {
+		for (int i = fileLocks.size() - 1; i >= 0; i--) {
+			try {
+				fileLocks.get(i).release();
+			} catch (IOException e) {
+				System.err.println("Error releasing inventory lock: " + e.getMessage());
+			}
+		}
+	}
+
+	private synchronized FileChannel lockChannel() throws IOException {
+		if (lockChannel == null || !lockChannel.isOpen()) {
+			lockChannel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+		}
+		return lockChannel;
+	}
+}
@@ -0,0 +1,272 @@
+package util;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Downscaled item images, decoded in the background and kept in an LRU
+ * bounded by memory. Lookups only touch memory: a miss is resolved on a
+ * resolver thread, which finds the file and any thumbnail ThumbnailStore has
+ * for it, and the image is handed to the caller on the FX thread. Images with
+ * a thumbnail are decoded from that instead of the original. Each entry
+ * remembers the file and modification time it came from, and a hit checks
+ * them again in the background at most every few seconds, so a replaced image
+ * file is decoded again instead of served stale. An Image is handed out while
+ * still loading; views show a placeholder until its progress reaches 1. Each
+ * entry is charged the 32-bit ARGB pixels of its size box, an upper bound of
+ * what the decoded image holds.
+ * The budget can be set in megabytes with -Dthumbnails.budget (default 64).
+ */
+public class ThumbnailCache {
+	private static final long DEFAULT_BUDGET_MB = 64;
+	private static final long REVALIDATE_MILLIS = 2000; // a hit looks at its file again at most this often
+
+	private static ThumbnailCache instance;
+
+	private final long budgetBytes;
+	private final LinkedHashMap<String, Entry> images = new LinkedHashMap<>(64, 0.75f, true); // access order
+	private final HashMap<String, List<Consumer<Image>>> pending = new HashMap<>(); // keys being resolved -> callers
+	private final ExecutorService resolver;
+	private long usedBytes;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	// One cached image and the file it was decoded from
+	private static class Entry {
+		private final Image image;
+		private final String source; // path and modification time of the decoded file
+		private final long cost;
+		private long checkedAt;
+
+		Entry(Image image, String source, long cost) {
+			this.image = image;
+			this.source = source;
+			this.cost = cost;
+			this.checkedAt = System.currentTimeMillis();
+		}
+	}
+
+	public static synchronized ThumbnailCache getInstance() {
+		if (instance == null) {
+			long budget = DEFAULT_BUDGET_MB;
+			String configured = System.getProperty("thumbnails.budget");
+			if (configured != null) {
+				try {
+					budget = Long.parseLong(configured);
+				} catch (NumberFormatException e) {
+					System.err.println("Invalid thumbnail budget " + configured + ", using " + budget + " MB");
+				}
+			}
+			instance = new ThumbnailCache(budget * 1024 * 1024);
+		}
+		return instance;
+	}
+
+	public ThumbnailCache(long budgetBytes) {
+		this.budgetBytes = budgetBytes;
+		this.resolver = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "thumbnail-resolver");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * The cached image at imagePath fitted into a size x size box, or null on a
+	 * miss. Only memory is looked at. A miss is resolved in the background and
+	 * onLoaded gets the image on the FX thread, or null if there is no such
+	 * file; a hit whose file changed calls onLoaded with the new image too.
+	 * The image may still be loading when it is handed out.
+	 */
+	public Image get(String imagePath, double size, Consumer<Image> onLoaded) {
+		if (imagePath == null || imagePath.isEmpty()) {
+			return null;
+		}
+		String key = imagePath + '|' + (int) size;
+		synchronized (this) {
+			Entry entry = images.get(key);
+			if (entry != null) {
+				hits++;
+				long now = System.currentTimeMillis();
+				if (now - entry.checkedAt >= REVALIDATE_MILLIS) {
+					entry.checkedAt = now;
+					resolveLater(key, imagePath, size, onLoaded);
+				}
+				return entry.image;
+			}
+			misses++;
+			resolveLater(key, imagePath, size, onLoaded);
+			return null;
+		}
+	}
+
+	// Callers asking for a key already being resolved wait for the same result
+	private void resolveLater(String key, String imagePath, double size, Consumer<Image> onLoaded) {
+		List<Consumer<Image>> waiting = pending.get(key);
+		if (waiting != null) {
+			waiting.add(onLoaded);
+			return;
+		}
+		waiting = new ArrayList<>();
+		waiting.add(onLoaded);
+		pending.put(key, waiting);
+		resolver.execute(() -> {
+			Image image = null;
+			try {
+				image = resolveNow(key, imagePath, size);
+			} catch (RuntimeException e) {
+				System.err.println("Could not load image " + imagePath + ": " + e.getMessage());
+			}
+			List<Consumer<Image>> callers;
+			synchronized (this) {
+				callers = pending.remove(key);
+			}
+			Image loaded = image;
+			Platform.runLater(() -> callers.forEach(caller -> caller.accept(loaded)));
+		});
+	}
+
+	// Runs on the resolver thread; the file system is only touched here
+	private Image resolveNow(String key, String imagePath, double size) {
+		File file = resolve(imagePath);
+		if (file == null) {
+			synchronized (this) {
+				Entry gone = images.get(key);
+				if (gone != null) {
+					remove(key, gone);
+				}
+			}
+			return null;
+		}
+		File thumbnail = ThumbnailStore.getInstance().find(file, size);
+		if (thumbnail != null) {
+			file = thumbnail; // pre-generated, so only a small PNG is decoded
+		}
+		String source = file.getPath() + '|' + file.lastModified();
+		synchronized (this) {
+			Entry current = images.get(key);
+			if (current != null) {
+				if (current.source.equals(source)) {
+					return current.image;
+				}
+				remove(key, current); // the file was replaced since it was decoded
+			}
+		}
+		Image image = new Image(file.toURI().toString(), size, size, true, true, true);
+		long cost = cost(size);
+		if (cost <= budgetBytes) {
+			Entry entry = new Entry(image, source, cost);
+			synchronized (this) {
+				images.put(key, entry);
+				usedBytes += cost;
+				evict();
+			}
+			// A failed decode is dropped, so the next request tries the file again
+			image.errorProperty().addListener((observable, wasError, isError) -> {
+				if (isError) {
+					remove(key, entry);
+				}
+			});
+			if (image.isError()) {
+				remove(key, entry);
+			}
+		}
+		return image;
+	}
+
+	// Drops every entry, for example after the images were regenerated
+	public synchronized void clear() {
+		images.clear();
+		usedBytes = 0;
+	}
+
+	public long getBudgetBytes() {
+		return budgetBytes;
+	}
+
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	public synchronized int size() {
+		return images.size();
+	}
+
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	public synchronized double getHitRate() {
+		long requests = hits + misses;
+		return requests == 0 ? 0 : hits / (double) requests;
+	}
+
+	public synchronized String getStatistics() {
+		return "Thumbnail cache -> Entries: " + images.size() +
+				", Used: " + usedBytes / 1024 + " KB of " + budgetBytes / 1024 + " KB" +
+				", Hits: " + hits +
+				", Misses: " + misses +
+				", Hit Rate: " + String.format("%.2f%%", getHitRate() * 100) +
+				", Evictions: " + evictions;
+	}
+
+	// Image paths are stored as plain paths or as file: URLs, which escape spaces and the like
+	public static File resolve(String imagePath) {
+		if (imagePath == null || imagePath.isEmpty()) {
+			return null;
+		}
+		File file = null;
+		if (imagePath.startsWith("file:")) {
+			try {
+				file = new File(URI.create(imagePath));
+			} catch (IllegalArgumentException e) {
+				file = new File(imagePath.substring(5));
+			}
+		} else {
+			file = new File(imagePath);
+		}
+		return file.isFile() ? file : null;
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<String, Entry>> eldest = images.entrySet().iterator();
+		while (usedBytes > budgetBytes && eldest.hasNext()) {
+			Map.Entry<String, Entry> entry = eldest.next();
+			usedBytes -= entry.getValue().cost;
+			eldest.remove();
+			evictions++;
+		}
+	}
+
+	private synchronized void remove(String key, Entry entry) {
+		if (images.remove(key, entry)) {
+			usedBytes -= entry.cost;
+		}
+	}
+
+	private static long cost(double size) {
+		long side = (long) Math.ceil(size);
+		return side * side * 4;
+	}
+}
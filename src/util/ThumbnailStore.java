@@ -0,0 +1,297 @@
+package util;
+
+import model.Item;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pre-generated thumbnails of the item images, so views never decode the
+ * original multi-megabyte files. Every image gets a PNG per size in SIZES,
+ * named after the SHA-256 of the original's content, so items sharing an
+ * image share its thumbnails and a replaced image gets new ones.
+ * thumbnails.idx maps each original path, with the length and modification
+ * time it had, to that hash; an original changed since is treated as having
+ * no thumbnail until it is generated again.
+ * The backfill job, run as main or through backfill(), covers items stored
+ * before thumbnails existed, on -Dthumbnails.parallelism threads
+ * (default one per core).
+ */
+public class ThumbnailStore {
+	public static final int[] SIZES = { 150, 250 };
+	private static final String DIRECTORY = "src/BinaryFiles/Thumbnails/";
+	private static final String INDEX_FILE = "thumbnails.idx";
+
+	private static ThumbnailStore instance;
+
+	private final File directory;
+	private final File indexFile;
+	private final HashMap<String, Source> sources = new HashMap<>(); // original path -> what it was when thumbnailed
+	private boolean loaded = false;
+
+	// One original image as it was when its thumbnails were made
+	private static class Source {
+		private final String hash;
+		private final long length;
+		private final long lastModified;
+
+		Source(String hash, long length, long lastModified) {
+			this.hash = hash;
+			this.length = length;
+			this.lastModified = lastModified;
+		}
+
+		boolean matches(File original) {
+			return original.length() == length && original.lastModified() == lastModified;
+		}
+	}
+
+	public static synchronized ThumbnailStore getInstance() {
+		if (instance == null) {
+			instance = new ThumbnailStore(DIRECTORY);
+		}
+		return instance;
+	}
+
+	public ThumbnailStore(String directory) {
+		this.directory = new File(directory);
+		this.indexFile = new File(directory, INDEX_FILE);
+	}
+
+	// Runs the backfill over the stored inventory
+	public static void main(String[] args) {
+		ArrayList<Item> items = InventoryRepository.getInstance().findAll();
+		long start = System.nanoTime();
+		int generated = getInstance().backfill(items, parallelism());
+		System.out.printf("Thumbnails generated for %d of %d items in %.1f s%n", generated, items.size(),
+				(System.nanoTime() - start) / 1e9);
+	}
+
+	/**
+	 * The stored thumbnail of at least size pixels for the image, or null if
+	 * there is none or the original changed since it was made.
+	 */
+	public File find(File original, double size) {
+		Source source;
+		synchronized (this) {
+			ensureLoaded();
+			source = sources.get(original.getAbsolutePath());
+		}
+		if (source == null || !source.matches(original)) {
+			return null;
+		}
+		for (int thumbnailSize : SIZES) {
+			if (thumbnailSize >= size) {
+				File thumbnail = thumbnailFile(source.hash, thumbnailSize);
+				return thumbnail.isFile() ? thumbnail : null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Writes the thumbnails of the image unless they are already there.
+	 * Returns false when there is nothing to do: no such file or an up to date entry.
+	 */
+	public boolean generate(String imagePath) throws IOException {
+		return generate(imagePath, true);
+	}
+
+	private boolean generate(String imagePath, boolean saveIndex) throws IOException {
+		File original = ThumbnailCache.resolve(imagePath);
+		if (original == null) {
+			return false;
+		}
+		String path = original.getAbsolutePath();
+		synchronized (this) {
+			ensureLoaded();
+			Source known = sources.get(path);
+			if (known != null && known.matches(original) && thumbnailFile(known.hash, SIZES[0]).isFile()) {
+				return false;
+			}
+		}
+
+		long lastModified = original.lastModified();
+		byte[] content = Files.readAllBytes(original.toPath());
+		String hash = sha256(content);
+		BufferedImage image = null;
+		for (int size : SIZES) {
+			File thumbnail = thumbnailFile(hash, size);
+			if (thumbnail.isFile()) {
+				continue; // the same content was thumbnailed for another path
+			}
+			if (image == null) {
+				image = ImageIO.read(new ByteArrayInputStream(content));
+				if (image == null) {
+					throw new IOException("Unsupported image format: " + original);
+				}
+			}
+			write(scale(image, size), thumbnail);
+		}
+
+		synchronized (this) {
+			sources.put(path, new Source(hash, content.length, lastModified));
+			if (saveIndex) {
+				saveIndex();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Generates the missing thumbnails of the items' images, each distinct
+	 * image once, spread over parallelism threads. Returns how many images
+	 * were thumbnailed; unreadable ones are reported and skipped.
+	 */
+	public int backfill(List<Item> items, int parallelism) {
+		LinkedHashSet<String> paths = new LinkedHashSet<>();
+		for (Item item : items) {
+			if (item.getImagePath() != null && !item.getImagePath().isEmpty()) {
+				paths.add(item.getImagePath());
+			}
+		}
+		AtomicInteger generated = new AtomicInteger();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.submit(() -> paths.parallelStream().forEach(path -> {
+				try {
+					if (generate(path, false)) {
+						generated.incrementAndGet();
+					}
+				} catch (IOException | RuntimeException e) {
+					System.err.println("Skipping thumbnail for " + path + ": " + e.getMessage());
+				}
+			})).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			System.err.println("Thumbnail backfill failed: " + e.getCause().getMessage());
+		} finally {
+			pool.shutdown();
+		}
+		if (generated.get() > 0) {
+			synchronized (this) {
+				try {
+					saveIndex(); // once for the whole batch
+				} catch (IOException e) {
+					System.err.println("Error saving thumbnail index: " + e.getMessage());
+				}
+			}
+		}
+		return generated.get();
+	}
+
+	// Parallelism can be chosen with -Dthumbnails.parallelism=<threads>, default is one per core
+	public static int parallelism() {
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		String configured = System.getProperty("thumbnails.parallelism");
+		if (configured != null) {
+			try {
+				parallelism = Math.max(1, Integer.parseInt(configured));
+			} catch (NumberFormatException e) {
+				System.err.println("Invalid thumbnail parallelism " + configured + ", using " + parallelism);
+			}
+		}
+		return parallelism;
+	}
+
+	/**
+	 * Fits the image into a size x size box, halving it in steps first so
+	 * bilinear filtering still averages every source pixel.
+	 */
+	private static BufferedImage scale(BufferedImage image, int size) {
+		double ratio = Math.min(1.0, size / (double) Math.max(image.getWidth(), image.getHeight()));
+		int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+		int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+		BufferedImage current = image;
+		int width = image.getWidth();
+		int height = image.getHeight();
+		do {
+			width = Math.max(targetWidth, width / 2);
+			height = Math.max(targetHeight, height / 2);
+			BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D graphics = step.createGraphics();
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.drawImage(current, 0, 0, width, height, null);
+			graphics.dispose();
+			current = step;
+		} while (width != targetWidth || height != targetHeight);
+		return current;
+	}
+
+	// Written next to the target and moved into place, so readers never see half a file
+	private void write(BufferedImage thumbnail, File target) throws IOException {
+		directory.mkdirs();
+		File temp = File.createTempFile(target.getName(), ".tmp", directory);
+		try {
+			ImageIO.write(thumbnail, "png", temp);
+			Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp.toPath());
+		}
+	}
+
+	private File thumbnailFile(String hash, int size) {
+		return new File(directory, hash + "-" + size + ".png");
+	}
+
+	// Index lines: hash, length, last modified, original path
+	private void ensureLoaded() {
+		if (loaded) {
+			return;
+		}
+		loaded = true;
+		if (!indexFile.exists()) {
+			return;
+		}
+		try {
+			for (String line : Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8)) {
+				String[] fields = line.split("\t", 4);
+				if (fields.length == 4) {
+					sources.put(fields[3], new Source(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			System.err.println("Error reading thumbnail index, thumbnails will be regenerated: " + e.getMessage());
+		}
+	}
+
+	private void saveIndex() throws IOException {
+		StringBuilder index = new StringBuilder();
+		sources.forEach((path, source) -> index.append(source.hash).append('\t').append(source.length).append('\t')
+				.append(source.lastModified).append('\t').append(path).append('\n'));
+		directory.mkdirs();
+		AtomicFileStore.getInstance().save(indexFile.getPath(), index.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String sha256(byte[] content) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+			StringBuilder hex = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+}
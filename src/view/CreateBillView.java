@@ -1,6 +1,8 @@
 package view;
 
 import controller.CreateBillController;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
@@ -92,7 +94,19 @@ public class CreateBillView {
 		});
 		
 		finalizeBillButton.setOnAction(event -> {
-			this.createBillController.finalizeBill(this.cashier.getName(), this.sector.getName());
+			Task<String> saving = this.createBillController.finalizeBill(this.cashier, this.sector.getName());
+			if (saving == null) {
+				return;
+			}
+			// No second finalize or new items while the bill is being written
+			finalizeBillButton.setDisable(true);
+			addItemButton.setDisable(true);
+			saving.stateProperty().addListener((obs, oldState, state) -> {
+				if (state == Worker.State.SUCCEEDED || state == Worker.State.FAILED || state == Worker.State.CANCELLED) {
+					finalizeBillButton.setDisable(false);
+					addItemButton.setDisable(false);
+				}
+			});
 		});
 		
 	}
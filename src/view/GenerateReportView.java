@@ -1,6 +1,8 @@
 package view;
 
 import controller.GenerateReportController;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -8,9 +10,17 @@ import javafx.scene.effect.DropShadow;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import model.Manager;
+import util.BackgroundTasks;
+
+import java.time.LocalDate;
 
 public class GenerateReportView {
+	private static final String WHOLE_STORE = "Whole Store";
+	private static final String SECTOR_PREFIX = "Sector: ";
+	private static final String CASHIER_PREFIX = "Cashier: ";
+
 	private GenerateReportController controller;
+	private boolean applyingPreset; // the pickers' own events are not user edits then
 
 	 public GenerateReportView(Manager manager, GenerateReportController controller) {
 	        this.controller = controller;
@@ -30,9 +40,54 @@ public class GenerateReportView {
         timePeriodLabel.setTextFill(Color.WHITE);
 
         ComboBox<String> timePeriodCombo = new ComboBox<>();
-        timePeriodCombo.getItems().addAll("Last 7 Days", "Last Month");
+        timePeriodCombo.getItems().addAll("Last 7 Days", "Last Month", "Custom Range");
         timePeriodCombo.setValue("Last 7 Days");
 
+        // Any date range can be picked, the presets only fill in the dates
+        LocalDate today = LocalDate.now();
+        DatePicker fromPicker = new DatePicker(controller.periodStart("Last 7 Days", today));
+        DatePicker toPicker = new DatePicker(today);
+        Label fromLabel = new Label("From:");
+        fromLabel.setTextFill(Color.WHITE);
+        Label toLabel = new Label("To:");
+        toLabel.setTextFill(Color.WHITE);
+        HBox rangeBox = new HBox(10, fromLabel, fromPicker, toLabel, toPicker);
+        rangeBox.setAlignment(Pos.CENTER);
+
+        timePeriodCombo.setOnAction(event -> {
+            String timePeriod = timePeriodCombo.getValue();
+            if (timePeriod != null && !timePeriod.equals("Custom Range")) {
+                applyingPreset = true;
+                try {
+                    fromPicker.setValue(controller.periodStart(timePeriod, LocalDate.now()));
+                    toPicker.setValue(LocalDate.now());
+                } finally {
+                    applyingPreset = false;
+                }
+            }
+        });
+        fromPicker.setOnAction(event -> {
+            if (!applyingPreset) {
+                timePeriodCombo.setValue("Custom Range");
+            }
+        });
+        toPicker.setOnAction(event -> {
+            if (!applyingPreset) {
+                timePeriodCombo.setValue("Custom Range");
+            }
+        });
+
+        // Report for the whole store, one sector or one cashier
+        ComboBox<String> scopeCombo = new ComboBox<>();
+        scopeCombo.getItems().add(WHOLE_STORE);
+        for (String sector : controller.loadSectorNames()) {
+            scopeCombo.getItems().add(SECTOR_PREFIX + sector);
+        }
+        for (String cashier : controller.loadCashierNames()) {
+            scopeCombo.getItems().add(CASHIER_PREFIX + cashier);
+        }
+        scopeCombo.setValue(WHOLE_STORE);
+
         TextArea reportArea = new TextArea();
         reportArea.setEditable(false);
         reportArea.setPrefHeight(150);
@@ -40,19 +95,51 @@ public class GenerateReportView {
         Button generateButton = new Button("Generate Report");
         generateButton.setStyle("-fx-background-color: #3498DB; -fx-text-fill: white; -fx-padding: 12px 20px; -fx-border-radius: 5;");
         generateButton.setFont(new javafx.scene.text.Font("Arial", 14));
+
+        // Reports run in the background, with a spinner and a way to give up on them
+        ProgressIndicator reportProgress = new ProgressIndicator();
+        reportProgress.setPrefSize(24, 24);
+        Button cancelButton = new Button("Cancel");
+        HBox progressBox = new HBox(10, reportProgress, cancelButton);
+        progressBox.setAlignment(Pos.CENTER);
+        progressBox.setVisible(false);
+
         generateButton.setOnAction(event -> {
-            String timePeriod = timePeriodCombo.getValue();
-            if (timePeriod == null || timePeriod.isEmpty()) {
-                reportArea.setText("Please select a valid time period.");
-            } else {
-                // Call the controller's method to generate the report
-                String report = controller.generateSalesReport(timePeriod);
-                reportArea.setText(report);
+            LocalDate from = fromPicker.getValue();
+            LocalDate to = toPicker.getValue();
+            String scope = scopeCombo.getValue();
+            if (from == null || to == null || from.isAfter(to)) {
+                reportArea.setText("Please select a valid date range.");
+                return;
             }
+
+            generateButton.setDisable(true);
+            progressBox.setVisible(true);
+            reportArea.setText("Generating report...");
+            Task<String> report = BackgroundTasks.getInstance().submit(progress -> {
+                if (scope != null && scope.startsWith(SECTOR_PREFIX)) {
+                    return controller.generateSectorReport(scope.substring(SECTOR_PREFIX.length()), from, to);
+                } else if (scope != null && scope.startsWith(CASHIER_PREFIX)) {
+                    return controller.generateCashierReport(scope.substring(CASHIER_PREFIX.length()), from, to);
+                }
+                // Call the controller's method to generate the report
+                return controller.generateSalesReport(from, to);
+            }, reportArea::setText, error -> reportArea.setText("Error generating report: " + error.getMessage()));
+
+            cancelButton.setOnAction(cancel -> {
+                report.cancel();
+                reportArea.setText("Report cancelled.");
+            });
+            report.stateProperty().addListener((obs, oldState, state) -> {
+                if (state == Worker.State.SUCCEEDED || state == Worker.State.FAILED || state == Worker.State.CANCELLED) {
+                    generateButton.setDisable(false);
+                    progressBox.setVisible(false);
+                }
+            });
         });
 
         parentLayout.setEffect(createDropShadowEffect());
-        parentLayout.getChildren().addAll(titleLabel, timePeriodLabel, timePeriodCombo, generateButton, reportArea);
+        parentLayout.getChildren().addAll(titleLabel, timePeriodLabel, timePeriodCombo, rangeBox, scopeCombo, generateButton, progressBox, reportArea);
 
         return parentLayout;
     }
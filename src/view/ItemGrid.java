@@ -0,0 +1,165 @@
+package view;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import model.Item;
+import util.ThumbnailCache;
+
+// Grid of item cards laid out as rows of a ListView. Only the rows on screen get
+// a cell, and cells are handed new rows while scrolling, so the scene graph stays
+// the size of the viewport however many items match.
+public class ItemGrid {
+    private static final double CARD_WIDTH = 200;
+    private static final double IMAGE_SIZE = 150;
+    private static final double GAP = 30; // between cards, across and down
+    private static final double ROW_HEIGHT = 300 + GAP;
+    private static final double SIDE_SPACE = 60; // list padding and scroll bar
+
+    private final ListView<List<Item>> rows = new ListView<>();
+    private final Consumer<Item> onOpen;
+    private List<Item> items = new ArrayList<>();
+    private int columns = 0;
+
+    public ItemGrid(Consumer<Item> onOpen) {
+        this.onOpen = onOpen;
+        rows.setCellFactory(list -> new RowCell());
+        rows.setFixedCellSize(ROW_HEIGHT); // lets the list skip measuring each row
+        rows.setFocusTraversable(false);
+        rows.setStyle("-fx-background-color: transparent; -fx-background-insets: 0; -fx-padding: 20px;");
+        rows.widthProperty().addListener((observable, oldWidth, newWidth) -> regroup(false));
+    }
+
+    // Shows the items in order, scrolled back to the top
+    public void setItems(List<Item> items) {
+        this.items = items;
+        regroup(true);
+        rows.scrollTo(0);
+    }
+
+    public ListView<List<Item>> getViewContent() {
+        return rows;
+    }
+
+    // Splits the items into rows of as many cards as fit the width
+    private void regroup(boolean force) {
+        int fit = Math.max(1, (int) ((rows.getWidth() - SIDE_SPACE + GAP) / (CARD_WIDTH + GAP)));
+        if (!force && fit == columns) {
+            return;
+        }
+        columns = fit;
+        ArrayList<List<Item>> grouped = new ArrayList<>((items.size() + columns - 1) / columns);
+        for (int i = 0; i < items.size(); i += columns) {
+            grouped.add(items.subList(i, Math.min(i + columns, items.size())));
+        }
+        rows.getItems().setAll(grouped);
+    }
+
+    // One row of cards; the cards are kept and refilled when the cell gets another row
+    private class RowCell extends ListCell<List<Item>> {
+        private final HBox row = new HBox(GAP);
+        private final ArrayList<ItemCard> cards = new ArrayList<>();
+
+        RowCell() {
+            row.setAlignment(Pos.TOP_CENTER);
+            setStyle("-fx-background-color: transparent; -fx-padding: 0;");
+        }
+
+        @Override
+        protected void updateItem(List<Item> rowItems, boolean empty) {
+            super.updateItem(rowItems, empty);
+            setText(null);
+            if (empty || rowItems == null) {
+                setGraphic(null);
+                return;
+            }
+            while (cards.size() < rowItems.size()) {
+                cards.add(new ItemCard(onOpen));
+            }
+            for (int i = 0; i < rowItems.size(); i++) {
+                cards.get(i).show(rowItems.get(i));
+            }
+            if (row.getChildren().size() != rowItems.size()) {
+                row.getChildren().setAll(cards.subList(0, rowItems.size()));
+            }
+            setGraphic(row);
+        }
+    }
+
+    // One card; its nodes and styles are made once and only its content changes
+    private static class ItemCard extends VBox {
+        private final ImageView imageView = new ImageView();
+        private final Region placeholder = new Region(); // shown until the thumbnail is decoded
+        private final StackPane imageBox = new StackPane(placeholder, imageView);
+        private final Label itemName = new Label();
+        private final Label itemPrice = new Label();
+        private final Label itemStock = new Label();
+        private Item item;
+        private Image image;
+
+        ItemCard(Consumer<Item> onOpen) {
+            super(10);
+            setAlignment(Pos.CENTER);
+            setStyle("-fx-background-color: #ffffff; -fx-border-color: #cccccc; -fx-border-radius: 15px; -fx-padding: 15px; -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.1), 5, 0, 0, 5);");
+            setPrefWidth(CARD_WIDTH);
+            setMinWidth(CARD_WIDTH);
+
+            imageView.setFitWidth(IMAGE_SIZE);
+            imageView.setFitHeight(IMAGE_SIZE);
+            imageView.setPreserveRatio(true);
+            imageView.setSmooth(true);
+            placeholder.setStyle("-fx-background-color: #eeeeee; -fx-background-radius: 10px;");
+            placeholder.setMaxSize(IMAGE_SIZE, IMAGE_SIZE);
+            imageBox.setPrefSize(IMAGE_SIZE, IMAGE_SIZE);
+            itemName.setStyle("-fx-font-size: 14px; -fx-font-weight: bold; -fx-text-fill: #333333;");
+            itemPrice.setStyle("-fx-font-size: 14px; -fx-text-fill: #666666;");
+            itemStock.setStyle("-fx-font-size: 14px; -fx-text-fill: #999999;");
+            getChildren().addAll(imageBox, itemName, itemPrice, itemStock);
+
+            setOnMouseClicked(event -> onOpen.accept(item));
+        }
+
+        void show(Item item) {
+            this.item = item;
+            itemName.setText(item.getItemName());
+            itemPrice.setText("$" + item.getPrice());
+            itemStock.setText("Stock: " + item.getStockQuantity());
+
+            // Decoded at card size, in the background and only once while it stays cached.
+            // On a miss the placeholder stays until the file is found; the card may show another item by then
+            String imagePath = item.getImagePath();
+            boolean hasImage = imagePath != null && !imagePath.isEmpty();
+            Image thumbnail = ThumbnailCache.getInstance().get(imagePath, IMAGE_SIZE, loaded -> {
+                if (this.item == item) {
+                    showImage(loaded, loaded != null);
+                }
+            });
+            showImage(thumbnail, hasImage);
+        }
+
+        private void showImage(Image thumbnail, boolean hasImage) {
+            if (thumbnail != image) {
+                image = thumbnail;
+                imageView.setImage(thumbnail);
+                placeholder.visibleProperty().unbind();
+                if (thumbnail != null) {
+                    placeholder.visibleProperty().bind(thumbnail.progressProperty().lessThan(1).or(thumbnail.errorProperty()));
+                } else {
+                    placeholder.setVisible(true);
+                }
+            }
+            imageBox.setVisible(hasImage);
+            imageBox.setManaged(hasImage);
+        }
+    }
+}
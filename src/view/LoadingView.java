@@ -0,0 +1,55 @@
+package view;
+
+import javafx.concurrent.Task;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+
+// Shown while a background task loads data, bound to the task's progress and message
+public class LoadingView {
+
+    private final VBox layout;
+    private final ProgressIndicator progressIndicator;
+    private final Label messageLabel;
+    private final Button cancelButton;
+
+    public LoadingView(String message) {
+        progressIndicator = new ProgressIndicator();
+        messageLabel = new Label(message);
+        messageLabel.setFont(new Font("Arial", 14));
+        cancelButton = new Button("Cancel");
+        cancelButton.setVisible(false);
+
+        layout = new VBox(15, progressIndicator, messageLabel, cancelButton);
+        layout.setAlignment(Pos.CENTER);
+        layout.setStyle("-fx-background-color: #f4f4f4;");
+    }
+
+    // Follows the task's progress; the cancel button is only shown when cancellable is true
+    public void bind(Task<?> task, boolean cancellable) {
+        progressIndicator.progressProperty().bind(task.progressProperty());
+        task.messageProperty().addListener((obs, oldMessage, newMessage) -> {
+            if (newMessage != null && !newMessage.isEmpty()) {
+                messageLabel.setText(newMessage);
+            }
+        });
+        cancelButton.setVisible(cancellable);
+        cancelButton.setOnAction(event -> task.cancel());
+    }
+
+    // Stops the indicator and leaves the error on screen
+    public void showError(String message) {
+        progressIndicator.progressProperty().unbind();
+        progressIndicator.setVisible(false);
+        cancelButton.setVisible(false);
+        messageLabel.setText(message);
+        messageLabel.setStyle("-fx-text-fill: red;");
+    }
+
+    public VBox getViewContent() {
+        return layout;
+    }
+}
@@ -11,6 +11,7 @@ import controller.ManagerController;
 import model.Manager;
 import model.Sector;
 import util.FileHandlerMANAGER;
+import util.LowStockIndex;
 import model.Item;
 
 import java.util.ArrayList;
@@ -21,6 +22,7 @@ public class ManagerView {
 
     private Manager manager;
     private FileHandlerMANAGER fileHandler;
+    private Text lowStockMessage;
 
     public ManagerView(ManagerController managerController, Stage primaryStage, Manager manager, FileHandlerMANAGER fileHandler) {
         this.managerController = managerController;
@@ -56,7 +58,7 @@ public class ManagerView {
         homeContent.getChildren().addAll(welcomeMessage, managerInfo, header);
 
         String lowStockInfo = getLowStockInfo();
-        Text lowStockMessage = new Text(lowStockInfo);
+        lowStockMessage = new Text(lowStockInfo);
         lowStockMessage.setStyle("-fx-font-size: 18px; -fx-fill: white;");
         homeContent.getChildren().add(lowStockMessage);
 
@@ -136,31 +138,26 @@ public class ManagerView {
         centerContent.getChildren().clear();
         centerContent.getChildren().add(homeContent);
     }
+    // Called when an item crosses the low-stock threshold
+    public void refreshLowStock() {
+        if (lowStockMessage != null) {
+            lowStockMessage.setText(getLowStockInfo());
+        }
+    }
+
     private String getLowStockInfo() {
         ArrayList<Sector> managerSectors = manager.getSectors();  // gets manager's assigned sectors
-        ArrayList<Item> lowStockItems = fileHandler.notifyLowStockforManager(5, managerSectors);  
+        ArrayList<Item> lowStockItems = fileHandler.notifyLowStockforManager(LowStockIndex.ALERT_THRESHOLD, managerSectors);
         if (lowStockItems.isEmpty()) {
             return "No low stock items.";
         }
         StringBuilder lowStockInfo = new StringBuilder("Low Stock Items:\n");
 
         for (Item item : lowStockItems) {
-            boolean isCategoryInSector = false;
-            for (Sector sector : managerSectors) {
-                // Check if the item’s category is in the sector's categories
-                if (sector.getCategories().contains(item.getCategory())) {
-                    isCategoryInSector = true;
-                    break;
-                }
-            }
-
-            // If the category is in the sector, add the item to the list
-            if (isCategoryInSector && item.getStockQuantity() <= 5) {
-                lowStockInfo.append("Item Name: ").append(item.getItemName())
-                            .append(", Category: ").append(item.getCategory())
-                            .append(", Stock: ").append(item.getStockQuantity())
-                            .append("\n");
-            }
+            lowStockInfo.append("Item Name: ").append(item.getItemName())
+                        .append(", Category: ").append(item.getCategory())
+                        .append(", Stock: ").append(item.getStockQuantity())
+                        .append("\n");
         }
 
         return lowStockInfo.toString();
@@ -94,7 +94,7 @@ public class RestockItemView {
 
                 // Call controller method to handle restocking
                 RestockItemController controller = new RestockItemController(manager, fileHandler);
-                controller.restockItem(selectedItem, quantity, itemsToRestock);
+                controller.restockItem(selectedItem, quantity);
 
                 showSuccess("Item restocked successfully!");
 
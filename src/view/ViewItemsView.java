@@ -1,10 +1,13 @@
 package view;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.Comparator;
-import javafx.geometry.Insets;
+import java.util.List;
+import java.util.function.Consumer;
+import javafx.animation.PauseTransition;
+import javafx.concurrent.Task;
 import javafx.geometry.Pos;
+import javafx.geometry.Side;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
@@ -12,14 +15,23 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import model.Item;
 import model.Manager;
+import util.BackgroundTasks;
 import util.FileHandlerMANAGER;
+import util.ItemSearchIndex;
+import util.ThumbnailCache;
 
 public class ViewItemsView {
     private Manager manager;
     private FileHandlerMANAGER fileHandler;
-    private ArrayList<Item> items = new ArrayList<Item>();
+    private ItemGrid itemGrid;
+    private Task<ArrayList<Item>> loadTask; // the item load currently running, if any
+    private Task<ArrayList<String>> suggestTask; // the autocomplete lookup currently running, if any
+    private boolean resetting; // set while Reset Filters changes the controls, so they do not query one by one
+    private static final Duration SEARCH_DEBOUNCE = Duration.millis(150); // typing pause before a query runs
+    private static final int SUGGESTIONS = 8;
 
     public ViewItemsView(Manager manager, FileHandlerMANAGER fileHandler) {
         this.manager = manager;
@@ -54,37 +66,54 @@ public class ViewItemsView {
         sortComboBox.setValue("Low to High");
         sortComboBox.setStyle("-fx-font-size: 14px; -fx-border-radius: 10px; -fx-padding: 5px;");
 
-        FlowPane itemsFlowPane = new FlowPane();
-        itemsFlowPane.setHgap(30); // Horizontal gap between items
-        itemsFlowPane.setVgap(30); // Vertical gap between items
-        itemsFlowPane.setAlignment(Pos.CENTER); // Center items within the FlowPane
-        itemsFlowPane.setPadding(new Insets(20)); // Add padding around the FlowPane
+        // Only the cards in view are built, and they are reused while scrolling
+        itemGrid = new ItemGrid(item -> openItemDetailsPage(item, (Stage) itemGrid.getViewContent().getScene().getWindow()));
+        ListView<List<Item>> itemsList = itemGrid.getViewContent();
 
-        itemsFlowPane.prefWidthProperty().bind(layout.widthProperty());
+        // Make the grid grow to fill remaining space
+        VBox.setVgrow(itemsList, Priority.ALWAYS);
 
-        // Wrap the FlowPane in a ScrollPane for scrolling
-        ScrollPane itemsScrollPane = new ScrollPane(itemsFlowPane);
-        itemsScrollPane.setFitToWidth(true); // Ensure it resizes horizontally
-        itemsScrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
-        itemsScrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        itemsScrollPane.setStyle("-fx-background-color: transparent;");
-
-        // Make itemsScrollPane grow to fill remaining space
-        VBox.setVgrow(itemsScrollPane, Priority.ALWAYS);
+        // Queries run once typing pauses, not on every keystroke
+        ContextMenu suggestionsMenu = new ContextMenu();
+        PauseTransition searchDelay = new PauseTransition(SEARCH_DEBOUNCE);
+        searchDelay.setOnFinished(event -> {
+            updateFilters(searchField, filterComboBox, sortComboBox, itemGrid);
+            showSuggestions(searchField, suggestionsMenu);
+        });
 
         // Add listeners for filters using lambda
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> updateFilters(searchField, filterComboBox, sortComboBox, itemsFlowPane));
-        filterComboBox.valueProperty().addListener((observable, oldValue, newValue) -> updateFilters(searchField, filterComboBox, sortComboBox, itemsFlowPane));
-        sortComboBox.valueProperty().addListener((observable, oldValue, newValue) -> updateFilters(searchField, filterComboBox, sortComboBox, itemsFlowPane));
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (!resetting) {
+                searchDelay.playFromStart();
+            }
+        });
+        filterComboBox.valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!resetting) {
+                updateFilters(searchField, filterComboBox, sortComboBox, itemGrid);
+            }
+        });
+        sortComboBox.valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!resetting) {
+                updateFilters(searchField, filterComboBox, sortComboBox, itemGrid);
+            }
+        });
 
         // Reset Filters Button
         Button resetButton = new Button("Reset Filters");
         styleResetButton(resetButton);
+        // The controls change with their listeners muted, then a single query runs
         resetButton.setOnAction(e -> {
-            searchField.clear();
-            filterComboBox.setValue("All");
-            sortComboBox.setValue("Low to High");
-            displayItems(itemsFlowPane, "", "All", "Low to High");
+            resetting = true;
+            try {
+                searchDelay.stop();
+                searchField.clear();
+                filterComboBox.setValue("All");
+                sortComboBox.setValue("Low to High");
+            } finally {
+                resetting = false;
+            }
+            suggestionsMenu.hide();
+            displayItems(itemGrid, "", "All", "Low to High");
         });
 
         HBox searchBox = new HBox(15, searchLabel, searchField);
@@ -97,9 +126,9 @@ public class ViewItemsView {
         sortBox.setAlignment(Pos.CENTER_LEFT);
         buttonBox.setAlignment(Pos.CENTER_LEFT);
 
-        layout.getChildren().addAll(searchBox, filterBox, sortBox, buttonBox, itemsScrollPane);
+        layout.getChildren().addAll(searchBox, filterBox, sortBox, buttonBox, itemsList);
 
-        displayItems(itemsFlowPane, "", "All", "Low to High");
+        displayItems(itemGrid, "", "All", "Low to High");
 
         ScrollPane mainScrollPane = new ScrollPane(layout);
         mainScrollPane.setFitToWidth(true);
@@ -111,93 +140,77 @@ public class ViewItemsView {
     }
 
 
-    private void displayItems(FlowPane flowPane, String searchQuery, String categoryFilter, String sortOrder) {
-        flowPane.getChildren().clear();
-
-        items = fileHandler.loadInventory();
-
-        if (categoryFilter == null) {
-            categoryFilter = "All"; 
+    // Searches, filters and sorts in the background; a newer call cancels the load still running
+    private void displayItems(ItemGrid grid, String searchQuery, String categoryFilter, String sortOrder) {
+        if (loadTask != null) {
+            loadTask.cancel();
         }
+        String category = categoryFilter != null ? categoryFilter : "All";
+        String query = searchQuery != null ? searchQuery.toLowerCase() : "";
 
-        ArrayList<Item> filteredItems = new ArrayList<>();
+        loadTask = BackgroundTasks.getInstance().submit(progress -> {
+            ArrayList<Item> filteredItems = new ArrayList<>();
 
-        for (Item item : items) {
-            boolean matchesSearchQuery = searchQuery == null || searchQuery.isEmpty() || 
-                                          item.getItemName().toLowerCase().contains(searchQuery.toLowerCase());
-            boolean matchesCategory = categoryFilter.equals("All") || 
-                                      (item.getCategory() != null && item.getCategory().equalsIgnoreCase(categoryFilter));
+            // The index only hands back names containing the query
+            for (Item item : ItemSearchIndex.getInstance().search(query)) {
+                if (progress.isCancelled()) {
+                    return filteredItems;
+                }
+                boolean matchesCategory = category.equals("All") ||
+                                          (item.getCategory() != null && item.getCategory().equalsIgnoreCase(category));
 
-            if (matchesSearchQuery && matchesCategory) {
-                filteredItems.add(item);
+                if (matchesCategory) {
+                    filteredItems.add(item);
+                }
             }
-        }
 
-        if ("Low to High".equals(sortOrder)) {
-            filteredItems.sort(Comparator.comparingDouble(Item::getPrice)); // Ascending order
-        } else if ("High to Low".equals(sortOrder)) {
-            filteredItems.sort((item1, item2) -> Double.compare(item2.getPrice(), item1.getPrice())); // Descending order
-        }
-
-        for (Item item : filteredItems) {
-            displayItem(flowPane, item);
-        }
+            if ("Low to High".equals(sortOrder)) {
+                filteredItems.sort(Comparator.comparingDouble(Item::getPrice)); // Ascending order
+            } else if ("High to Low".equals(sortOrder)) {
+                filteredItems.sort((item1, item2) -> Double.compare(item2.getPrice(), item1.getPrice())); // Descending order
+            }
+            return filteredItems;
+        }, grid::setItems, error -> System.err.println("Error loading items: " + error.getMessage()));
     }
 
 
-    private void displayItem(FlowPane flowPane, Item item) {
-        VBox itemBox = new VBox(10);
-        itemBox.setAlignment(Pos.CENTER);
-        itemBox.setStyle("-fx-background-color: #ffffff; -fx-border-color: #cccccc; -fx-border-radius: 15px; -fx-padding: 15px; -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.1), 5, 0, 0, 5);");
-        itemBox.setPrefWidth(200); // Adjust width for consistent sizing
-
-        String imagePath = item.getImagePath();
-        if (imagePath.startsWith("file:")) {
-            imagePath = imagePath.substring(5); // Remove "file:" prefix
+    // Autocomplete under the search field, looked up in the background
+    private void showSuggestions(TextField searchField, ContextMenu suggestionsMenu) {
+        if (suggestTask != null) {
+            suggestTask.cancel();
         }
-
-        if (imagePath != null && !imagePath.isEmpty()) {
-            try {
-                File imageFile = new File(imagePath);
-                if (imageFile.exists()) {
-                    Image itemImage = new Image(imageFile.toURI().toString());
-                    ImageView itemImageView = new ImageView(itemImage);
-                    itemImageView.setFitWidth(150); // Adjust image width
-                    itemImageView.setFitHeight(150); // Adjust image height
-                    itemImageView.setPreserveRatio(true);
-                    itemImageView.setSmooth(true);
-                    itemBox.getChildren().add(itemImageView);
-                }
-            } catch (Exception e) {
-                System.out.println("Error loading image from path: " + imagePath);
-                e.printStackTrace();
-            }
+        String prefix = searchField.getText();
+        if (prefix == null || prefix.isBlank()) {
+            suggestionsMenu.hide();
+            return;
         }
-
-        Label itemName = new Label(item.getItemName());
-        itemName.setStyle("-fx-font-size: 14px; -fx-font-weight: bold; -fx-text-fill: #333333;");
-
-        Label itemPrice = new Label("$" + item.getPrice());
-        itemPrice.setStyle("-fx-font-size: 14px; -fx-text-fill: #666666;");
-
-        Label itemStock = new Label("Stock: " + item.getStockQuantity());
-        itemStock.setStyle("-fx-font-size: 14px; -fx-text-fill: #999999;");
-
-        itemBox.getChildren().addAll(itemName, itemPrice, itemStock);
-
-        // Add margin to itemBox
-        VBox.setMargin(itemBox, new Insets(10));
-
-        flowPane.getChildren().add(itemBox);
-
-        itemBox.setOnMouseClicked(event -> openItemDetailsPage(item, (Stage) flowPane.getScene().getWindow()));
+        suggestTask = BackgroundTasks.getInstance().submit(progress -> ItemSearchIndex.getInstance().suggest(prefix, SUGGESTIONS),
+            names -> {
+                suggestionsMenu.getItems().clear();
+                for (String name : names) {
+                    if (name.equalsIgnoreCase(prefix.trim())) {
+                        continue;
+                    }
+                    MenuItem suggestion = new MenuItem(name);
+                    suggestion.setOnAction(e -> {
+                        searchField.setText(name);
+                        searchField.positionCaret(name.length());
+                    });
+                    suggestionsMenu.getItems().add(suggestion);
+                }
+                if (suggestionsMenu.getItems().isEmpty() || !searchField.isFocused()) {
+                    suggestionsMenu.hide();
+                } else if (!suggestionsMenu.isShowing() && searchField.getScene() != null) {
+                    suggestionsMenu.show(searchField, Side.BOTTOM, 0, 0);
+                }
+            }, error -> System.err.println("Error loading suggestions: " + error.getMessage()));
     }
 
-    private void updateFilters(TextField searchField, ComboBox<String> filterComboBox, ComboBox<String> sortComboBox, FlowPane itemsFlowPane) {
+    private void updateFilters(TextField searchField, ComboBox<String> filterComboBox, ComboBox<String> sortComboBox, ItemGrid itemGrid) {
         String searchQuery = searchField.getText();
         String categoryFilter = filterComboBox.getValue();
         String sortOrder = sortComboBox.getValue();
-        displayItems(itemsFlowPane, searchQuery, categoryFilter, sortOrder);
+        displayItems(itemGrid, searchQuery, categoryFilter, sortOrder);
     }
 
     private void styleResetButton(Button button) {
@@ -215,25 +228,41 @@ public class ViewItemsView {
         itemDetailsLayout.setAlignment(Pos.CENTER);
         itemDetailsLayout.setStyle("-fx-background-color: #f8f8f8; -fx-padding: 20px;");
 
-        try {
-            String imagePath = item.getImagePath();
-            if (imagePath != null && imagePath.startsWith("file:")) {
-                imagePath = imagePath.substring(5);
-            }
-            if (imagePath != null && !imagePath.isEmpty()) {
-                Image itemImage = new Image(new File(imagePath).toURI().toString());
-                ImageView imageView = new ImageView(itemImage);
-                imageView.setFitWidth(250);
-                imageView.setFitHeight(250);
-                itemDetailsLayout.getChildren().add(imageView);
+        // Found and decoded in the background; a grey box stands in until it is ready
+        ImageView imageView = new ImageView();
+        imageView.setFitWidth(250);
+        imageView.setFitHeight(250);
+        imageView.setPreserveRatio(true);
+        Region placeholder = new Region();
+        placeholder.setStyle("-fx-background-color: #eeeeee;");
+        placeholder.setMaxSize(250, 250);
+        Label errorLabel = new Label("Error loading image.");
+        errorLabel.setVisible(false);
+        StackPane imageBox = new StackPane(placeholder, imageView, errorLabel);
+        imageBox.setPrefSize(250, 250);
+        Consumer<Image> showImage = itemImage -> {
+            imageView.setImage(itemImage);
+            placeholder.visibleProperty().unbind();
+            errorLabel.visibleProperty().unbind();
+            if (itemImage != null) {
+                placeholder.visibleProperty().bind(itemImage.progressProperty().lessThan(1));
+                errorLabel.visibleProperty().bind(itemImage.errorProperty());
             } else {
-                Label errorLabel = new Label("No image available.");
-                itemDetailsLayout.getChildren().add(errorLabel);
+                placeholder.setVisible(false);
+                errorLabel.setText("No image available.");
+                errorLabel.setVisible(true);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            Label errorLabel = new Label("Error loading image.");
-            itemDetailsLayout.getChildren().add(errorLabel);
+        };
+        String imagePath = item.getImagePath();
+        if (imagePath != null && !imagePath.isEmpty()) {
+            Image itemImage = ThumbnailCache.getInstance().get(imagePath, 250, showImage);
+            if (itemImage != null) {
+                showImage.accept(itemImage);
+            }
+            itemDetailsLayout.getChildren().add(imageBox);
+        } else {
+            Label noImageLabel = new Label("No image available.");
+            itemDetailsLayout.getChildren().add(noImageLabel);
         }
 
         Label itemName = new Label(item.getItemName());
@@ -263,23 +292,11 @@ public class ViewItemsView {
             boolean isDeleted = fileHandler.deleteItemAndUpdateSuppliers(item, manager.getItems(), manager.getSuppliers());
 
             if (isDeleted) {
-                items = fileHandler.loadInventory();
                 itemStage.close();
                 Alert alert = new Alert(Alert.AlertType.INFORMATION, "Item deleted successfully.", ButtonType.OK);
                 alert.showAndWait();
 
-                BorderPane rootPane = (BorderPane) ownerStage.getScene().getRoot();
-                if (rootPane.getCenter() instanceof ScrollPane) {
-                    ScrollPane scrollPane = (ScrollPane) rootPane.getCenter();
-                    if (scrollPane.getContent() instanceof FlowPane) {
-                        FlowPane itemsFlowPane = (FlowPane) scrollPane.getContent();
-                        displayItems(itemsFlowPane, "", "All", "Low to High");
-                    } else {
-                        System.err.println("The content of ScrollPane is not a FlowPane.");
-                    }
-                } else {
-                    System.err.println("The center of BorderPane is not a ScrollPane.");
-                }
+                displayItems(itemGrid, "", "All", "Low to High");
 
             } else {
                 Alert alert = new Alert(Alert.AlertType.ERROR, "Failed to delete the item. Please try again.", ButtonType.OK);